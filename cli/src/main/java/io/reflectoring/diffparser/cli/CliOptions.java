@@ -0,0 +1,186 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The options of the command line tool.
+ */
+final class CliOptions {
+
+    static final String USAGE = ""
+            + "Usage: diffparser [options] <file|directory|->...\n"
+            + "\n"
+            + "Parses patch files and writes one JSON object per diff to stdout (NDJSON). Directories are searched\n"
+            + "recursively, \"-\" reads from stdin. Compressed input (gzip, zlib) is detected automatically.\n"
+            + "\n"
+            + "Options:\n"
+            + "  --lines             include the lines of each hunk\n"
+            + "  --stats             write the statistics of each input and of all inputs instead of the diffs\n"
+            + "  --threads <n>       the number of inputs parsed in parallel (default: number of processors)\n"
+            + "  --charset <name>    the charset of the input (default: UTF-8)\n"
+            + "  --context <n>       drop all but n context lines around each change\n"
+            + "  --glob <pattern>    only parse the files in directories matching the glob, e.g. \"**.patch\"\n"
+            + "  --lenient           skip malformed parts of the input instead of failing\n"
+            + "  --quiet             do not report the throughput on stderr\n"
+            + "  --help              show this help\n";
+
+    private final List<String> inputs = new ArrayList<>();
+
+    private boolean lines;
+
+    private boolean stats;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private Charset charset = StandardCharsets.UTF_8;
+
+    private int contextLines = -1;
+
+    private String glob;
+
+    private boolean lenient;
+
+    private boolean quiet;
+
+    private boolean help;
+
+    private CliOptions() {
+    }
+
+    /**
+     * Parses the given command line arguments.
+     *
+     * @throws IllegalArgumentException if an argument is unknown or invalid.
+     */
+    static CliOptions parse(String... args) {
+        CliOptions options = new CliOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--lines":
+                    options.lines = true;
+                    break;
+                case "--stats":
+                    options.stats = true;
+                    break;
+                case "--threads":
+                    options.threads = number(arg, value(args, ++i, arg), 1);
+                    break;
+                case "--charset":
+                    try {
+                        options.charset = Charset.forName(value(args, ++i, arg));
+                    } catch (RuntimeException e) {
+                        throw new IllegalArgumentException("Unsupported charset: " + args[i]);
+                    }
+                    break;
+                case "--context":
+                    options.contextLines = number(arg, value(args, ++i, arg), 0);
+                    break;
+                case "--glob":
+                    options.glob = value(args, ++i, arg);
+                    break;
+                case "--lenient":
+                    options.lenient = true;
+                    break;
+                case "--quiet":
+                    options.quiet = true;
+                    break;
+                case "--help":
+                case "-h":
+                    options.help = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    options.inputs.add(arg);
+            }
+        }
+        if (options.inputs.isEmpty() && !options.help) {
+            throw new IllegalArgumentException("No input given");
+        }
+        return options;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value of option " + option);
+        }
+        return args[index];
+    }
+
+    private static int number(String option, String value, int minimum) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= minimum) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value of option " + option + ": " + value);
+    }
+
+    List<String> getInputs() {
+        return Collections.unmodifiableList(inputs);
+    }
+
+    boolean isLines() {
+        return lines;
+    }
+
+    boolean isStats() {
+        return stats;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * The number of context lines to keep, -1 to keep all.
+     */
+    int getContextLines() {
+        return contextLines;
+    }
+
+    String getGlob() {
+        return glob;
+    }
+
+    boolean isLenient() {
+        return lenient;
+    }
+
+    boolean isQuiet() {
+        return quiet;
+    }
+
+    boolean isHelp() {
+        return help;
+    }
+
+}
@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.LineRuns;
+import io.reflectoring.diffparser.api.model.Range;
+
+import java.util.List;
+
+/**
+ * Writes a {@link Diff} as a JSON object like the following, leaving out the properties that are not known:
+ * <pre>
+ * {"input":"changes.patch","from":"a/old.txt","to":"b/new.txt","changeType":"RENAMED","sourcePath":"old.txt",
+ *  "targetPath":"new.txt","fromBlobId":"5809534","toBlobId":"4f4147a","fromMode":"100644","toMode":"100644",
+ *  "similarity":90,"binary":false,"combined":false,"added":1,"removed":1,
+ *  "hunks":[{"from":{"start":1,"count":3},"to":{"start":1,"count":3},"added":1,"removed":1,
+ *            "lines":[" one","-two","+2"," three"]}]}
+ * </pre>
+ * The lines are only written if requested and are prefixed like in a unified diff. Combined diffs have the properties
+ * {@code "fromBlobIds"} and {@code "fromModes"} with the blob id and mode of each parent instead of {@code "fromBlobId"}
+ * and {@code "fromMode"}, and their hunks have the additional property {@code "fromRanges"} with the range of each
+ * parent. The lines of a skipped hunk are replaced with {@code "skipped":true}.
+ */
+final class DiffJson {
+
+    private DiffJson() {
+    }
+
+    static void append(JsonBuilder json, String input, Diff diff, boolean withLines) {
+        json.beginObject();
+        json.name("input").value(input);
+        optional(json, "from", diff.getFromFileName());
+        optional(json, "to", diff.getToFileName());
+        json.name("changeType").value(diff.getChangeType().name());
+        optional(json, "sourcePath", diff.getSourcePath());
+        optional(json, "targetPath", diff.getTargetPath());
+        optional(json, "fromBlobId", diff.getFromBlobId());
+        optional(json, "toBlobId", diff.getToBlobId());
+        if (diff.getFromFileMode() != null) {
+            json.name("fromMode").value(Integer.toOctalString(diff.getFromFileMode()));
+        }
+        if (diff.getToFileMode() != null) {
+            json.name("toMode").value(Integer.toOctalString(diff.getToFileMode()));
+        }
+        if (diff.getFromBlobIds().size() > 1) {
+            json.name("fromBlobIds").beginArray();
+            for (String blobId : diff.getFromBlobIds()) {
+                json.value(blobId);
+            }
+            json.endArray();
+        }
+        if (diff.getFromFileModes().size() > 1) {
+            json.name("fromModes").beginArray();
+            for (Integer mode : diff.getFromFileModes()) {
+                json.value(mode == null ? "" : Integer.toOctalString(mode));
+            }
+            json.endArray();
+        }
+        if (diff.getSimilarityIndex() != null) {
+            json.name("similarity").value(diff.getSimilarityIndex());
+        }
+        json.name("binary").value(diff.isBinary());
+        json.name("combined").value(diff.isCombined());
+        long added = 0;
+        long removed = 0;
+        for (Hunk hunk : diff.getHunks()) {
+            added += hunk.getLineRuns().getAddedLineCount();
+            removed += hunk.getLineRuns().getRemovedLineCount();
+        }
+        json.name("added").value(added);
+        json.name("removed").value(removed);
+        json.name("hunks").beginArray();
+        for (Hunk hunk : diff.getHunks()) {
+            appendHunk(json, hunk, withLines);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private static void appendHunk(JsonBuilder json, Hunk hunk, boolean withLines) {
+        LineRuns runs = hunk.getLineRuns();
+        json.beginObject();
+        appendRange(json.name("from"), hunk.getFromFileRange());
+        appendRange(json.name("to"), hunk.getToFileRange());
+        if (hunk.getParentCount() > 1) {
+            json.name("fromRanges").beginArray();
+            for (Range range : hunk.getFromFileRanges()) {
+                appendRange(json, range);
+            }
+            json.endArray();
+        }
+        json.name("added").value(runs.getAddedLineCount());
+        json.name("removed").value(runs.getRemovedLineCount());
+        if (hunk.isSkipped()) {
+            json.name("skipped").value(true);
+        } else if (withLines) {
+            json.name("lines").beginArray();
+            appendLines(json, hunk);
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private static void appendRange(JsonBuilder json, Range range) {
+        json.beginObject()
+                .name("start").value(range.getLineStart())
+                .name("count").value(range.getLineCount())
+                .endObject();
+    }
+
+    /**
+     * Prefixes the lines like {@link io.reflectoring.diffparser.api.UnifiedDiffWriter} does, with one column per
+     * parent for combined diffs.
+     */
+    private static void appendLines(JsonBuilder json, Hunk hunk) {
+        int parents = hunk.getParentCount();
+        List<Line> lines = hunk.getLines();
+        StringBuilder columns = parents > 1 ? new StringBuilder() : null;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            CharSequence content = line.getContentSequence();
+            if (line.getLineType() == Line.LineType.NEUTRAL) {
+                // neutral lines keep their leading space, which stands for the last parent column
+                if (parents == 1 || line.isNoNewlineMarker()) {
+                    json.value(content);
+                } else {
+                    columns.setLength(0);
+                    for (int parent = 1; parent < parents; parent++) {
+                        columns.append(' ');
+                    }
+                    json.value(columns.append(content));
+                }
+            } else if (parents == 1) {
+                json.value(line.getLineType() == Line.LineType.FROM ? '-' : '+', content);
+            } else {
+                columns.setLength(0);
+                for (int parent = 0; parent < parents; parent++) {
+                    boolean inParent = hunk.isLineInParent(i, parent);
+                    if (line.getLineType() == Line.LineType.FROM) {
+                        columns.append(inParent ? '-' : ' ');
+                    } else {
+                        columns.append(inParent ? ' ' : '+');
+                    }
+                }
+                json.value(columns.append(content));
+            }
+        }
+    }
+
+    private static void optional(JsonBuilder json, String name, String value) {
+        if (value != null) {
+            json.name(name).value(value);
+        }
+    }
+
+}
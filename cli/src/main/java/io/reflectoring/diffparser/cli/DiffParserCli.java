@@ -0,0 +1,264 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+import io.reflectoring.diffparser.api.DiffListener;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line tool that parses patch files and writes the parsed diffs or their statistics as newline-delimited
+ * JSON. The inputs are parsed in parallel, one input per thread, and each Diff is written as soon as it has been
+ * parsed, so the memory needed per input does not grow with the size of the input. See {@link CliOptions#USAGE}.
+ */
+public final class DiffParserCli {
+
+    static final int EXIT_FAILED_INPUT = 1;
+
+    static final int EXIT_USAGE = 2;
+
+    private final CliOptions options;
+
+    private final InputStream stdin;
+
+    private final Writer out;
+
+    private final PrintStream err;
+
+    private ThroughputReporter reporter;
+
+    DiffParserCli(CliOptions options, InputStream stdin, Writer out, PrintStream err) {
+        this.options = options;
+        this.stdin = stdin;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) throws IOException {
+        CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("diffparser: " + e.getMessage());
+            System.err.print(CliOptions.USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+        if (options.isHelp()) {
+            System.out.print(CliOptions.USAGE);
+            return;
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        System.exit(new DiffParserCli(options, System.in, out, System.err).run());
+    }
+
+    /**
+     * Parses all inputs and writes the results.
+     *
+     * @return the exit code of the tool.
+     */
+    int run() throws IOException {
+        List<Input> inputs;
+        try {
+            inputs = resolveInputs();
+        } catch (IllegalArgumentException e) {
+            err.println("diffparser: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        reporter = new ThroughputReporter(err, inputs.size());
+        if (!options.isQuiet()) {
+            reporter.start();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(options.getThreads(),
+                inputs.size())));
+        int exitCode = 0;
+        try {
+            List<Future<PatchStats>> results = new ArrayList<>(inputs.size());
+            for (final Input input : inputs) {
+                results.add(executor.submit(new Callable<PatchStats>() {
+                    @Override
+                    public PatchStats call() throws IOException {
+                        try {
+                            return parse(input);
+                        } finally {
+                            reporter.inputCompleted();
+                        }
+                    }
+                }));
+            }
+            PatchStats total = new PatchStats(null);
+            for (int i = 0; i < inputs.size(); i++) {
+                PatchStats stats;
+                try {
+                    stats = results.get(i).get();
+                } catch (ExecutionException e) {
+                    err.println("diffparser: " + inputs.get(i).name + ": " + e.getCause());
+                    exitCode = EXIT_FAILED_INPUT;
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return EXIT_FAILED_INPUT;
+                }
+                if (options.isStats()) {
+                    writeJson(stats);
+                    total.add(stats);
+                }
+            }
+            if (options.isStats()) {
+                writeJson(total);
+            }
+        } finally {
+            executor.shutdownNow();
+            out.flush();
+            if (!options.isQuiet()) {
+                reporter.finish();
+            }
+        }
+        return exitCode;
+    }
+
+    private PatchStats parse(final Input input) throws IOException {
+        final PatchStats stats = new PatchStats(input.name);
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(options.getCharset());
+        parser.setLenient(options.isLenient());
+        if (options.getContextLines() >= 0) {
+            parser.setMaxContextLines(options.getContextLines());
+        }
+        parser.setDiffListener(new DiffListener() {
+            @Override
+            public void onDiff(Diff diff) {
+                stats.add(diff);
+                reporter.diffParsed();
+                if (!options.isStats()) {
+                    StringBuilder json = new StringBuilder(256);
+                    DiffJson.append(new JsonBuilder(json), input.name, diff, options.isLines());
+                    writeLine(json);
+                }
+            }
+        });
+        if (input.path == null) {
+            parser.parse(reporter.count(stdin));
+        } else {
+            try (InputStream in = Files.newInputStream(input.path)) {
+                parser.parse(reporter.count(in));
+            }
+        }
+        return stats;
+    }
+
+    private void writeJson(PatchStats stats) {
+        StringBuilder json = new StringBuilder(128);
+        stats.appendJson(new JsonBuilder(json));
+        writeLine(json);
+    }
+
+    /**
+     * Writes a line of output. The lines of the parsing threads are written whole, but in no particular order.
+     */
+    private void writeLine(CharSequence line) {
+        synchronized (out) {
+            try {
+                out.append(line).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Resolves the input arguments to files. Directories are replaced with the regular files they contain, in the
+     * order of their paths, which are filtered by the glob relative to the directory.
+     */
+    private List<Input> resolveInputs() throws IOException {
+        PathMatcher matcher = options.getGlob() == null ? null
+                : FileSystems.getDefault().getPathMatcher("glob:" + options.getGlob());
+        List<Input> inputs = new ArrayList<>();
+        for (String name : options.getInputs()) {
+            if ("-".equals(name)) {
+                inputs.add(new Input(name, null));
+                continue;
+            }
+            Path path = Paths.get(name);
+            if (Files.isDirectory(path)) {
+                for (Path file : listFiles(path, matcher)) {
+                    inputs.add(new Input(file.toString(), file));
+                }
+            } else if (Files.isRegularFile(path)) {
+                inputs.add(new Input(name, path));
+            } else {
+                throw new IllegalArgumentException("No such file or directory: " + name);
+            }
+        }
+        return inputs;
+    }
+
+    private static List<Path> listFiles(final Path directory, final PathMatcher matcher) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && (matcher == null || matcher.matches(directory.relativize(file)))) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(files);
+        return files;
+    }
+
+    private static final class Input {
+
+        private final String name;
+
+        /**
+         * The file to read, null for stdin.
+         */
+        private final Path path;
+
+        private Input(String name, Path path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+/**
+ * Appends JSON to a {@link StringBuilder} without building a tree first. Commas between members and elements are
+ * inserted automatically, everything else is up to the caller.
+ */
+final class JsonBuilder {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder out;
+
+    /**
+     * Whether the next member or element is the first one of its object or array.
+     */
+    private boolean first = true;
+
+    JsonBuilder(StringBuilder out) {
+        this.out = out;
+    }
+
+    JsonBuilder beginObject() {
+        separate();
+        out.append('{');
+        first = true;
+        return this;
+    }
+
+    JsonBuilder endObject() {
+        out.append('}');
+        first = false;
+        return this;
+    }
+
+    JsonBuilder beginArray() {
+        separate();
+        out.append('[');
+        first = true;
+        return this;
+    }
+
+    JsonBuilder endArray() {
+        out.append(']');
+        first = false;
+        return this;
+    }
+
+    JsonBuilder name(String name) {
+        separate();
+        string(name);
+        out.append(':');
+        // the value following the name must not be separated
+        first = true;
+        return this;
+    }
+
+    JsonBuilder value(CharSequence value) {
+        separate();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        first = false;
+        return this;
+    }
+
+    JsonBuilder value(long value) {
+        separate();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    JsonBuilder value(boolean value) {
+        separate();
+        out.append(value);
+        first = false;
+        return this;
+    }
+
+    /**
+     * Appends a string value consisting of a prefix character and the given content, which saves copying the content
+     * of a line just to prefix it.
+     */
+    JsonBuilder value(char prefix, CharSequence content) {
+        separate();
+        out.append('"');
+        escape(prefix);
+        for (int i = 0; i < content.length(); i++) {
+            escape(content.charAt(i));
+        }
+        out.append('"');
+        first = false;
+        return this;
+    }
+
+    private void separate() {
+        if (!first) {
+            out.append(',');
+        }
+        first = false;
+    }
+
+    private void string(CharSequence value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            escape(value.charAt(i));
+        }
+        out.append('"');
+    }
+
+    private void escape(char c) {
+        switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                } else {
+                    out.append(c);
+                }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.LineRuns;
+
+/**
+ * The number of diffs, hunks and changed lines of one or more inputs.
+ */
+final class PatchStats {
+
+    private final String input;
+
+    private int inputs;
+
+    private long diffs;
+
+    private long binaryDiffs;
+
+    private long hunks;
+
+    private long skippedHunks;
+
+    private long addedLines;
+
+    private long removedLines;
+
+    /**
+     * @param input the name of the input, or null for the statistics of several inputs.
+     */
+    PatchStats(String input) {
+        this.input = input;
+        this.inputs = input == null ? 0 : 1;
+    }
+
+    void add(Diff diff) {
+        diffs++;
+        if (diff.isBinary()) {
+            binaryDiffs++;
+        }
+        for (Hunk hunk : diff.getHunks()) {
+            hunks++;
+            if (hunk.isSkipped()) {
+                skippedHunks++;
+            }
+            LineRuns runs = hunk.getLineRuns();
+            addedLines += runs.getAddedLineCount();
+            removedLines += runs.getRemovedLineCount();
+        }
+    }
+
+    void add(PatchStats stats) {
+        inputs += stats.inputs;
+        diffs += stats.diffs;
+        binaryDiffs += stats.binaryDiffs;
+        hunks += stats.hunks;
+        skippedHunks += stats.skippedHunks;
+        addedLines += stats.addedLines;
+        removedLines += stats.removedLines;
+    }
+
+    long getDiffs() {
+        return diffs;
+    }
+
+    /**
+     * Appends the statistics as a JSON object.
+     */
+    void appendJson(JsonBuilder json) {
+        json.beginObject();
+        if (input != null) {
+            json.name("input").value(input);
+        } else {
+            json.name("inputs").value(inputs);
+        }
+        json.name("diffs").value(diffs)
+                .name("binaryDiffs").value(binaryDiffs)
+                .name("hunks").value(hunks)
+                .name("skippedHunks").value(skippedHunks)
+                .name("added").value(addedLines)
+                .name("removed").value(removedLines)
+                .endObject();
+    }
+
+}
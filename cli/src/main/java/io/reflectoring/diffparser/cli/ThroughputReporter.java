@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.cli;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes read and the diffs parsed by all parsing threads and reports them to stderr once per second and
+ * when all inputs have been parsed.
+ */
+final class ThroughputReporter {
+
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final PrintStream err;
+
+    private final int inputCount;
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder diffs = new LongAdder();
+
+    private final AtomicInteger completedInputs = new AtomicInteger();
+
+    private final long start = System.nanoTime();
+
+    private ScheduledExecutorService timer;
+
+    ThroughputReporter(PrintStream err, int inputCount) {
+        this.err = err;
+        this.inputCount = inputCount;
+    }
+
+    /**
+     * Starts reporting the throughput once per second.
+     */
+    void start() {
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "diffparser-throughput");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        timer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                report();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic reports and reports the totals.
+     */
+    void finish() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        err.println(String.format("diffparser: %d inputs, %d diffs, %.1f MB in %.1f s (%.1f MB/s)",
+                completedInputs.get(), diffs.sum(), bytes.sum() / MEGABYTE, seconds, megabytesPerSecond(seconds)));
+    }
+
+    /**
+     * Wraps the given input so that the bytes read from it are counted.
+     */
+    InputStream count(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytes.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    bytes.add(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    void diffParsed() {
+        diffs.increment();
+    }
+
+    void inputCompleted() {
+        completedInputs.incrementAndGet();
+    }
+
+    private void report() {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        err.println(String.format("diffparser: %d/%d inputs, %d diffs, %.1f MB, %.1f MB/s", completedInputs.get(),
+                inputCount, diffs.sum(), bytes.sum() / MEGABYTE, megabytesPerSecond(seconds)));
+    }
+
+    private double megabytesPerSecond(double seconds) {
+        return seconds > 0 ? bytes.sum() / MEGABYTE / seconds : 0;
+    }
+
+}
@@ -0,0 +1,197 @@
+package io.reflectoring.diffparser.cli;
+
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests the command line tool on patch files in a temporary directory.
+ */
+public class DiffParserCliTest {
+
+    private static final String FIRST = ""
+            + "diff --git a/one.txt b/one.txt\n"
+            + "index 5809534..4f4147a 100644\n"
+            + "--- a/one.txt\n"
+            + "+++ b/one.txt\n"
+            + "@@ -1,2 +1,2 @@\n"
+            + " first \"line\"\n"
+            + "-a\n"
+            + "+b\n"
+            + "\n"
+            + "diff --git a/two.txt b/two.txt\n"
+            + "new file mode 100755\n"
+            + "--- /dev/null\n"
+            + "+++ b/two.txt\n"
+            + "@@ -0,0 +1,2 @@\n"
+            + "+c\n"
+            + "+d\n";
+
+    private static final String SECOND = ""
+            + "--- a/three.txt\n"
+            + "+++ b/three.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-e\n"
+            + "+f\n";
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void testRun_WritesDiffs() throws Exception {
+        Path directory = createPatches();
+        try {
+            // given
+            String first = directory.resolve("first.patch").toString();
+
+            // when
+            StringWriter out = new StringWriter();
+            int exitCode = run(out, "--quiet", "--lines", "--threads", "2", directory.toString());
+
+            // then
+            Assert.assertEquals(0, exitCode);
+            List<String> lines = sortedLines(out);
+            Assert.assertEquals(3, lines.size());
+            Assert.assertEquals("{\"input\":\"" + first + "\",\"from\":\"a/one.txt\",\"to\":\"b/one.txt\","
+                    + "\"changeType\":\"MODIFIED\",\"fromBlobId\":\"5809534\",\"toBlobId\":\"4f4147a\","
+                    + "\"fromMode\":\"100644\",\"toMode\":\"100644\",\"binary\":false,\"combined\":false,"
+                    + "\"added\":1,\"removed\":1,\"hunks\":[{\"from\":{\"start\":1,\"count\":2},"
+                    + "\"to\":{\"start\":1,\"count\":2},\"added\":1,\"removed\":1,"
+                    + "\"lines\":[\" first \\\"line\\\"\",\"-a\",\"+b\"]}]}", lines.get(1));
+            Assert.assertTrue(lines.get(0).contains("\"to\":\"b/two.txt\",\"changeType\":\"ADDED\""));
+            Assert.assertTrue(lines.get(0).contains("\"toMode\":\"100755\""));
+            Assert.assertTrue(lines.get(2).contains("\"from\":\"a/three.txt\""));
+            Assert.assertTrue(lines.get(2).contains("\"lines\":[\"-e\",\"+f\"]"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testRun_WritesStats() throws Exception {
+        Path directory = createPatches();
+        try {
+            // when
+            StringWriter out = new StringWriter();
+            int exitCode = run(out, "--stats", "--glob", "*.patch", directory.toString());
+
+            // then
+            Assert.assertEquals(0, exitCode);
+            List<String> lines = Arrays.asList(out.toString().split("\n"));
+            Assert.assertEquals(2, lines.size());
+            Assert.assertEquals("{\"input\":\"" + directory.resolve("first.patch") + "\",\"diffs\":2,\"binaryDiffs\":0,"
+                    + "\"hunks\":2,\"skippedHunks\":0,\"added\":3,\"removed\":1}", lines.get(0));
+            Assert.assertEquals("{\"inputs\":1,\"diffs\":2,\"binaryDiffs\":0,\"hunks\":2,\"skippedHunks\":0,\"added\":3,"
+                    + "\"removed\":1}", lines.get(1));
+            Assert.assertTrue(err.toString().contains("diffparser: 1 inputs, 2 diffs"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testRun_ReadsStdin() throws Exception {
+        // when
+        StringWriter out = new StringWriter();
+        int exitCode = new DiffParserCli(CliOptions.parse("--quiet", "-"),
+                new ByteArrayInputStream(SECOND.getBytes(StandardCharsets.UTF_8)), out, new PrintStream(err)).run();
+
+        // then
+        Assert.assertEquals(0, exitCode);
+        Assert.assertTrue(out.toString().startsWith("{\"input\":\"-\",\"from\":\"a/three.txt\""));
+    }
+
+    @Test
+    public void testRun_ReportsFailedInput() throws Exception {
+        Path directory = createPatches();
+        try {
+            // given
+            File broken = directory.resolve("broken.patch").toFile();
+            Files.write(broken.toPath(), "--- a/x\n--- a/y\n".getBytes(StandardCharsets.UTF_8));
+
+            // when
+            StringWriter out = new StringWriter();
+            int exitCode = run(out, "--quiet", "--stats", broken.getPath(), directory.resolve("first.patch").toString());
+
+            // then
+            Assert.assertEquals(DiffParserCli.EXIT_FAILED_INPUT, exitCode);
+            Assert.assertTrue(err.toString().startsWith("diffparser: " + broken.getPath() + ": "));
+            Assert.assertTrue(out.toString().endsWith("{\"inputs\":1,\"diffs\":2,\"binaryDiffs\":0,\"hunks\":2,"
+                    + "\"skippedHunks\":0,\"added\":3,\"removed\":1}\n"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOptions_Unknown() {
+        CliOptions.parse("--unknown", "file.patch");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOptions_InvalidNumber() {
+        CliOptions.parse("--threads", "0", "file.patch");
+    }
+
+    @Test
+    public void testJson_Escaping() {
+        // when
+        StringBuilder json = new StringBuilder();
+        new JsonBuilder(json).beginArray().value("a\"b\\c\n\u0001").value('+', "\t").value((String) null).endArray();
+
+        // then
+        Assert.assertEquals("[\"a\\\"b\\\\c\\n\\u0001\",\"+\\t\",null]", json.toString());
+    }
+
+    private Path createPatches() throws IOException {
+        Path directory = Files.createTempDirectory("diffparser-cli");
+        Files.write(directory.resolve("first.patch"), FIRST.getBytes(StandardCharsets.UTF_8));
+        Files.createDirectory(directory.resolve("nested"));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(directory.resolve("nested/second.patch.gz")))) {
+            out.write(SECOND.getBytes(StandardCharsets.UTF_8));
+        }
+        return directory;
+    }
+
+    private void delete(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private int run(StringWriter out, String... args) throws IOException {
+        return new DiffParserCli(CliOptions.parse(args), System.in, out, new PrintStream(err)).run();
+    }
+
+    private List<String> sortedLines(StringWriter out) {
+        String[] lines = out.toString().split("\n");
+        Arrays.sort(lines);
+        return Arrays.asList(lines);
+    }
+
+}
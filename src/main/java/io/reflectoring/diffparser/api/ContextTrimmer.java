@@ -0,0 +1,236 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reduces the context lines of the Hunks of a single parse to a maximum number of lines around each change, while
+ * the lines are added. Of each run of neutral lines, the first lines are kept as trailing context of the preceding
+ * change and the last lines are held back in a ring buffer until it is known whether another change follows; all
+ * other lines are dropped right away. If lines had to be dropped between two changes, the Hunk is split there once it
+ * is complete, and the ranges of the resulting Hunks are computed from their lines.
+ * <p/>
+ * Hunks without any change lose all of their lines and are removed. Skipped Hunks and the Hunks of combined diffs are
+ * left unchanged.
+ */
+class ContextTrimmer {
+
+    private final int contextLines;
+
+    // the neutral lines held back as leading context of the next change
+    private final Line[] ring;
+
+    private int ringStart;
+
+    private int ringSize;
+
+    private Diff diff;
+
+    private Hunk hunk;
+
+    private int nextFromLine;
+
+    private int nextToLine;
+
+    private boolean seenChange;
+
+    private int trailingLines;
+
+    private boolean droppedLines;
+
+    private boolean previousLineKept;
+
+    // the index of the first line, the first "from" line number and the first "to" line number of each part
+    private int[] parts = new int[3 * 4];
+
+    private int partCount;
+
+    ContextTrimmer(int contextLines) {
+        this.contextLines = contextLines;
+        this.ring = new Line[contextLines];
+    }
+
+    /**
+     * Completes the previous Hunk and starts trimming the given Hunk, which has just been added to the Diff.
+     */
+    void startHunk(Diff diff, Hunk hunk) {
+        finishHunk();
+        if (hunk.getParentCount() > 1 || hunk.isSkipped()) {
+            return;
+        }
+        this.diff = diff;
+        this.hunk = hunk;
+        this.nextFromLine = firstLine(hunk.getFromFileRange());
+        this.nextToLine = firstLine(hunk.getToFileRange());
+        this.seenChange = false;
+        this.trailingLines = 0;
+        this.droppedLines = false;
+        this.previousLineKept = false;
+        this.ringSize = 0;
+        this.partCount = 0;
+    }
+
+    /**
+     * Decides about the line that the parser has just added as last line of the current Hunk.
+     */
+    void lineAdded() {
+        if (hunk == null || hunk.isSkipped()) {
+            return;
+        }
+        List<Line> lines = hunk.getLines();
+        Line line = lines.get(lines.size() - 1);
+        if (line.getLineType() == Line.LineType.NEUTRAL) {
+            if (line.isNoNewlineMarker()) {
+                // the marker belongs to the line before it
+                if (!previousLineKept) {
+                    lines.remove(lines.size() - 1);
+                }
+                return;
+            }
+            nextFromLine++;
+            nextToLine++;
+            if (seenChange && trailingLines < contextLines) {
+                trailingLines++;
+                previousLineKept = true;
+            } else {
+                lines.remove(lines.size() - 1);
+                holdBack(line);
+                previousLineKept = false;
+            }
+            return;
+        }
+
+        if (!seenChange || droppedLines) {
+            // a new part starts with the lines held back as its leading context
+            addPart(lines.size() - 1, nextFromLine - ringSize, nextToLine - ringSize);
+        }
+        if (ringSize > 0) {
+            lines.remove(lines.size() - 1);
+            for (int i = 0; i < ringSize; i++) {
+                lines.add(ring[(ringStart + i) % ring.length]);
+                ring[(ringStart + i) % ring.length] = null;
+            }
+            lines.add(line);
+        }
+        if (line.getLineType() == Line.LineType.FROM) {
+            nextFromLine++;
+        } else {
+            nextToLine++;
+        }
+        seenChange = true;
+        trailingLines = 0;
+        droppedLines = false;
+        previousLineKept = true;
+        ringStart = 0;
+        ringSize = 0;
+    }
+
+    /**
+     * Splits the current Hunk into its parts and computes their ranges.
+     */
+    void finishHunk() {
+        if (hunk == null) {
+            return;
+        }
+        Hunk finished = hunk;
+        hunk = null;
+        Arrays.fill(ring, null);
+        if (finished.isSkipped()) {
+            return;
+        }
+        List<Hunk> hunks = diff.getHunks();
+        int index = hunks.lastIndexOf(finished);
+        if (partCount == 0) {
+            hunks.remove(index);
+            return;
+        }
+        List<Line> lines = finished.getLines();
+        List<Hunk> split = new ArrayList<>(partCount);
+        for (int part = 0; part < partCount; part++) {
+            int start = parts[3 * part];
+            int end = part + 1 < partCount ? parts[3 * part + 3] : lines.size();
+            Hunk partHunk = part == 0 ? finished : new Hunk();
+            if (partCount > 1) {
+                partHunk.setLines(new ArrayList<>(lines.subList(start, end)));
+            }
+            setRanges(partHunk, parts[3 * part + 1], parts[3 * part + 2]);
+            split.add(partHunk);
+        }
+        if (partCount > 1) {
+            hunks.remove(index);
+            hunks.addAll(index, split);
+        }
+    }
+
+    private void holdBack(Line line) {
+        if (contextLines == 0) {
+            droppedLines = seenChange;
+            return;
+        }
+        if (ringSize == ring.length) {
+            ringStart = (ringStart + 1) % ring.length;
+            ringSize--;
+            droppedLines = seenChange;
+        }
+        ring[(ringStart + ringSize) % ring.length] = line;
+        ringSize++;
+    }
+
+    private void addPart(int lineIndex, int fromLine, int toLine) {
+        if (3 * partCount + 3 > parts.length) {
+            parts = Arrays.copyOf(parts, parts.length * 2);
+        }
+        parts[3 * partCount] = lineIndex;
+        parts[3 * partCount + 1] = fromLine;
+        parts[3 * partCount + 2] = toLine;
+        partCount++;
+    }
+
+    private void setRanges(Hunk hunk, int fromLine, int toLine) {
+        int fromCount = 0;
+        int toCount = 0;
+        for (Line line : hunk.getLines()) {
+            if (line.getLineType() != Line.LineType.TO && !line.isNoNewlineMarker()) {
+                fromCount++;
+            }
+            if (line.getLineType() != Line.LineType.FROM && !line.isNoNewlineMarker()) {
+                toCount++;
+            }
+        }
+        hunk.setFromFileRange(range(fromLine, fromCount));
+        hunk.setToFileRange(range(toLine, toCount));
+    }
+
+    /**
+     * The number of the first line of a range. An empty range names the line before its position.
+     */
+    private static int firstLine(Range range) {
+        return range.getLineCount() == 0 ? range.getLineStart() + 1 : range.getLineStart();
+    }
+
+    private static Range range(int firstLine, int count) {
+        return new Range(count == 0 ? firstLine - 1 : firstLine, count);
+    }
+
+}
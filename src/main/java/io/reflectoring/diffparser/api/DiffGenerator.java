@@ -0,0 +1,312 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares two versions of a file line by line and creates the {@link Diff} between them, as the
+ * {@link UnifiedDiffParser} would return it for the output of {@code diff -u}. This avoids writing a diff as text
+ * just to parse it again.
+ * <p/>
+ * The lines common to the start and the end of both versions are skipped first, then each remaining line is mapped
+ * to an int that identifies equal lines, so that the difference algorithm only compares ints. Changes are grouped
+ * into Hunks with the configured number of context lines. Since the versions are given as lists of lines, a missing
+ * newline at the end of a file is not detected. A generator is not thread-safe.
+ */
+public class DiffGenerator {
+
+    /**
+     * The algorithms a DiffGenerator can use to match the lines of both versions.
+     */
+    public enum Algorithm {
+
+        /**
+         * Myers' algorithm, which finds a minimal set of changed lines in O((N+M)D) time and linear space, N and M
+         * being the number of lines and D the number of changed lines.
+         */
+        MYERS,
+
+        /**
+         * The histogram algorithm known from git, which matches the lines that occur least often first. The result
+         * may not be minimal, but often follows the structure of the file better, e.g. for moved or duplicated
+         * blocks.
+         */
+        HISTOGRAM
+
+    }
+
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
+
+    private int contextLines = 3;
+
+    private Algorithm algorithm = Algorithm.MYERS;
+
+    /**
+     * Defines the number of unchanged lines shown before and after each change. Changes that are separated by at most
+     * twice this number of lines are part of the same Hunk. Defaults to 3.
+     *
+     * @param contextLines the number of context lines.
+     */
+    public void setContextLines(int contextLines) {
+        this.contextLines = contextLines;
+    }
+
+    /**
+     * Defines the algorithm used to match the lines of both versions. Defaults to {@link Algorithm#MYERS}.
+     *
+     * @param algorithm the difference algorithm.
+     */
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Creates the Diff between the given versions of a file.
+     *
+     * @param from the lines of the first version, without line terminators.
+     * @param to   the lines of the second version, without line terminators.
+     * @return a Diff without file names, which has no Hunks if both versions are equal.
+     */
+    public Diff generate(List<? extends CharSequence> from, List<? extends CharSequence> to) {
+        return generate(null, null, from, to);
+    }
+
+    /**
+     * Creates the Diff between the given versions of a file.
+     *
+     * @param fromFileName the name of the first version, as it would appear in the "---" line.
+     * @param toFileName   the name of the second version, as it would appear in the "+++" line.
+     * @param from         the lines of the first version, without line terminators.
+     * @param to           the lines of the second version, without line terminators.
+     * @return the Diff, which has no Hunks if both versions are equal.
+     */
+    public Diff generate(String fromFileName, String toFileName, List<? extends CharSequence> from,
+                         List<? extends CharSequence> to) {
+        Diff diff = new Diff();
+        diff.setFromFileName(fromFileName);
+        diff.setToFileName(toFileName);
+
+        int fromEnd = from.size();
+        int toEnd = to.size();
+        int prefix = 0;
+        while (prefix < fromEnd && prefix < toEnd && contentEquals(from.get(prefix), to.get(prefix))) {
+            prefix++;
+        }
+        while (fromEnd > prefix && toEnd > prefix && contentEquals(from.get(fromEnd - 1), to.get(toEnd - 1))) {
+            fromEnd--;
+            toEnd--;
+        }
+        if (prefix == fromEnd && prefix == toEnd) {
+            return diff;
+        }
+
+        int[] a = new int[fromEnd - prefix];
+        int[] b = new int[toEnd - prefix];
+        int idCount = new LineIds(a.length + b.length).map(from, prefix, a).map(to, prefix, b).count;
+        boolean[] removed = new boolean[a.length];
+        boolean[] added = new boolean[b.length];
+        if (algorithm == Algorithm.HISTOGRAM) {
+            HistogramDiff.diff(a, 0, a.length, b, 0, b.length, idCount, removed, added);
+        } else {
+            MyersDiff.diff(a, 0, a.length, b, 0, b.length, removed, added);
+        }
+
+        diff.setHunks(createHunks(from, to, edits(removed, added, prefix)));
+        return diff;
+    }
+
+    /**
+     * Collects the blocks of changed lines as {fromStart, fromEnd, toStart, toEnd} quadruples of line indexes.
+     */
+    private int[] edits(boolean[] removed, boolean[] added, int offset) {
+        int[] edits = new int[64];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < removed.length || j < added.length) {
+            if ((i < removed.length && removed[i]) || (j < added.length && added[j])) {
+                int fromStart = i;
+                int toStart = j;
+                while (i < removed.length && removed[i]) {
+                    i++;
+                }
+                while (j < added.length && added[j]) {
+                    j++;
+                }
+                if (size + 4 > edits.length) {
+                    edits = Arrays.copyOf(edits, edits.length * 2);
+                }
+                edits[size++] = offset + fromStart;
+                edits[size++] = offset + i;
+                edits[size++] = offset + toStart;
+                edits[size++] = offset + j;
+            } else {
+                // unchanged lines of both versions follow each other in the same order
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(edits, size);
+    }
+
+    private List<Hunk> createHunks(List<? extends CharSequence> from, List<? extends CharSequence> to, int[] edits) {
+        int context = Math.max(0, contextLines);
+        List<Hunk> hunks = new ArrayList<>();
+        int first = 0;
+        while (first < edits.length) {
+            int last = first;
+            while (last + 4 < edits.length && edits[last + 4] - edits[last + 1] <= 2 * context) {
+                last += 4;
+            }
+            int fromStart = Math.max(0, edits[first] - context);
+            int toStart = edits[first + 2] - (edits[first] - fromStart);
+            int fromEnd = Math.min(from.size(), edits[last + 1] + context);
+            int toEnd = edits[last + 3] + (fromEnd - edits[last + 1]);
+
+            List<Line> lines = new ArrayList<>(fromEnd - fromStart + toEnd - toStart);
+            int position = fromStart;
+            for (int edit = first; edit <= last; edit += 4) {
+                addNeutralLines(lines, from, position, edits[edit]);
+                for (int i = edits[edit]; i < edits[edit + 1]; i++) {
+                    lines.add(new Line(Line.LineType.FROM, from.get(i)));
+                }
+                for (int i = edits[edit + 2]; i < edits[edit + 3]; i++) {
+                    lines.add(new Line(Line.LineType.TO, to.get(i)));
+                }
+                position = edits[edit + 1];
+            }
+            addNeutralLines(lines, from, position, fromEnd);
+
+            Hunk hunk = new Hunk();
+            hunk.setFromFileRange(range(fromStart, fromEnd));
+            hunk.setToFileRange(range(toStart, toEnd));
+            hunk.setLines(lines);
+            hunks.add(hunk);
+            first = last + 4;
+        }
+        return hunks;
+    }
+
+    /**
+     * Neutral lines keep the leading space of the unified diff format, like the lines created by the parser.
+     */
+    private void addNeutralLines(List<Line> lines, List<? extends CharSequence> from, int start, int end) {
+        for (int i = start; i < end; i++) {
+            CharSequence content = from.get(i);
+            lines.add(new Line(Line.LineType.NEUTRAL,
+                    new StringBuilder(content.length() + 1).append(' ').append(content).toString()));
+        }
+    }
+
+    /**
+     * An empty range starts at the line before the position, as in the "@@" line of a unified diff.
+     */
+    private Range range(int start, int end) {
+        return new Range(end == start ? start : start + 1, end - start);
+    }
+
+    private static boolean contentEquals(CharSequence first, CharSequence second) {
+        if (first instanceof String && second instanceof String) {
+            return first.equals(second);
+        }
+        int length = first.length();
+        if (length != second.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (first.charAt(i) != second.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps lines to consecutive ids, equal lines to the same id, with an open addressing hash table of ids.
+     */
+    private static final class LineIds {
+
+        private final int[] slots;
+
+        private final int shift;
+
+        private int[] hashes;
+
+        private CharSequence[] lines;
+
+        private int count;
+
+        LineIds(int expectedLines) {
+            int size = Integer.highestOneBit(Math.max(2, expectedLines) * 2 - 1) << 1;
+            this.slots = new int[size];
+            this.shift = 32 - Integer.numberOfTrailingZeros(size);
+            this.hashes = new int[64];
+            this.lines = new CharSequence[64];
+        }
+
+        LineIds map(List<? extends CharSequence> source, int offset, int[] ids) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = id(source.get(offset + i));
+            }
+            return this;
+        }
+
+        private int id(CharSequence line) {
+            int hash = hash(line);
+            int mask = slots.length - 1;
+            for (int slot = (hash * GOLDEN_RATIO) >>> shift; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (id < 0) {
+                    if (count == lines.length) {
+                        lines = Arrays.copyOf(lines, count * 2);
+                        hashes = Arrays.copyOf(hashes, count * 2);
+                    }
+                    lines[count] = line;
+                    hashes[count] = hash;
+                    slots[slot] = ++count;
+                    return count - 1;
+                }
+                if (hashes[id] == hash && contentEquals(lines[id], line)) {
+                    return id;
+                }
+            }
+        }
+
+        /**
+         * The hash code of a String with the same content, which Strings have cached already.
+         */
+        private static int hash(CharSequence line) {
+            if (line instanceof String) {
+                return line.hashCode();
+            }
+            int hash = 0;
+            for (int i = 0; i < line.length(); i++) {
+                hash = 31 * hash + line.charAt(i);
+            }
+            return hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+
+/**
+ * Receives each Diff as soon as it has been parsed completely, so that large inputs can be processed without keeping
+ * all Diffs in memory. It is called on the thread calling the parser.
+ */
+public interface DiffListener {
+
+    /**
+     * Called for each parsed Diff in the order of the input.
+     *
+     * @param diff the parsed Diff.
+     */
+    void onDiff(Diff diff);
+
+}
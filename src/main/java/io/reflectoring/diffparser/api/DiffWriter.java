@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Interface to a writer that renders Diffs as text. See the javadoc of the implementation you want to use to see what
+ * diff format it is producing.
+ */
+public interface DiffWriter {
+
+    /**
+     * Writes the given Diffs as text to a Writer.
+     *
+     * @param diffs  the Diffs to write.
+     * @param writer the Writer to write to. It is not flushed or closed.
+     */
+    void write(List<Diff> diffs, Writer writer) throws IOException;
+
+    /**
+     * Writes the given Diffs as encoded text to an OutputStream.
+     *
+     * @param diffs the Diffs to write.
+     * @param out   the stream to write to. It is not flushed or closed.
+     */
+    void write(List<Diff> diffs, OutputStream out) throws IOException;
+
+    /**
+     * Writes the given Diffs as encoded text into a ByteBuffer, starting at its position.
+     *
+     * @param diffs  the Diffs to write.
+     * @param buffer the buffer to write to. Its position is advanced by the number of bytes written.
+     * @throws java.nio.BufferOverflowException if the buffer is too small.
+     */
+    void write(List<Diff> diffs, ByteBuffer buffer);
+
+}
@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The histogram difference algorithm, an extension of patience diff: a region is split at the longest run of
+ * common lines containing the line that occurs least often, and both sides are split further. Matching rare lines
+ * first keeps moved blocks and frequent lines like closing braces or blank lines from being aligned with the wrong
+ * counterpart. Regions without any rare common line are handed to {@link MyersDiff}.
+ */
+final class HistogramDiff {
+
+    /**
+     * Lines occurring more often than this in a region are not used to split it.
+     */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    private final int[] a;
+
+    private final int[] b;
+
+    private final boolean[] removed;
+
+    private final boolean[] added;
+
+    // occurrences of each line id in the current region of a, chained from the last to the first occurrence
+    private final int[] counts;
+
+    private final int[] lastOccurrence;
+
+    private final int[] previousOccurrence;
+
+    private HistogramDiff(int[] a, int[] b, int idCount, boolean[] removed, boolean[] added) {
+        this.a = a;
+        this.b = b;
+        this.removed = removed;
+        this.added = added;
+        this.counts = new int[idCount];
+        this.lastOccurrence = new int[idCount];
+        this.previousOccurrence = new int[a.length];
+        Arrays.fill(lastOccurrence, -1);
+    }
+
+    /**
+     * Marks the lines of {@code a[aStart, aEnd)} and {@code b[bStart, bEnd)} that are not matched as removed or added.
+     *
+     * @param idCount the number of distinct line ids, all ids are smaller than this.
+     */
+    static void diff(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, int idCount, boolean[] removed,
+                     boolean[] added) {
+        new HistogramDiff(a, b, idCount, removed, added).diff(aStart, aEnd, bStart, bEnd);
+    }
+
+    private void diff(int aStart, int aEnd, int bStart, int bEnd) {
+        // regions are processed from a stack, since splitting at rare lines can nest deeper than the call stack allows
+        Deque<int[]> regions = new ArrayDeque<>();
+        regions.push(new int[]{aStart, aEnd, bStart, bEnd});
+        while (!regions.isEmpty()) {
+            int[] region = regions.pop();
+            int[] split = split(region[0], region[1], region[2], region[3]);
+            if (split != null) {
+                regions.push(new int[]{split[1], region[1], split[3], region[3]});
+                regions.push(new int[]{region[0], split[0], region[2], split[2]});
+            }
+        }
+    }
+
+    /**
+     * Finds the longest common run containing the rarest line of the region.
+     *
+     * @return the bounds {aStart, aEnd, bStart, bEnd} of the run, or null if the region has been diffed completely.
+     */
+    private int[] split(int aStart, int aEnd, int bStart, int bEnd) {
+        while (aStart < aEnd && bStart < bEnd && a[aStart] == b[bStart]) {
+            aStart++;
+            bStart++;
+        }
+        while (aStart < aEnd && bStart < bEnd && a[aEnd - 1] == b[bEnd - 1]) {
+            aEnd--;
+            bEnd--;
+        }
+        if (aStart == aEnd || bStart == bEnd) {
+            MyersDiff.mark(removed, aStart, aEnd);
+            MyersDiff.mark(added, bStart, bEnd);
+            return null;
+        }
+
+        for (int i = aStart; i < aEnd; i++) {
+            int id = a[i];
+            previousOccurrence[i] = lastOccurrence[id];
+            lastOccurrence[id] = i;
+            counts[id]++;
+        }
+
+        int bestCount = MAX_CHAIN_LENGTH + 1;
+        int bestLength = 0;
+        int bestAStart = 0;
+        int bestBStart = 0;
+        int j = bStart;
+        while (j < bEnd) {
+            int count = counts[b[j]];
+            int next = j + 1;
+            if (count == 0 || count > bestCount || count > MAX_CHAIN_LENGTH) {
+                j = next;
+                continue;
+            }
+            for (int i = lastOccurrence[b[j]]; i >= 0; i = previousOccurrence[i]) {
+                int runCount = count;
+                int runAStart = i;
+                int runBStart = j;
+                while (runAStart > aStart && runBStart > bStart && a[runAStart - 1] == b[runBStart - 1]) {
+                    runAStart--;
+                    runBStart--;
+                    runCount = Math.min(runCount, counts[a[runAStart]]);
+                }
+                int runAEnd = i + 1;
+                int runBEnd = j + 1;
+                while (runAEnd < aEnd && runBEnd < bEnd && a[runAEnd] == b[runBEnd]) {
+                    runCount = Math.min(runCount, counts[a[runAEnd]]);
+                    runAEnd++;
+                    runBEnd++;
+                }
+                int length = runAEnd - runAStart;
+                if (runCount < bestCount || (runCount == bestCount && length > bestLength)) {
+                    bestCount = runCount;
+                    bestLength = length;
+                    bestAStart = runAStart;
+                    bestBStart = runBStart;
+                }
+                // the rest of this run has been looked at already
+                next = Math.max(next, runBEnd);
+            }
+            j = next;
+        }
+
+        for (int i = aStart; i < aEnd; i++) {
+            counts[a[i]] = 0;
+            lastOccurrence[a[i]] = -1;
+        }
+
+        if (bestLength == 0) {
+            MyersDiff.diff(a, aStart, aEnd, b, bStart, bEnd, removed, added);
+            return null;
+        }
+        return new int[]{bestAStart, bestAStart + bestLength, bestBStart, bestBStart + bestLength};
+    }
+
+}
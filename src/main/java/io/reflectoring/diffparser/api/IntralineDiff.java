@@ -0,0 +1,364 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Computes which parts of a modified line have changed, so that they can be highlighted. Within each Hunk, a run of
+ * removed lines directly followed by a run of added lines is paired up line by line: the first removed line with the
+ * first added line and so on. The lines of each pair are split into words (or characters) and compared with
+ * {@link MyersDiff}, and the changed parts are stored as {@link Line#getChangedSpans() changed spans} of both lines.
+ * Lines without a counterpart are not compared.
+ * <p/>
+ * Words are runs of letters, digits and underscores or runs of whitespace; every other character is a word of its
+ * own. The words are mapped to ints in a hash table of token offsets, without creating a String per word. Combined
+ * diffs are not supported and left unchanged.
+ */
+public class IntralineDiff {
+
+    /**
+     * The units in which lines are compared.
+     */
+    public enum Granularity {
+
+        /**
+         * Lines are compared word by word, which is what people reading a diff usually expect.
+         */
+        WORD,
+
+        /**
+         * Lines are compared character by character, which finds the smallest changes.
+         */
+        CHARACTER
+
+    }
+
+    private static final int HUNKS_PER_TASK = 256;
+
+    private static final int[] NO_SPANS = new int[0];
+
+    private Granularity granularity = Granularity.WORD;
+
+    private int maxLineLength = 10000;
+
+    private ExecutorService executor;
+
+    /**
+     * Defines whether lines are compared by words or by characters. Defaults to {@link Granularity#WORD}.
+     *
+     * @param granularity the units in which lines are compared.
+     */
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    /**
+     * Defines the maximum length of the lines that are compared. Longer lines, which are usually generated or
+     * minified content, are left without changed spans. Defaults to 10000 characters.
+     *
+     * @param maxLineLength the maximum length of a compared line.
+     */
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Defines an executor that compares the lines of many Hunks in parallel. By default, all lines are compared on
+     * the calling thread.
+     *
+     * @param executor the executor or null.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Computes the changed spans of the paired lines in all Hunks of the given Diffs.
+     *
+     * @param diffs the Diffs whose lines are updated.
+     */
+    public void compute(List<Diff> diffs) {
+        List<Hunk> hunks = new ArrayList<>();
+        for (Diff diff : diffs) {
+            hunks.addAll(diff.getHunks());
+        }
+        if (executor == null || hunks.size() <= HUNKS_PER_TASK) {
+            new Comparison().compute(hunks);
+            return;
+        }
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < hunks.size(); start += HUNKS_PER_TASK) {
+            final List<Hunk> batch = hunks.subList(start, Math.min(hunks.size(), start + HUNKS_PER_TASK));
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    new Comparison().compute(batch);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Computes the changed spans of the paired lines in the given Hunk.
+     *
+     * @param hunk the Hunk whose lines are updated.
+     */
+    public void compute(Hunk hunk) {
+        new Comparison().compute(hunk);
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * The buffers used to compare lines on one thread.
+     */
+    private final class Comparison {
+
+        private int[] removedPairs = new int[16];
+
+        private int[] addedPairs = new int[16];
+
+        // the start offset of each token, followed by the length of the line
+        private int[] fromStarts = new int[64];
+
+        private int[] toStarts = new int[64];
+
+        private int[] fromIds = new int[64];
+
+        private int[] toIds = new int[64];
+
+        private int[] slots = new int[128];
+
+        private void compute(List<Hunk> hunks) {
+            for (Hunk hunk : hunks) {
+                compute(hunk);
+            }
+        }
+
+        private void compute(Hunk hunk) {
+            if (hunk.getParentCount() > 1) {
+                return;
+            }
+            List<Line> lines = hunk.getLines();
+            int i = 0;
+            while (i < lines.size()) {
+                if (lines.get(i).getLineType() != Line.LineType.FROM) {
+                    i++;
+                    continue;
+                }
+                int removedCount = 0;
+                while (i < lines.size() && (lines.get(i).getLineType() == Line.LineType.FROM
+                        || lines.get(i).isNoNewlineMarker())) {
+                    if (lines.get(i).getLineType() == Line.LineType.FROM) {
+                        removedPairs = grow(removedPairs, removedCount + 1);
+                        removedPairs[removedCount++] = i;
+                    }
+                    i++;
+                }
+                int addedCount = 0;
+                while (i < lines.size() && (lines.get(i).getLineType() == Line.LineType.TO
+                        || lines.get(i).isNoNewlineMarker())) {
+                    if (lines.get(i).getLineType() == Line.LineType.TO) {
+                        addedPairs = grow(addedPairs, addedCount + 1);
+                        addedPairs[addedCount++] = i;
+                    }
+                    i++;
+                }
+                for (int pair = 0; pair < Math.min(removedCount, addedCount); pair++) {
+                    compare(lines.get(removedPairs[pair]), lines.get(addedPairs[pair]));
+                }
+            }
+        }
+
+        private void compare(Line from, Line to) {
+            CharSequence fromContent = from.getContentSequence();
+            CharSequence toContent = to.getContentSequence();
+            if (fromContent.length() > maxLineLength || toContent.length() > maxLineLength) {
+                return;
+            }
+            int fromTokens = tokenize(fromContent, true);
+            int toTokens = tokenize(toContent, false);
+            if (granularity == Granularity.WORD) {
+                mapWords(fromContent, fromTokens, toContent, toTokens);
+            }
+            boolean[] removed = new boolean[fromTokens];
+            boolean[] added = new boolean[toTokens];
+            MyersDiff.diff(fromIds, 0, fromTokens, toIds, 0, toTokens, removed, added);
+            from.setChangedSpans(spans(removed, fromStarts));
+            to.setChangedSpans(spans(added, toStarts));
+        }
+
+        /**
+         * Finds the start offsets of the tokens of the line. Characters are their own ids, words are mapped to ids
+         * later.
+         *
+         * @return the number of tokens.
+         */
+        private int tokenize(CharSequence content, boolean from) {
+            int length = content.length();
+            int[] starts = grow(from ? fromStarts : toStarts, length + 1);
+            int[] ids = grow(from ? fromIds : toIds, length);
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                char c = content.charAt(i);
+                if (granularity == Granularity.CHARACTER || i == 0 || !continuesWord(content.charAt(i - 1), c)) {
+                    ids[count] = c;
+                    starts[count++] = i;
+                }
+            }
+            starts[count] = length;
+            if (from) {
+                fromStarts = starts;
+                fromIds = ids;
+            } else {
+                toStarts = starts;
+                toIds = ids;
+            }
+            return count;
+        }
+
+        private boolean continuesWord(char previous, char c) {
+            if (isWordCharacter(c)) {
+                return isWordCharacter(previous);
+            }
+            return Character.isWhitespace(c) && Character.isWhitespace(previous);
+        }
+
+        /**
+         * Replaces the first character of each word by an id shared by all equal words of both lines, using an open
+         * addressing table of token indexes. Negative indexes refer to the tokens of the added line.
+         */
+        private void mapWords(CharSequence fromContent, int fromTokens, CharSequence toContent, int toTokens) {
+            int size = Integer.highestOneBit(Math.max(2, fromTokens + toTokens) * 2 - 1) << 1;
+            if (slots.length < size) {
+                slots = new int[size];
+            } else {
+                Arrays.fill(slots, 0, size, 0);
+            }
+            int mask = size - 1;
+            for (int t = 0; t < fromTokens + toTokens; t++) {
+                boolean from = t < fromTokens;
+                int token = from ? t : t - fromTokens;
+                CharSequence content = from ? fromContent : toContent;
+                int[] starts = from ? fromStarts : toStarts;
+                int start = starts[token];
+                int end = starts[token + 1];
+                int hash = 0;
+                for (int i = start; i < end; i++) {
+                    hash = 31 * hash + content.charAt(i);
+                }
+                int slot = (hash * 0x9e3779b9) & mask;
+                int id;
+                while (true) {
+                    int entry = slots[slot];
+                    if (entry == 0) {
+                        // the id of a word is one plus the index of its first occurrence among all tokens
+                        id = t + 1;
+                        slots[slot] = id;
+                        break;
+                    }
+                    int other = entry - 1;
+                    boolean otherFrom = other < fromTokens;
+                    int otherToken = otherFrom ? other : other - fromTokens;
+                    int[] otherStarts = otherFrom ? fromStarts : toStarts;
+                    if (regionEquals(content, start, end, otherFrom ? fromContent : toContent,
+                            otherStarts[otherToken], otherStarts[otherToken + 1])) {
+                        id = entry;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                if (from) {
+                    fromIds[token] = id;
+                } else {
+                    toIds[token] = id;
+                }
+            }
+        }
+
+        private boolean regionEquals(CharSequence first, int firstStart, int firstEnd, CharSequence second,
+                                     int secondStart, int secondEnd) {
+            if (firstEnd - firstStart != secondEnd - secondStart) {
+                return false;
+            }
+            for (int i = 0; i < firstEnd - firstStart; i++) {
+                if (first.charAt(firstStart + i) != second.charAt(secondStart + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Joins adjacent changed tokens into spans of character offsets.
+         */
+        private int[] spans(boolean[] changed, int[] starts) {
+            int count = 0;
+            for (int i = 0; i < changed.length; i++) {
+                if (changed[i] && (i == 0 || !changed[i - 1])) {
+                    count++;
+                }
+            }
+            if (count == 0) {
+                return NO_SPANS;
+            }
+            int[] spans = new int[2 * count];
+            int span = 0;
+            for (int i = 0; i < changed.length; i++) {
+                if (changed[i] && (i == 0 || !changed[i - 1])) {
+                    spans[span++] = starts[i];
+                }
+                if (changed[i] && (i == changed.length - 1 || !changed[i + 1])) {
+                    spans[span++] = starts[i + 1];
+                }
+            }
+            return spans;
+        }
+
+        private int[] grow(int[] array, int length) {
+            return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+        }
+
+    }
+
+}
@@ -0,0 +1,216 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.analysis.PatternScanner;
+import io.reflectoring.diffparser.api.analysis.ScanListener;
+import io.reflectoring.diffparser.api.analysis.ScanMatch;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.StringView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Scans the lines of a single parse with a {@link PatternScanner}. Without an executor, each line is scanned right
+ * away. With an executor, the lines are scanned in batches by the threads of the executor, while the parser continues
+ * with the next lines. The matches of the batches are delivered in the order of the input on the parser thread.
+ */
+class LineScan {
+
+    /**
+     * The number of lines scanned by one task of the executor.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    private final PatternScanner scanner;
+
+    private final ScanListener listener;
+
+    private final ExecutorService executor;
+
+    /**
+     * The maximum number of batches submitted and not yet delivered, which bounds the memory held by the matches.
+     */
+    private final int maxBatchesInFlight;
+
+    private final Queue<Future<List<ScanMatch>>> batchesInFlight = new ArrayDeque<>();
+
+    private Batch batch;
+
+    private Diff diff;
+
+    private Hunk hunk;
+
+    private int fromLineNumber;
+
+    private int toLineNumber;
+
+    LineScan(PatternScanner scanner, ScanListener listener, ExecutorService executor) {
+        this.scanner = scanner;
+        this.listener = listener;
+        this.executor = executor;
+        this.maxBatchesInFlight = 2 * Runtime.getRuntime().availableProcessors();
+        this.batch = executor != null ? new Batch() : null;
+    }
+
+    /**
+     * Starts numbering the lines of the given Hunk.
+     */
+    void startHunk(Diff diff, Hunk hunk) {
+        this.diff = diff;
+        this.hunk = hunk;
+        this.fromLineNumber = hunk.getFromFileRange().getLineStart();
+        this.toLineNumber = hunk.getToFileRange().getLineStart();
+    }
+
+    /**
+     * Scans a line of the current Hunk, if the scanner is interested in lines of its type. Lines of combined diffs
+     * are numbered in the "to" file and the first parent.
+     *
+     * @param lineType the type of the line.
+     * @param line     the line including its leading "+", "-" or " " columns.
+     */
+    void scanLine(Line.LineType lineType, String line) {
+        int columns = hunk.getParentCount();
+        switch (lineType) {
+            case FROM:
+                if (scanner.isScanRemovedLines() && !hunk.isSkipped()) {
+                    scan(new StringView(line, columns), diff.getFromFileName(), lineType, fromLineNumber);
+                }
+                if (line.charAt(0) == '-') {
+                    fromLineNumber++;
+                }
+                break;
+            case TO:
+                if (!hunk.isSkipped()) {
+                    scan(new StringView(line, columns), diff.getToFileName(), lineType, toLineNumber);
+                }
+                if (line.charAt(0) != '+') {
+                    // a line of a combined diff that has only been added relative to other parents
+                    fromLineNumber++;
+                }
+                toLineNumber++;
+                break;
+            default:
+                // the "\ No newline at end of file" marker belongs to neither file
+                if (line.isEmpty() || line.charAt(0) != '\\') {
+                    fromLineNumber++;
+                    toLineNumber++;
+                }
+        }
+    }
+
+    private void scan(CharSequence content, String fileName, Line.LineType lineType, int lineNumber) {
+        if (executor == null) {
+            List<ScanMatch> matches = new ArrayList<>();
+            scanner.scan(content, fileName, lineType, lineNumber, matches);
+            deliver(matches);
+            return;
+        }
+        batch.add(content, fileName, lineType, lineNumber);
+        if (batch.size == BATCH_SIZE) {
+            submitBatch();
+        }
+    }
+
+    private void submitBatch() {
+        batchesInFlight.add(executor.submit(batch));
+        batch = new Batch();
+        // deliver the batches that are done without waiting, and wait for the oldest one if too many are pending
+        while (!batchesInFlight.isEmpty()
+                && (batchesInFlight.peek().isDone() || batchesInFlight.size() > maxBatchesInFlight)) {
+            deliver(await(batchesInFlight.poll()));
+        }
+    }
+
+    /**
+     * Scans the remaining lines and waits until all matches have been delivered.
+     */
+    void finish() {
+        if (executor == null) {
+            return;
+        }
+        if (batch.size > 0) {
+            submitBatch();
+        }
+        while (!batchesInFlight.isEmpty()) {
+            deliver(await(batchesInFlight.poll()));
+        }
+    }
+
+    private List<ScanMatch> await(Future<List<ScanMatch>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void deliver(List<ScanMatch> matches) {
+        for (ScanMatch match : matches) {
+            listener.onMatch(match);
+        }
+    }
+
+    /**
+     * The lines scanned by one task of the executor.
+     */
+    private class Batch implements Callable<List<ScanMatch>> {
+
+        private final CharSequence[] contents = new CharSequence[BATCH_SIZE];
+
+        private final String[] fileNames = new String[BATCH_SIZE];
+
+        private final Line.LineType[] lineTypes = new Line.LineType[BATCH_SIZE];
+
+        private final int[] lineNumbers = new int[BATCH_SIZE];
+
+        private int size;
+
+        void add(CharSequence content, String fileName, Line.LineType lineType, int lineNumber) {
+            contents[size] = content;
+            fileNames[size] = fileName;
+            lineTypes[size] = lineType;
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+
+        @Override
+        public List<ScanMatch> call() {
+            List<ScanMatch> matches = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                scanner.scan(contents[i], fileNames[i], lineTypes[i], lineNumbers[i], matches);
+            }
+            return matches;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Myers' O(ND) difference algorithm in its linear space variant: the middle of an optimal edit path is found by
+ * searching forward from the start and backward from the end at the same time, and both halves are solved
+ * recursively. Works on lines that have been mapped to ints, so that comparing two lines is a single comparison.
+ */
+final class MyersDiff {
+
+    private MyersDiff() {
+    }
+
+    /**
+     * Marks the lines of {@code a[aStart, aEnd)} that are not part of a longest common subsequence with
+     * {@code b[bStart, bEnd)} as removed, and the other lines of b as added.
+     */
+    static void diff(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, boolean[] removed,
+                     boolean[] added) {
+        // strip the common prefix and suffix, which is also the end of each recursion
+        while (aStart < aEnd && bStart < bEnd && a[aStart] == b[bStart]) {
+            aStart++;
+            bStart++;
+        }
+        while (aStart < aEnd && bStart < bEnd && a[aEnd - 1] == b[bEnd - 1]) {
+            aEnd--;
+            bEnd--;
+        }
+        if (aStart == aEnd || bStart == bEnd) {
+            mark(removed, aStart, aEnd);
+            mark(added, bStart, bEnd);
+            return;
+        }
+
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD + 1;
+        int[] forward = new int[2 * maxD + 3];
+        int[] backward = new int[2 * maxD + 3];
+        java.util.Arrays.fill(forward, -1);
+        java.util.Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        // if the delta is odd, the paths can only overlap while extending the forward path
+        boolean checkInForwardPass = (delta & 1) != 0;
+        int forwardStart = 0;
+        int forwardEnd = 0;
+        int backwardStart = 0;
+        int backwardEnd = 0;
+        for (int d = 0; d < maxD + 1; d++) {
+            for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+                int x;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    x = forward[offset + k + 1];
+                } else {
+                    x = forward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (x > n) {
+                    forwardEnd += 2;
+                } else if (y > m) {
+                    forwardStart += 2;
+                } else if (checkInForwardPass) {
+                    int backwardIndex = offset + delta - k;
+                    if (backwardIndex >= 0 && backwardIndex < backward.length && backward[backwardIndex] != -1
+                            && x >= n - backward[backwardIndex]) {
+                        split(a, aStart, aEnd, b, bStart, bEnd, x, y, removed, added);
+                        return;
+                    }
+                }
+            }
+            for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+                int x;
+                if (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) {
+                    x = backward[offset + k + 1];
+                } else {
+                    x = backward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[aEnd - x - 1] == b[bEnd - y - 1]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                if (x > n) {
+                    backwardEnd += 2;
+                } else if (y > m) {
+                    backwardStart += 2;
+                } else if (!checkInForwardPass) {
+                    int forwardIndex = offset + delta - k;
+                    if (forwardIndex >= 0 && forwardIndex < forward.length && forward[forwardIndex] != -1) {
+                        int forwardX = forward[forwardIndex];
+                        int forwardY = forwardX - (delta - k);
+                        if (forwardX >= n - x) {
+                            split(a, aStart, aEnd, b, bStart, bEnd, forwardX, forwardY, removed, added);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        // no common line at all
+        mark(removed, aStart, aEnd);
+        mark(added, bStart, bEnd);
+    }
+
+    private static void split(int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd, int x, int y,
+                              boolean[] removed, boolean[] added) {
+        diff(a, aStart, aStart + x, b, bStart, bStart + y, removed, added);
+        diff(a, aStart + x, aEnd, b, bStart + y, bEnd, removed, added);
+    }
+
+    static void mark(boolean[] flags, int start, int end) {
+        for (int i = start; i < end; i++) {
+            flags[i] = true;
+        }
+    }
+
+}
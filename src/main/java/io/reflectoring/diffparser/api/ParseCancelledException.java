@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Thrown when a parse has been cancelled by its {@link CancellationToken}.
+ */
+public class ParseCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int lineNumber;
+
+    /**
+     * @param lineNumber the number of the line at which parsing has stopped.
+     */
+    public ParseCancelledException(int lineNumber) {
+        super(String.format("Parsing has been cancelled at line %d.", lineNumber));
+        this.lineNumber = lineNumber;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+}
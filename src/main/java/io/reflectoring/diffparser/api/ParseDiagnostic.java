@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Describes a part of the input that does not match the expected diff format and has been skipped by a parser in
+ * lenient mode.
+ */
+public class ParseDiagnostic {
+
+    private final int lineNumber;
+
+    private final String expected;
+
+    private final String found;
+
+    /**
+     * @param lineNumber the number of the line at which the problem has been detected.
+     * @param expected   a description of the expected line.
+     * @param found      the line that has been found instead.
+     */
+    public ParseDiagnostic(int lineNumber, String expected, String found) {
+        this.lineNumber = lineNumber;
+        this.expected = expected;
+        this.found = found;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getExpected() {
+        return expected;
+    }
+
+    public String getFound() {
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Line %d: expected %s but found '%s'", lineNumber, expected, found);
+    }
+
+}
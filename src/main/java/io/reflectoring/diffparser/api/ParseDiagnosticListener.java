@@ -0,0 +1,30 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Receives the problems a parser in lenient mode encounters in its input.
+ */
+public interface ParseDiagnosticListener {
+
+    /**
+     * Called for each part of the input that has been skipped because it does not match the expected format.
+     *
+     * @param diagnostic the description of the problem.
+     */
+    void onDiagnostic(ParseDiagnostic diagnostic);
+
+}
@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Thrown when the input of a parser exceeds one of the configured {@link ParseLimits}.
+ */
+public class ParseLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The limits defined by {@link ParseLimits}.
+     */
+    public enum Limit {
+        LINE_LENGTH,
+        LOOKAHEAD_LINES,
+        TOTAL_LINES,
+        TOTAL_BYTES,
+        FILES,
+        PARSE_TIME
+    }
+
+    private final Limit limit;
+
+    private final long maxValue;
+
+    private final long lineNumber;
+
+    /**
+     * @param limit      the limit that has been exceeded.
+     * @param maxValue   the configured value of the limit.
+     * @param lineNumber the number of the input line at which the limit has been exceeded.
+     */
+    public ParseLimitExceededException(Limit limit, long maxValue, long lineNumber) {
+        super(String.format("The input exceeds the limit %s of %d at line %d.", limit, maxValue, lineNumber));
+        this.limit = limit;
+        this.maxValue = maxValue;
+        this.lineNumber = lineNumber;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * Bounds for the resources a {@link UnifiedDiffParser} may use for a single input. All limits are unlimited by
+ * default. When parsing untrusted input, set them to values well above the largest diffs you expect, so that parsing
+ * fails fast with a {@link ParseLimitExceededException} instead of exhausting memory or CPU. Each limit must be
+ * positive; the setters throw an {@link IllegalArgumentException} otherwise.
+ * <p/>
+ * Sizes are measured in bytes of the input for UTF-8, US-ASCII and single-byte charsets, counting line terminators with
+ * their actual length. For all other charsets they are measured in characters, counting each line terminator as one
+ * character.
+ */
+public class ParseLimits {
+
+    private int maxLineLength = Integer.MAX_VALUE;
+
+    private int maxLookaheadLines = Integer.MAX_VALUE;
+
+    private long maxTotalLines = Long.MAX_VALUE;
+
+    private long maxTotalBytes = Long.MAX_VALUE;
+
+    private int maxFiles = Integer.MAX_VALUE;
+
+    private long maxParseTimeMillis = Long.MAX_VALUE;
+
+    /**
+     * The maximum length of a single line without its line terminator. Lines are never buffered beyond this length.
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public void setMaxLineLength(int maxLineLength) {
+        checkPositive(maxLineLength, "maximum line length");
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * The maximum number of lines the parser may read ahead of the line it is currently parsing. The parser looks
+     * ahead a few lines at the end of each hunk and up to the next blank line in some cases, so this should not be
+     * smaller than about 10.
+     */
+    public int getMaxLookaheadLines() {
+        return maxLookaheadLines;
+    }
+
+    public void setMaxLookaheadLines(int maxLookaheadLines) {
+        checkPositive(maxLookaheadLines, "maximum number of lookahead lines");
+        this.maxLookaheadLines = maxLookaheadLines;
+    }
+
+    /**
+     * The maximum number of lines of the input, including skipped lines.
+     */
+    public long getMaxTotalLines() {
+        return maxTotalLines;
+    }
+
+    public void setMaxTotalLines(long maxTotalLines) {
+        checkPositive(maxTotalLines, "maximum number of total lines");
+        this.maxTotalLines = maxTotalLines;
+    }
+
+    /**
+     * The maximum size of the (decompressed) input, including skipped lines.
+     */
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public void setMaxTotalBytes(long maxTotalBytes) {
+        checkPositive(maxTotalBytes, "maximum total size");
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * The maximum number of {@link io.reflectoring.diffparser.api.model.Diff}s in the input.
+     */
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        checkPositive(maxFiles, "maximum number of files");
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * The maximum time a call to parse may take. The time is checked between lines, so a read blocking on a slow
+     * input stream is not interrupted.
+     */
+    public long getMaxParseTimeMillis() {
+        return maxParseTimeMillis;
+    }
+
+    public void setMaxParseTimeMillis(long maxParseTimeMillis) {
+        checkPositive(maxParseTimeMillis, "maximum parse time");
+        this.maxParseTimeMillis = maxParseTimeMillis;
+    }
+
+    private static void checkPositive(long limit, String name) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format("The %s must be positive, but was %d.", name, limit));
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+/**
+ * A snapshot of the progress of a running parse.
+ */
+public class ParseProgress {
+
+    private final long bytesRead;
+
+    private final int diffsCompleted;
+
+    private final long elapsedNanos;
+
+    /**
+     * @param bytesRead      the number of bytes read from the input so far (compressed bytes for compressed input).
+     * @param diffsCompleted the number of Diffs that have been parsed completely.
+     * @param elapsedNanos   the time since the parse started.
+     */
+    public ParseProgress(long bytesRead, int diffsCompleted, long elapsedNanos) {
+        this.bytesRead = bytesRead;
+        this.diffsCompleted = diffsCompleted;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public int getDiffsCompleted() {
+        return diffsCompleted;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the average number of bytes read per second since the parse started.
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesRead * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes, %d diffs, %.1f MB/s", bytesRead, diffsCompleted,
+                getBytesPerSecond() / (1024 * 1024));
+    }
+
+}
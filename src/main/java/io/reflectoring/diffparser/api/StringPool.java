@@ -0,0 +1,89 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of canonical String instances that deduplicates file names and header lines repeating across the
+ * Diffs parsed by one or more parsers. Unlike {@link String#intern()} the pool has a fixed number of slots and is
+ * released with the last parser referencing it.
+ * <p/>
+ * Each String is cached in one of two neighbouring slots determined by its hash code, replacing a String cached
+ * there before if both are taken. This keeps lookups lock-free and the memory bounded, at the cost of occasionally
+ * keeping two equal Strings when they compete for their slots with other Strings. The pool may be shared by parsers
+ * running in several threads.
+ */
+public class StringPool {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
+
+    private final AtomicReferenceArray<String> slots;
+
+    private final int shift;
+
+    /**
+     * Creates a pool with the default capacity.
+     */
+    public StringPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pool holding at most the given number of Strings, rounded up to the next power of two.
+     */
+    public StringPool(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.shift = 32 - Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Returns the canonical instance of the given String.
+     *
+     * @param string the String to deduplicate or null.
+     * @return an equal String from the pool or the given String, which is added to the pool.
+     */
+    public String canonicalize(String string) {
+        if (string == null) {
+            return null;
+        }
+        int hash = string.hashCode();
+        // Fibonacci hashing spreads the hash codes of paths that only differ in a few characters over the whole pool
+        int slot = (hash * GOLDEN_RATIO) >>> shift;
+        int neighbour = slot ^ 1;
+        String pooled = slots.get(slot);
+        if (pooled != null && pooled.hashCode() == hash && pooled.equals(string)) {
+            return pooled;
+        }
+        String pooledNeighbour = slots.get(neighbour);
+        if (pooledNeighbour != null && pooledNeighbour.hashCode() == hash && pooledNeighbour.equals(string)) {
+            return pooledNeighbour;
+        }
+        slots.lazySet(pooled != null && pooledNeighbour == null ? neighbour : slot, string);
+        return string;
+    }
+
+    /**
+     * Returns the number of slots of this pool.
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+}
@@ -15,16 +15,30 @@
  */
 package io.reflectoring.diffparser.api;
 
+import io.reflectoring.diffparser.api.analysis.PatternScanner;
+import io.reflectoring.diffparser.api.analysis.ScanListener;
 import io.reflectoring.diffparser.api.model.Diff;
 import io.reflectoring.diffparser.api.model.Hunk;
 import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.LineArena;
 import io.reflectoring.diffparser.api.model.Range;
+import io.reflectoring.diffparser.api.model.StringView;
+import io.reflectoring.diffparser.unified.CompressedInput;
+import io.reflectoring.diffparser.unified.CountingInputStream;
+import io.reflectoring.diffparser.unified.GitHeaderParser;
+import io.reflectoring.diffparser.unified.IgnorePatterns;
+import io.reflectoring.diffparser.unified.ParseEvents;
 import io.reflectoring.diffparser.unified.ParserState;
 import io.reflectoring.diffparser.unified.ResizingParseWindow;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,25 +64,383 @@ import java.util.regex.Pattern;
  * +test2
  * </pre>
  * Note that the TAB character and date after the file names are not being parsed but instead cut off.
+ * <p/>
+ * Input that is compressed with gzip or zlib is detected by its magic bytes and decompressed transparently.
+ * <p/>
+ * The combined diffs of merge commits ({@code git diff --cc}) are parsed as well. Their hunks start with one "@" more
+ * than there are parents and one "from" range per parent, like {@code @@@ -1,3 -1,4 +1,5 @@@}, and each line starts
+ * with one column per parent. A line is a "from" line if it has been removed from any parent, a "to" line if it has
+ * been added relative to any parent and a "neutral" line otherwise. The parents containing each line are stored in
+ * {@link Hunk#getParentLines()}.
  */
 public class UnifiedDiffParser implements DiffParser {
     public static final Pattern LINE_RANGE_PATTERN = Pattern.compile("^.*-([0-9]+)(?:,([0-9]+))? \\+([0-9]+)(?:,([0-9]+))?.*$");
 
+    /**
+     * The number of lines after which the parse time is checked against the limit.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private boolean detectCompressedInput = true;
+
+    private boolean pipelinedDecompression = true;
+
+    private Charset charset = Charset.defaultCharset();
+
+    private int maxHunkLines = Integer.MAX_VALUE;
+
+    private long maxHunkBytes = Long.MAX_VALUE;
+
+    private ParseLimits limits = new ParseLimits();
+
+    private boolean lenient = false;
+
+    private ParseDiagnosticListener diagnosticListener;
+
+    private ParseProgressListener progressListener;
+
+    private DiffListener diffListener;
+
+    private long progressInterval = 1024 * 1024;
+
+    private CancellationToken cancellationToken;
+
+    private LineArena lineArena;
+
+    private StringPool stringPool;
+
+    private boolean computeLineHashes = false;
+
+    private PatternScanner scanner;
+
+    private ScanListener scanListener;
+
+    private ExecutorService scanExecutor;
+
+    private IntralineDiff intralineDiff;
+
+    private final List<String> ignorePatterns = new ArrayList<>();
+
+    private IgnorePatterns compiledIgnorePatterns;
+
+    private int maxContextLines = Integer.MAX_VALUE;
+
+    /**
+     * Defines the charset the input is decoded with. Defaults to the platform's default charset.
+     *
+     * @param charset the charset of the input.
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Defines whether the parser checks the input for gzip or zlib compression and decompresses it transparently.
+     * Enabled by default.
+     *
+     * @param detectCompressedInput true to detect and decompress compressed input.
+     */
+    public void setDetectCompressedInput(boolean detectCompressedInput) {
+        this.detectCompressedInput = detectCompressedInput;
+    }
+
+    /**
+     * Defines whether compressed input is decompressed on a separate thread, so that decompression and parsing run in
+     * parallel. Enabled by default.
+     *
+     * @param pipelinedDecompression true to decompress on a separate thread.
+     */
+    public void setPipelinedDecompression(boolean pipelinedDecompression) {
+        this.pipelinedDecompression = pipelinedDecompression;
+    }
+
+    /**
+     * Defines the maximum number of lines a {@link Hunk} may span in the "from" or "to" file. The lines of larger
+     * Hunks are skipped without decoding them and the Hunk is marked as {@link Hunk#isSkipped() skipped}. Unlimited by
+     * default.
+     *
+     * @param maxHunkLines the maximum number of lines of a Hunk.
+     */
+    public void setMaxHunkLines(int maxHunkLines) {
+        this.maxHunkLines = maxHunkLines;
+    }
+
+    /**
+     * Defines the maximum size of the lines of a {@link Hunk} in characters (which is the number of bytes for ASCII
+     * content). Once a Hunk grows larger, the lines read so far are dropped, the remaining lines are skipped without
+     * decoding them and the Hunk is marked as {@link Hunk#isSkipped() skipped}. Unlimited by default.
+     *
+     * @param maxHunkBytes the maximum size of a Hunk.
+     */
+    public void setMaxHunkBytes(long maxHunkBytes) {
+        this.maxHunkBytes = maxHunkBytes;
+    }
+
+    /**
+     * Defines the limits for the resources used to parse a single input. Exceeding them causes a
+     * {@link ParseLimitExceededException}. Unlimited by default.
+     *
+     * @param limits the limits for parsing an input.
+     */
+    public void setLimits(ParseLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Defines whether the parser skips malformed parts of the input instead of failing with an
+     * {@link IllegalStateException}. In lenient mode, a diff whose "---" line is not followed by a "+++" line or whose
+     * "+++" line is not followed by a hunk start is dropped, and parsing continues with the next "---" or
+     * "diff --git" line. Disabled by default.
+     *
+     * @param lenient true to skip malformed parts of the input.
+     */
+    public void setLenient(boolean lenient) {
+        this.lenient = lenient;
+    }
+
+    /**
+     * Defines the listener that is notified of each malformed part of the input skipped in lenient mode.
+     *
+     * @param diagnosticListener the listener or null.
+     */
+    public void setDiagnosticListener(ParseDiagnosticListener diagnosticListener) {
+        this.diagnosticListener = diagnosticListener;
+    }
+
+    /**
+     * Defines the listener that is notified of the progress of each parse.
+     *
+     * @param progressListener the listener or null.
+     */
+    public void setProgressListener(ParseProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Defines a listener that receives each Diff as soon as it has been parsed. The Diffs passed to the listener are
+     * not collected, so the list returned by the parser stays empty and the memory needed does not grow with the
+     * number of Diffs. Intra-line spans are computed before a Diff is passed to the listener, while the matches of
+     * a {@link #setScanExecutor(ExecutorService) scan executor} may still be reported afterwards.
+     *
+     * @param diffListener the listener or null to return all Diffs from the parser.
+     */
+    public void setDiffListener(DiffListener diffListener) {
+        this.diffListener = diffListener;
+    }
+
+    /**
+     * Defines the number of bytes to read from the input between two notifications of the progress listener. Defaults
+     * to 1 MB.
+     *
+     * @param progressInterval the number of bytes between two progress notifications.
+     */
+    public void setProgressInterval(long progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Defines a token that allows cancelling running parses from another thread. A cancelled parse fails with a
+     * {@link ParseCancelledException}.
+     *
+     * @param cancellationToken the token or null.
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Defines an arena that stores the content of all parsed {@link Line}s outside of the Java heap. The arena must
+     * stay open as long as the content of the lines is read from a memory-mapped arena. By default, the content of
+     * the lines is stored in Strings.
+     *
+     * @param lineArena the arena or null to store the content on the heap.
+     */
+    public void setLineArena(LineArena lineArena) {
+        this.lineArena = lineArena;
+    }
+
+    /**
+     * Defines a pool that deduplicates the file names, paths, blob ids and header lines of the parsed Diffs. Git
+     * {@code index} lines are not pooled, since they are unique to each change. Share a pool between parsers to
+     * deduplicate Strings across a batch of patches. By default, no Strings are deduplicated.
+     *
+     * @param stringPool the pool or null.
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * Defines whether the {@link Line#getContentHash() content hashes} of "from" and "to" lines are computed while
+     * parsing, when their content is in the CPU caches anyway. Otherwise they are computed on first access. Disabled
+     * by default.
+     *
+     * @param computeLineHashes true to compute the hashes while parsing.
+     */
+    public void setComputeLineHashes(boolean computeLineHashes) {
+        this.computeLineHashes = computeLineHashes;
+    }
+
+    /**
+     * Defines a scanner that searches the added lines (and optionally the removed lines) while they are parsed, and
+     * the listener its matches are reported to. The lines of skipped Hunks are not scanned. By default, no lines are
+     * scanned.
+     *
+     * @param scanner      the scanner or null.
+     * @param scanListener the listener receiving the matches.
+     */
+    public void setScanner(PatternScanner scanner, ScanListener scanListener) {
+        this.scanner = scanner;
+        this.scanListener = scanListener;
+    }
+
+    /**
+     * Defines an executor that scans the lines in batches while the parser continues with the next lines. The
+     * matches are still delivered to the {@link ScanListener} on the thread calling the parser, in the order of the
+     * input. By default, each line is scanned on the parser thread right after it has been parsed.
+     *
+     * @param scanExecutor the executor or null.
+     */
+    public void setScanExecutor(ExecutorService scanExecutor) {
+        this.scanExecutor = scanExecutor;
+    }
+
+    /**
+     * Defines the comparison that computes the {@link Line#getChangedSpans() changed spans} of modified lines once all
+     * Diffs have been parsed. By default, no changed spans are computed.
+     *
+     * @param intralineDiff the comparison or null.
+     */
+    public void setIntralineDiff(IntralineDiff intralineDiff) {
+        this.intralineDiff = intralineDiff;
+    }
+
+    /**
+     * Adds a regular expression for input lines that are skipped before parsing, like time stamps or banners of the
+     * tool that created the diff. A line is skipped if the expression matches the whole line. All expressions are
+     * compiled into a few combined expressions on the next parse, so that most lines are rejected by their first
+     * character (see {@link IgnorePatterns}). By default, no lines are skipped.
+     *
+     * @param ignorePattern the regular expression.
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid.
+     */
+    public void addIgnorePattern(String ignorePattern) {
+        Pattern.compile(ignorePattern);
+        ignorePatterns.add(ignorePattern);
+        compiledIgnorePatterns = null;
+    }
+
+    /**
+     * Defines the maximum number of context lines kept before and after each change, like the {@code -U} option of
+     * diff. Additional context lines are dropped while parsing, and Hunks are split where two changes are separated
+     * by more than twice this number of lines, with their ranges adjusted accordingly. Hunks without any change are
+     * dropped. The lines of combined diffs are kept as they are. By default, all context lines are kept.
+     *
+     * @param maxContextLines the maximum number of context lines around a change.
+     */
+    public void setMaxContextLines(int maxContextLines) {
+        this.maxContextLines = maxContextLines;
+    }
+
     @Override
     public List<Diff> parse(InputStream in) {
-        ResizingParseWindow window = new ResizingParseWindow(in);
+        CountingInputStream counter = progressListener != null ? new CountingInputStream(in) : null;
+        InputStream source = counter != null ? counter : in;
+        InputStream input = source;
+        try {
+            if (detectCompressedInput) {
+                input = CompressedInput.decompressIfNecessary(source, pipelinedDecompression);
+            }
+            return parseUncompressed(input, counter);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (input != source) {
+                closeQuietly(input);
+            }
+        }
+    }
+
+    private void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // nothing we can do about it
+        }
+    }
+
+    private List<Diff> parseUncompressed(InputStream in, CountingInputStream counter) {
+        ResizingParseWindow window = new ResizingParseWindow(in, charset, limits);
+        if (!ignorePatterns.isEmpty()) {
+            if (compiledIgnorePatterns == null) {
+                compiledIgnorePatterns = new IgnorePatterns(ignorePatterns);
+            }
+            window.setIgnorePatterns(compiledIgnorePatterns);
+        }
+        ParsedDiffs parsedDiffs = new ParsedDiffs();
+        Object parseEvent = ParseEvents.beginParse();
+        try {
+            parseLines(window, counter, parsedDiffs);
+        } finally {
+            ParseEvents.endParse(parseEvent, window.getTotalBytes(), window.getTotalLines(), parsedDiffs.count);
+        }
+        return parsedDiffs.diffs;
+    }
+
+    private void parseLines(ResizingParseWindow window, CountingInputStream counter, ParsedDiffs parsedDiffs) {
+        long start = System.nanoTime();
+        long deadline = deadline(start);
+        long nextProgress = progressInterval;
+        int linesUntilTimeCheck = TIME_CHECK_INTERVAL;
         ParserState state = ParserState.INITIAL;
-        List<Diff> parsedDiffs = new ArrayList<>();
         Diff currentDiff = new Diff();
+        LineScan scan = scanner != null ? new LineScan(scanner, scanListener, scanExecutor) : null;
+        ContextTrimmer trimmer = maxContextLines < Integer.MAX_VALUE ? new ContextTrimmer(maxContextLines) : null;
+        long hunkSize = 0;
+        // the lines of the current hunk read so far, which are not necessarily all kept in the hunk
+        int hunkFromLines = 0;
+        int hunkToLines = 0;
         String currentLine;
         while ((currentLine = window.slideForward()) != null) {
+            if (--linesUntilTimeCheck == 0) {
+                checkParseTime(deadline, window);
+                linesUntilTimeCheck = TIME_CHECK_INTERVAL;
+            }
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                throw new ParseCancelledException(window.getFocusLineNumber());
+            }
+            if (counter != null && counter.getCount() >= nextProgress) {
+                reportProgress(counter, parsedDiffs, start);
+                nextProgress = counter.getCount() + progressInterval;
+            }
+            ParserState previousState = state;
             state = state.nextState(window);
+            if (isMalformed(previousState, state)) {
+                reportMalformedLine(previousState, window);
+                currentDiff = new Diff();
+            }
             switch (state) {
                 case INITIAL:
                     // nothing to do
                     break;
                 case HEADER:
-                    parseHeader(currentDiff, currentLine);
+                    // a git diff without hunks (binary file, rename or mode change) ends with the next "diff --git" line
+                    boolean endsDiffWithoutHunks = (currentLine.isEmpty() || GitHeaderParser.isDiffStartLine(currentLine))
+                            && GitHeaderParser.isGitDiff(currentDiff);
+                    if (isHunkState(previousState) || endsDiffWithoutHunks) {
+                        if (trimmer != null) {
+                            trimmer.finishHunk();
+                        }
+                        addDiff(parsedDiffs, currentDiff, window);
+                        currentDiff = new Diff();
+                    }
+                    if (!currentLine.isEmpty() || !endsDiffWithoutHunks) {
+                        parseHeader(currentDiff, currentLine);
+                    }
+                    if (currentLine.startsWith(GitHeaderParser.GIT_BINARY_PATCH)) {
+                        // the encoded binary data is of no use in the model, don't even decode it
+                        currentDiff.setSkippedByteCount(window.skipBinaryPatch());
+                    }
                     break;
                 case FROM_FILE:
                     parseFromFile(currentDiff, currentLine);
@@ -78,44 +450,299 @@ public class UnifiedDiffParser implements DiffParser {
                     break;
                 case HUNK_START:
                     parseHunkStart(currentDiff, currentLine);
+                    skipHunkIfTooLong(currentDiff.getLatestHunk(), window);
+                    hunkSize = 0;
+                    hunkFromLines = 0;
+                    hunkToLines = 0;
+                    if (scan != null) {
+                        scan.startHunk(currentDiff, currentDiff.getLatestHunk());
+                    }
+                    if (trimmer != null) {
+                        trimmer.startHunk(currentDiff, currentDiff.getLatestHunk());
+                    }
                     break;
                 case FROM_LINE:
-                    parseFromLine(currentDiff, currentLine);
-                    break;
                 case TO_LINE:
-                    parseToLine(currentDiff, currentLine);
-                    break;
                 case NEUTRAL_LINE:
-                    parseNeutralLine(currentDiff, currentLine);
+                    Line.LineType lineType = parseLine(currentDiff.getLatestHunk(), toLineType(state), currentLine);
+                    hunkSize += currentLine.length() + 1;
+                    if (lineType != Line.LineType.TO && !currentLine.startsWith("\\")) {
+                        hunkFromLines++;
+                    }
+                    if (lineType != Line.LineType.FROM && !currentLine.startsWith("\\")) {
+                        hunkToLines++;
+                    }
+                    if (trimmer != null) {
+                        trimmer.lineAdded();
+                    }
+                    skipHunkIfTooLarge(currentDiff.getLatestHunk(), window, hunkSize, hunkFromLines, hunkToLines);
+                    if (scan != null) {
+                        scan.scanLine(lineType, currentLine);
+                    }
                     break;
                 case END:
-                    parsedDiffs.add(currentDiff);
+                    if (trimmer != null) {
+                        trimmer.finishHunk();
+                    }
+                    addDiff(parsedDiffs, currentDiff, window);
                     currentDiff = new Diff();
                     break;
+                case MALFORMED:
+                    // skip everything up to the start of the next diff
+                    break;
                 default:
                     throw new IllegalStateException(String.format("Illegal parser state '%s", state));
             }
         }
 
-        return parsedDiffs;
+        if (scan != null) {
+            scan.finish();
+        }
+        if (intralineDiff != null) {
+            intralineDiff.compute(parsedDiffs.diffs);
+        }
+        if (counter != null) {
+            reportProgress(counter, parsedDiffs, start);
+        }
+    }
+
+    private void reportProgress(CountingInputStream counter, ParsedDiffs parsedDiffs, long start) {
+        progressListener.onProgress(new ParseProgress(counter.getCount(), parsedDiffs.count, System.nanoTime() - start));
+    }
+
+    private long deadline(long start) {
+        long maxNanos = TimeUnit.MILLISECONDS.toNanos(limits.getMaxParseTimeMillis());
+        // saturate instead of overflowing for large limits
+        return maxNanos > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + maxNanos;
+    }
+
+    private void checkParseTime(long deadline, ResizingParseWindow window) {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new ParseLimitExceededException(ParseLimitExceededException.Limit.PARSE_TIME,
+                    limits.getMaxParseTimeMillis(), window.getFocusLineNumber());
+        }
+    }
+
+    private void addDiff(ParsedDiffs parsedDiffs, Diff diff, ResizingParseWindow window) {
+        if (parsedDiffs.count == limits.getMaxFiles()) {
+            throw new ParseLimitExceededException(ParseLimitExceededException.Limit.FILES, limits.getMaxFiles(),
+                    window.getFocusLineNumber());
+        }
+        if (stringPool != null) {
+            deduplicateStrings(diff);
+        }
+        parsedDiffs.count++;
+        ParseEvents.diffParsed(diff, window.getFocusLineNumber());
+        if (diffListener == null) {
+            parsedDiffs.diffs.add(diff);
+            return;
+        }
+        if (intralineDiff != null) {
+            for (Hunk hunk : diff.getHunks()) {
+                intralineDiff.compute(hunk);
+            }
+        }
+        diffListener.onDiff(diff);
+    }
+
+    private void deduplicateStrings(Diff diff) {
+        diff.setFromFileName(stringPool.canonicalize(diff.getFromFileName()));
+        diff.setToFileName(stringPool.canonicalize(diff.getToFileName()));
+        diff.setSourcePath(stringPool.canonicalize(diff.getSourcePath()));
+        diff.setTargetPath(stringPool.canonicalize(diff.getTargetPath()));
+        diff.setFromBlobId(stringPool.canonicalize(diff.getFromBlobId()));
+        List<String> fromBlobIds = diff.getFromBlobIds();
+        if (fromBlobIds.size() > 1) {
+            for (int i = 0; i < fromBlobIds.size(); i++) {
+                fromBlobIds.set(i, stringPool.canonicalize(fromBlobIds.get(i)));
+            }
+        }
+        diff.setToBlobId(stringPool.canonicalize(diff.getToBlobId()));
+        for (ListIterator<String> headerLines = diff.getHeaderLines().listIterator(); headerLines.hasNext(); ) {
+            String headerLine = headerLines.next();
+            // unique lines would only push repeating ones out of the pool
+            if (!GitHeaderParser.isIndexLine(headerLine)) {
+                headerLines.set(stringPool.canonicalize(headerLine));
+            }
+        }
+    }
+
+    private boolean isMalformed(ParserState previousState, ParserState state) {
+        return (previousState == ParserState.FROM_FILE && state != ParserState.TO_FILE)
+                || (previousState == ParserState.TO_FILE && state != ParserState.HUNK_START);
+    }
+
+    private void reportMalformedLine(ParserState previousState, ResizingParseWindow window) {
+        String expected;
+        if (previousState == ParserState.FROM_FILE) {
+            if (!lenient) {
+                throw new IllegalStateException("A FROM_FILE line ('---') must be directly followed by a TO_FILE line ('+++')!");
+            }
+            expected = "a TO_FILE line ('+++')";
+        } else {
+            if (!lenient) {
+                throw new IllegalStateException("A TO_FILE line ('+++') must be directly followed by a HUNK_START line ('@@')!");
+            }
+            expected = "a HUNK_START line ('@@')";
+        }
+        if (diagnosticListener != null) {
+            diagnosticListener.onDiagnostic(new ParseDiagnostic(window.getFocusLineNumber(), expected, window.getFocusLine()));
+        }
+    }
+
+    private boolean isHunkState(ParserState state) {
+        return state == ParserState.HUNK_START || state == ParserState.FROM_LINE || state == ParserState.TO_LINE
+                || state == ParserState.NEUTRAL_LINE;
+    }
+
+    /**
+     * Skips the lines of a Hunk that spans more lines than allowed. The skipping starts right after the hunk start line.
+     * The window only knows how to count the lines of two-way hunks, so the lines of a combined hunk are still read,
+     * but not stored.
+     */
+    private void skipHunkIfTooLong(Hunk hunk, ResizingParseWindow window) {
+        int fromLines = 0;
+        for (Range fromRange : hunk.getFromFileRanges()) {
+            fromLines = Math.max(fromLines, fromRange.getLineCount());
+        }
+        int toLines = hunk.getToFileRange().getLineCount();
+        if (Math.max(fromLines, toLines) > maxHunkLines) {
+            hunk.setSkipped(true);
+            if (hunk.getParentCount() == 1) {
+                hunk.setSkippedByteCount(window.skipHunkLines(fromLines, toLines));
+            }
+        }
+    }
+
+    /**
+     * Drops the lines of a Hunk that has grown larger than allowed and skips its remaining lines.
+     *
+     * @param fromLines the number of lines of the Hunk read so far that count for the "from" file.
+     * @param toLines   the number of lines of the Hunk read so far that count for the "to" file.
+     */
+    private void skipHunkIfTooLarge(Hunk hunk, ResizingParseWindow window, long hunkSize, int fromLines,
+                                    int toLines) {
+        if (hunkSize <= maxHunkBytes || hunk.isSkipped()) {
+            return;
+        }
+        if (hunk.getParentCount() > 1) {
+            hunk.setLines(new ArrayList<Line>());
+            hunk.setParentLines(new BitSet());
+            hunk.setSkipped(true);
+            hunk.setSkippedByteCount(hunkSize);
+            return;
+        }
+        int remainingFromLines = hunk.getFromFileRange().getLineCount() - fromLines;
+        int remainingToLines = hunk.getToFileRange().getLineCount() - toLines;
+        hunk.setLines(new ArrayList<Line>());
+        hunk.setSkipped(true);
+        hunk.setSkippedByteCount(hunkSize + window.skipHunkLines(remainingFromLines, remainingToLines));
+    }
+
+    private Line.LineType toLineType(ParserState state) {
+        switch (state) {
+            case FROM_LINE:
+                return Line.LineType.FROM;
+            case TO_LINE:
+                return Line.LineType.TO;
+            default:
+                return Line.LineType.NEUTRAL;
+        }
+    }
+
+    /**
+     * Adds a line to the hunk. The type of a line of a two-way diff is given by the parser state, while the type of a
+     * line of a combined diff depends on all of its parent columns.
+     *
+     * @return the type of the line.
+     */
+    private Line.LineType parseLine(Hunk hunk, Line.LineType stateLineType, String currentLine) {
+        int parents = hunk.getParentCount();
+        if (parents == 1) {
+            addLine(hunk, stateLineType, currentLine, stateLineType == Line.LineType.NEUTRAL ? 0 : 1);
+            return stateLineType;
+        }
+        Line.LineType lineType = combinedLineType(currentLine, parents);
+        int lineIndex = hunk.getLines().size();
+        if (lineType == Line.LineType.NEUTRAL) {
+            // like in a two-way diff, neutral lines keep one leading column
+            addLine(hunk, lineType, currentLine, isCombinedLine(currentLine, parents) ? parents - 1 : 0);
+        } else {
+            addLine(hunk, lineType, currentLine, parents);
+        }
+        if (!hunk.isSkipped() && isCombinedLine(currentLine, parents)) {
+            BitSet parentLines = hunk.getParentLines();
+            char inParent = lineType == Line.LineType.FROM ? '-' : ' ';
+            for (int parent = 0; parent < parents; parent++) {
+                if (currentLine.charAt(parent) == inParent) {
+                    parentLines.set(lineIndex * parents + parent);
+                }
+            }
+        }
+        return lineType;
     }
 
-    private void parseNeutralLine(Diff currentDiff, String currentLine) {
-        Line line = new Line(Line.LineType.NEUTRAL, currentLine);
-        currentDiff.getLatestHunk().getLines().add(line);
+    /**
+     * Checks if all parent columns of a line of a combined diff are present, which is not the case for empty lines and
+     * the "\ No newline at end of file" marker.
+     */
+    private boolean isCombinedLine(String currentLine, int parents) {
+        if (currentLine.length() < parents) {
+            return false;
+        }
+        for (int parent = 0; parent < parents; parent++) {
+            char column = currentLine.charAt(parent);
+            if (column != ' ' && column != '+' && column != '-') {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void parseToLine(Diff currentDiff, String currentLine) {
-        Line toLine = new Line(Line.LineType.TO, currentLine.substring(1));
-        currentDiff.getLatestHunk().getLines().add(toLine);
+    private Line.LineType combinedLineType(String currentLine, int parents) {
+        if (!isCombinedLine(currentLine, parents)) {
+            return Line.LineType.NEUTRAL;
+        }
+        Line.LineType lineType = Line.LineType.NEUTRAL;
+        for (int parent = 0; parent < parents; parent++) {
+            char column = currentLine.charAt(parent);
+            if (column == '-') {
+                return Line.LineType.FROM;
+            } else if (column == '+') {
+                lineType = Line.LineType.TO;
+            }
+        }
+        return lineType;
     }
 
-    private void parseFromLine(Diff currentDiff, String currentLine) {
-        Line fromLine = new Line(Line.LineType.FROM, currentLine.substring(1));
-        currentDiff.getLatestHunk().getLines().add(fromLine);
+    /**
+     * Adds the content of the current line starting at the given index to the hunk.
+     */
+    private void addLine(Hunk hunk, Line.LineType lineType, String currentLine, int contentStart) {
+        if (hunk.isSkipped()) {
+            // the last lines of a skipped hunk are not skipped by the window, so that the end of the hunk is detected
+            hunk.setSkippedByteCount(hunk.getSkippedByteCount() + currentLine.length() + 1);
+        } else {
+            Line line;
+            if (lineArena != null) {
+                line = new Line(lineType, lineArena.store(currentLine, contentStart));
+            } else if (contentStart == 0) {
+                line = new Line(lineType, currentLine);
+            } else {
+                line = new Line(lineType, new StringView(currentLine, contentStart));
+            }
+            if (computeLineHashes && lineType != Line.LineType.NEUTRAL) {
+                line.getContentHash();
+            }
+            hunk.getLines().add(line);
+        }
     }
 
     private void parseHunkStart(Diff currentDiff, String currentLine) {
+        if (currentLine.startsWith("@@@")) {
+            parseCombinedHunkStart(currentDiff, currentLine);
+            return;
+        }
         Matcher matcher = LINE_RANGE_PATTERN.matcher(currentLine);
         if (matcher.matches()) {
             String range1Start = matcher.group(1);
@@ -136,6 +763,49 @@ public class UnifiedDiffParser implements DiffParser {
         }
     }
 
+    /**
+     * Parses a hunk start line like {@code @@@ -1,3 -1,4 +1,5 @@@}, which has one "from" range per parent.
+     */
+    private void parseCombinedHunkStart(Diff currentDiff, String currentLine) {
+        int parents = 0;
+        while (parents < currentLine.length() && currentLine.charAt(parents) == '@') {
+            parents++;
+        }
+        parents--;
+        String[] ranges = currentLine.substring(parents + 1).trim().split(" +");
+        if (ranges.length <= parents || !ranges[parents].startsWith("+")) {
+            throw new IllegalStateException(String.format("No line ranges found in the following combined hunk start " +
+                    "line: '%s'. Expected something like '-1,5 -1,4 +3,5'.", currentLine));
+        }
+        List<Range> fromRanges = new ArrayList<>(parents);
+        for (int parent = 0; parent < parents; parent++) {
+            if (!ranges[parent].startsWith("-")) {
+                throw new IllegalStateException(String.format("No line ranges found in the following combined hunk " +
+                        "start line: '%s'. Expected something like '-1,5 -1,4 +3,5'.", currentLine));
+            }
+            fromRanges.add(parseRange(ranges[parent].substring(1), currentLine));
+        }
+
+        Hunk hunk = new Hunk();
+        hunk.setFromFileRanges(fromRanges);
+        hunk.setToFileRange(parseRange(ranges[parents].substring(1), currentLine));
+        hunk.setParentLines(new BitSet());
+        currentDiff.getHunks().add(hunk);
+    }
+
+    private Range parseRange(String range, String currentLine) {
+        try {
+            int comma = range.indexOf(',');
+            if (comma < 0) {
+                return new Range(Integer.parseInt(range), 1);
+            }
+            return new Range(Integer.parseInt(range.substring(0, comma)), Integer.parseInt(range.substring(comma + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(String.format("Invalid line range '%s' in the following hunk start line: " +
+                    "'%s'.", range, currentLine), e);
+        }
+    }
+
     private void parseToFile(Diff currentDiff, String currentLine) {
         currentDiff.setToFileName(cutAfterTab(currentLine.substring(4)));
     }
@@ -145,20 +815,16 @@ public class UnifiedDiffParser implements DiffParser {
     }
 
     /**
-     * Cuts a TAB and all following characters from a String.
+     * Cuts the last TAB and all following characters from a String.
      */
     private String cutAfterTab(String line) {
-        Pattern p = Pattern.compile("^(.*)\\t.*$");
-        Matcher matcher = p.matcher(line);
-        if (matcher.matches()) {
-            return matcher.group(1);
-        } else {
-            return line;
-        }
+        int tab = line.lastIndexOf('\t');
+        return tab < 0 ? line : line.substring(0, tab);
     }
 
     private void parseHeader(Diff currentDiff, String currentLine) {
         currentDiff.getHeaderLines().add(currentLine);
+        GitHeaderParser.parseHeaderLine(currentDiff, currentLine);
     }
 
 
@@ -177,4 +843,15 @@ public class UnifiedDiffParser implements DiffParser {
         }
     }
 
+    /**
+     * The Diffs of a parse that are returned to the caller, and the number of all parsed Diffs including those passed
+     * to the {@link DiffListener}.
+     */
+    private static final class ParsedDiffs {
+
+        private final List<Diff> diffs = new ArrayList<>();
+
+        private int count;
+    }
+
 }
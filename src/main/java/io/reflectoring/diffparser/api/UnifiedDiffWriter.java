@@ -0,0 +1,325 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.Range;
+import io.reflectoring.diffparser.api.model.StringView;
+import io.reflectoring.diffparser.unified.GitHeaderParser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+
+/**
+ * A writer that renders Diffs as unified diff, so that parsed Diffs can be filtered or rewritten and written again.
+ * Each Diff is written with its header lines, the "---" and "+++" lines and its Hunks. Diffs that are not started by
+ * a {@code diff --git} header line are separated by an empty line, as expected by the {@link UnifiedDiffParser}.
+ * Combined diffs are written with one column per parent.
+ * <p/>
+ * All text is collected in a reusable character buffer and written or encoded in blocks, without creating a String
+ * per line. For the same reason, a writer is not thread-safe. The content of skipped Hunks and binary patch data are
+ * not part of the parsed model and cannot be written.
+ */
+public class UnifiedDiffWriter implements DiffWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private Charset charset = Charset.defaultCharset();
+
+    private final char[] chars = new char[BUFFER_SIZE];
+
+    private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+    private int position;
+
+    private CharsetEncoder encoder;
+
+    private ByteBuffer bytes;
+
+    private Writer writer;
+
+    private OutputStream out;
+
+    private ByteBuffer target;
+
+    /**
+     * Defines the charset the text is encoded with when writing bytes. Defaults to the platform's default charset.
+     *
+     * @param charset the charset of the output.
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    public void write(List<Diff> diffs, Writer writer) throws IOException {
+        this.writer = writer;
+        try {
+            writeDiffs(diffs);
+            writer.write(chars, 0, position);
+        } finally {
+            this.writer = null;
+            position = 0;
+        }
+    }
+
+    @Override
+    public void write(List<Diff> diffs, OutputStream out) throws IOException {
+        this.out = out;
+        startEncoding();
+        try {
+            writeDiffs(diffs);
+            encode(true);
+            flushBytes();
+        } finally {
+            this.out = null;
+            position = 0;
+        }
+    }
+
+    @Override
+    public void write(List<Diff> diffs, ByteBuffer buffer) {
+        this.target = buffer;
+        startEncoding();
+        try {
+            writeDiffs(diffs);
+            encode(true);
+            flushBytes();
+        } catch (IOException e) {
+            // nothing is written to a stream
+            throw new UncheckedIOException(e);
+        } finally {
+            this.target = null;
+            position = 0;
+        }
+    }
+
+    private void startEncoding() {
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        encoder.reset();
+        int maxBytes = (int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar());
+        if (bytes == null || bytes.capacity() < maxBytes) {
+            bytes = ByteBuffer.allocate(maxBytes);
+        }
+        bytes.clear();
+    }
+
+    private void writeDiffs(List<Diff> diffs) throws IOException {
+        boolean first = true;
+        for (Diff diff : diffs) {
+            List<String> headerLines = diff.getHeaderLines();
+            if (!first && (headerLines.isEmpty() || !GitHeaderParser.isDiffStartLine(headerLines.get(0)))) {
+                newline();
+            }
+            writeDiff(diff);
+            first = false;
+        }
+    }
+
+    private void writeDiff(Diff diff) throws IOException {
+        for (String headerLine : diff.getHeaderLines()) {
+            append(headerLine);
+            newline();
+        }
+        if (diff.getHunks().isEmpty()) {
+            // a git diff of a binary file, a rename or a mode change
+            return;
+        }
+        append("--- ");
+        append(diff.getFromFileName());
+        newline();
+        append("+++ ");
+        append(diff.getToFileName());
+        newline();
+        for (Hunk hunk : diff.getHunks()) {
+            if (hunk.isSkipped()) {
+                throw new IllegalArgumentException(String.format("The lines of a Hunk of '%s' have been skipped " +
+                        "while parsing and cannot be written.", diff.getToFileName()));
+            }
+            writeHunkStart(hunk);
+            writeLines(hunk);
+        }
+    }
+
+    /**
+     * Writes {@code @@ -1,5 +2,6 @@}, or {@code @@@ -1,5 -1,4 +2,6 @@@} for a combined diff with two parents.
+     */
+    private void writeHunkStart(Hunk hunk) throws IOException {
+        int parents = hunk.getParentCount();
+        for (int i = 0; i <= parents; i++) {
+            append('@');
+        }
+        for (Range range : hunk.getFromFileRanges()) {
+            append(" -");
+            writeRange(range);
+        }
+        append(" +");
+        writeRange(hunk.getToFileRange());
+        append(' ');
+        for (int i = 0; i <= parents; i++) {
+            append('@');
+        }
+        newline();
+    }
+
+    private void writeRange(Range range) throws IOException {
+        appendNumber(range.getLineStart());
+        append(',');
+        appendNumber(range.getLineCount());
+    }
+
+    private void writeLines(Hunk hunk) throws IOException {
+        int parents = hunk.getParentCount();
+        List<Line> lines = hunk.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            CharSequence content = line.getContentSequence();
+            switch (line.getLineType()) {
+                case FROM:
+                    if (parents == 1) {
+                        append('-');
+                    } else {
+                        for (int parent = 0; parent < parents; parent++) {
+                            append(hunk.isLineInParent(i, parent) ? '-' : ' ');
+                        }
+                    }
+                    break;
+                case TO:
+                    if (parents == 1) {
+                        append('+');
+                    } else {
+                        for (int parent = 0; parent < parents; parent++) {
+                            append(hunk.isLineInParent(i, parent) ? ' ' : '+');
+                        }
+                    }
+                    break;
+                default:
+                    // neutral lines keep their leading space, which stands for the last parent column
+                    if (!line.isNoNewlineMarker()) {
+                        for (int parent = 1; parent < parents; parent++) {
+                            append(' ');
+                        }
+                    }
+            }
+            append(content);
+            newline();
+        }
+    }
+
+    private void newline() throws IOException {
+        append('\n');
+    }
+
+    private void append(char c) throws IOException {
+        if (position == BUFFER_SIZE) {
+            drain();
+        }
+        chars[position++] = c;
+    }
+
+    private void append(CharSequence text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int copied = 0;
+        while (copied < length) {
+            if (position == BUFFER_SIZE) {
+                drain();
+            }
+            int count = Math.min(length - copied, BUFFER_SIZE - position);
+            if (text instanceof String) {
+                ((String) text).getChars(copied, copied + count, chars, position);
+            } else if (text instanceof StringView) {
+                ((StringView) text).getChars(copied, copied + count, chars, position);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    chars[position + i] = text.charAt(copied + i);
+                }
+            }
+            position += count;
+            copied += count;
+        }
+    }
+
+    /**
+     * Appends a non-negative number without creating a String for it.
+     */
+    private void appendNumber(int number) throws IOException {
+        if (number >= 10) {
+            appendNumber(number / 10);
+        }
+        append((char) ('0' + number % 10));
+    }
+
+    private void drain() throws IOException {
+        if (writer != null) {
+            writer.write(chars, 0, position);
+            position = 0;
+        } else {
+            encode(false);
+        }
+    }
+
+    /**
+     * Encodes the buffered characters into the byte buffer. A high surrogate at the end of the character buffer is
+     * kept until the next call, since it can only be encoded together with the following low surrogate. The bytes
+     * are always encoded into a heap buffer first, since encoders are much slower writing into direct buffers.
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        charBuffer.limit(position).position(0);
+        while (encoder.encode(charBuffer, bytes, endOfInput).isOverflow()) {
+            flushBytes();
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                flushBytes();
+            }
+        }
+        int remaining = charBuffer.remaining();
+        System.arraycopy(chars, charBuffer.position(), chars, 0, remaining);
+        charBuffer.clear();
+        position = remaining;
+    }
+
+    private void flushBytes() throws IOException {
+        if (target != null) {
+            if (target.remaining() < bytes.position()) {
+                throw new BufferOverflowException();
+            }
+            target.put(bytes.array(), 0, bytes.position());
+        } else {
+            out.write(bytes.array(), 0, bytes.position());
+        }
+        bytes.clear();
+    }
+
+}
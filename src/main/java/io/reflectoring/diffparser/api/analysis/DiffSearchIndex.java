@@ -0,0 +1,382 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A trigram index over the removed and added lines of a list of Diffs. For each sequence of three characters it
+ * stores the ids of the lines containing it in one primitive array, so a substring query only has to verify the lines
+ * containing all trigrams of the substring instead of scanning all lines.
+ * <p/>
+ * Regular expressions are prefiltered with the longest literal they require, if there is one of at least three
+ * characters. Queries for shorter literals or for expressions without such a literal scan all lines.
+ * <p/>
+ * The index is immutable and may be queried by several threads.
+ */
+public class DiffSearchIndex {
+
+    private static final int MIN_LITERAL_LENGTH = 3;
+
+    private final Diff[] diffs;
+
+    private final Line[] lines;
+
+    private final int[] lineDiffs;
+
+    private final int[] lineHunks;
+
+    private final int[] lineIndexes;
+
+    private final long[] trigrams;
+
+    private final int[] postingOffsets;
+
+    private final int[] postings;
+
+    private final int mask;
+
+    private DiffSearchIndex(Builder builder) {
+        this.diffs = builder.diffs.toArray(new Diff[builder.diffs.size()]);
+        this.lines = Arrays.copyOf(builder.lines, builder.lineCount);
+        this.lineDiffs = Arrays.copyOf(builder.lineDiffs, builder.lineCount);
+        this.lineHunks = Arrays.copyOf(builder.lineHunks, builder.lineCount);
+        this.lineIndexes = Arrays.copyOf(builder.lineIndexes, builder.lineCount);
+
+        // first pass: count the lines per trigram
+        TrigramTable table = new TrigramTable();
+        for (int line = 0; line < lines.length; line++) {
+            CharSequence content = lines[line].getContentSequence();
+            for (int i = 0; i + MIN_LITERAL_LENGTH <= content.length(); i++) {
+                table.count(trigram(content, i), line);
+            }
+        }
+        this.trigrams = table.trigrams;
+        this.mask = trigrams.length - 1;
+
+        // second pass: fill the postings of each trigram in ascending order of the line ids
+        int[] counts = table.counts;
+        int[] lastLines = table.lastLines;
+        this.postingOffsets = new int[trigrams.length + 1];
+        for (int slot = 0; slot < trigrams.length; slot++) {
+            postingOffsets[slot + 1] = postingOffsets[slot] + counts[slot];
+        }
+        this.postings = new int[postingOffsets[trigrams.length]];
+        Arrays.fill(counts, 0);
+        Arrays.fill(lastLines, -1);
+        for (int line = 0; line < lines.length; line++) {
+            CharSequence content = lines[line].getContentSequence();
+            for (int i = 0; i + MIN_LITERAL_LENGTH <= content.length(); i++) {
+                int slot = find(trigram(content, i));
+                if (lastLines[slot] != line) {
+                    lastLines[slot] = line;
+                    postings[postingOffsets[slot] + counts[slot]++] = line;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds an index over the removed and added lines of the given Diffs.
+     */
+    public static DiffSearchIndex build(List<Diff> diffs) {
+        Builder builder = new Builder();
+        for (Diff diff : diffs) {
+            builder.add(diff);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds the lines containing the given substring.
+     *
+     * @param substring the substring to search for.
+     * @param lineType  the type of lines to search ({@link Line.LineType#FROM} for removed lines,
+     *                  {@link Line.LineType#TO} for added lines) or null to search both.
+     * @param fileName  a pattern the "to" file name (or the "from" file name for deleted files) of the Diff must match
+     *                  or null to search all files.
+     * @return the matching lines in the order of the Diffs.
+     */
+    public List<SearchHit> find(String substring, Line.LineType lineType, Pattern fileName) {
+        List<SearchHit> hits = new ArrayList<>();
+        int[] candidates = candidates(substring);
+        int candidateCount = candidates == null ? lines.length : candidates.length;
+        for (int i = 0; i < candidateCount; i++) {
+            int line = candidates == null ? i : candidates[i];
+            if (accept(line, lineType, fileName) && contains(lines[line].getContentSequence(), substring)) {
+                hits.add(hit(line));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Finds the lines in which the given regular expression can be found.
+     *
+     * @param pattern  the expression to search for.
+     * @param lineType the type of lines to search or null to search both.
+     * @param fileName a pattern the file name of the Diff must match or null to search all files.
+     * @return the matching lines in the order of the Diffs.
+     */
+    public List<SearchHit> find(Pattern pattern, Line.LineType lineType, Pattern fileName) {
+        List<SearchHit> hits = new ArrayList<>();
+        String literal = RegexLiterals.longestRequiredLiteral(pattern);
+        int[] candidates = literal == null ? null : candidates(literal);
+        int candidateCount = candidates == null ? lines.length : candidates.length;
+        Matcher matcher = pattern.matcher("");
+        for (int i = 0; i < candidateCount; i++) {
+            int line = candidates == null ? i : candidates[i];
+            if (accept(line, lineType, fileName) && matcher.reset(lines[line].getContentSequence()).find()) {
+                hits.add(hit(line));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the number of indexed lines.
+     */
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    /**
+     * Intersects the postings of all trigrams of the given literal, starting with the rarest trigram.
+     *
+     * @return the ids of the lines that may contain the literal or null if the literal is too short to use the index.
+     */
+    private int[] candidates(String literal) {
+        if (literal.length() < MIN_LITERAL_LENGTH) {
+            return null;
+        }
+        int[] slots = new int[literal.length() - MIN_LITERAL_LENGTH + 1];
+        int rarest = 0;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = find(trigram(literal, i));
+            if (slots[i] < 0) {
+                return new int[0];
+            }
+            if (postingCount(slots[i]) < postingCount(slots[rarest])) {
+                rarest = i;
+            }
+        }
+        int[] result = Arrays.copyOfRange(postings, postingOffsets[slots[rarest]], postingOffsets[slots[rarest] + 1]);
+        int resultLength = result.length;
+        for (int i = 0; i < slots.length && resultLength > 0; i++) {
+            if (i != rarest) {
+                resultLength = intersect(result, resultLength, postingOffsets[slots[i]], postingOffsets[slots[i] + 1]);
+            }
+        }
+        return Arrays.copyOf(result, resultLength);
+    }
+
+    private int postingCount(int slot) {
+        return postingOffsets[slot + 1] - postingOffsets[slot];
+    }
+
+    /**
+     * Keeps the ids of the given result that are contained in the given range of the postings. Both are sorted.
+     */
+    private int intersect(int[] result, int resultLength, int from, int to) {
+        int kept = 0;
+        int p = from;
+        for (int r = 0; r < resultLength && p < to; r++) {
+            // the result is usually much shorter than the postings, so search instead of stepping through them
+            int found = Arrays.binarySearch(postings, p, to, result[r]);
+            if (found >= 0) {
+                result[kept++] = result[r];
+                p = found + 1;
+            } else {
+                p = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    private boolean accept(int line, Line.LineType lineType, Pattern fileName) {
+        if (lineType != null && lines[line].getLineType() != lineType) {
+            return false;
+        }
+        if (fileName != null) {
+            Diff diff = diffs[lineDiffs[line]];
+            String name = diff.getToFileName() != null && !diff.getToFileName().equals("/dev/null")
+                    ? diff.getToFileName() : diff.getFromFileName();
+            return name != null && fileName.matcher(name).find();
+        }
+        return true;
+    }
+
+    private SearchHit hit(int line) {
+        Diff diff = diffs[lineDiffs[line]];
+        return new SearchHit(diff, diff.getHunks().get(lineHunks[line]), lineIndexes[line]);
+    }
+
+    private static boolean contains(CharSequence content, String substring) {
+        int last = content.length() - substring.length();
+        for (int start = 0; start <= last; start++) {
+            int i = 0;
+            while (i < substring.length() && content.charAt(start + i) == substring.charAt(i)) {
+                i++;
+            }
+            if (i == substring.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long trigram(CharSequence text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private int find(long trigram) {
+        int slot = slot(trigrams, mask, trigram);
+        return trigrams[slot] == trigram ? slot : -1;
+    }
+
+    /**
+     * Finds the slot of the given trigram or the empty slot to insert it into by linear probing. Empty slots contain
+     * -1, which is no valid trigram.
+     */
+    private static int slot(long[] trigrams, int mask, long trigram) {
+        long h = trigram * 0x9e3779b97f4a7c15L;
+        int slot = (int) (h >>> 32) & mask;
+        while (trigrams[slot] != -1 && trigrams[slot] != trigram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Counts the lines containing each trigram in an open addressing hash table that grows with the number of
+     * distinct trigrams.
+     */
+    private static final class TrigramTable {
+
+        private long[] trigrams = emptyTrigrams(1024);
+
+        private int[] counts = new int[1024];
+
+        private int[] lastLines = new int[1024];
+
+        private int size = 0;
+
+        private void count(long trigram, int line) {
+            int slot = slot(trigrams, trigrams.length - 1, trigram);
+            if (trigrams[slot] == -1) {
+                if (2 * (size + 1) > trigrams.length) {
+                    grow();
+                    slot = slot(trigrams, trigrams.length - 1, trigram);
+                }
+                trigrams[slot] = trigram;
+                lastLines[slot] = -1;
+                size++;
+            }
+            if (lastLines[slot] != line) {
+                lastLines[slot] = line;
+                counts[slot]++;
+            }
+        }
+
+        private void grow() {
+            long[] oldTrigrams = trigrams;
+            int[] oldCounts = counts;
+            int[] oldLastLines = lastLines;
+            trigrams = emptyTrigrams(oldTrigrams.length * 2);
+            counts = new int[trigrams.length];
+            lastLines = new int[trigrams.length];
+            for (int i = 0; i < oldTrigrams.length; i++) {
+                if (oldTrigrams[i] != -1) {
+                    int slot = slot(trigrams, trigrams.length - 1, oldTrigrams[i]);
+                    trigrams[slot] = oldTrigrams[i];
+                    counts[slot] = oldCounts[i];
+                    lastLines[slot] = oldLastLines[i];
+                }
+            }
+        }
+
+        private static long[] emptyTrigrams(int capacity) {
+            long[] trigrams = new long[capacity];
+            Arrays.fill(trigrams, -1);
+            return trigrams;
+        }
+    }
+
+    /**
+     * Collects the removed and added lines of Diffs, for example while they are parsed one after another, and builds
+     * an index over them.
+     */
+    public static class Builder {
+
+        private final List<Diff> diffs = new ArrayList<>();
+
+        private Line[] lines = new Line[1024];
+
+        private int[] lineDiffs = new int[1024];
+
+        private int[] lineHunks = new int[1024];
+
+        private int[] lineIndexes = new int[1024];
+
+        private int lineCount = 0;
+
+        /**
+         * Adds the removed and added lines of the given Diff.
+         */
+        public Builder add(Diff diff) {
+            int diffId = diffs.size();
+            diffs.add(diff);
+            List<Hunk> hunks = diff.getHunks();
+            for (int h = 0; h < hunks.size(); h++) {
+                List<Line> hunkLines = hunks.get(h).getLines();
+                for (int l = 0; l < hunkLines.size(); l++) {
+                    Line line = hunkLines.get(l);
+                    if (line.getLineType() != Line.LineType.NEUTRAL) {
+                        addLine(line, diffId, h, l);
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void addLine(Line line, int diff, int hunk, int index) {
+            if (lineCount == lines.length) {
+                lines = Arrays.copyOf(lines, lineCount * 2);
+                lineDiffs = Arrays.copyOf(lineDiffs, lineCount * 2);
+                lineHunks = Arrays.copyOf(lineHunks, lineCount * 2);
+                lineIndexes = Arrays.copyOf(lineIndexes, lineCount * 2);
+            }
+            lines[lineCount] = line;
+            lineDiffs[lineCount] = diff;
+            lineHunks[lineCount] = hunk;
+            lineIndexes[lineCount] = index;
+            lineCount++;
+        }
+
+        public DiffSearchIndex build() {
+            return new DiffSearchIndex(this);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+
+/**
+ * A run of consecutive lines that has been removed in one {@link Hunk} and added in another.
+ */
+public class MovedBlock {
+
+    private final Diff fromDiff;
+
+    private final Hunk fromHunk;
+
+    private final int fromLineIndex;
+
+    private final Diff toDiff;
+
+    private final Hunk toHunk;
+
+    private final int toLineIndex;
+
+    private final int lineCount;
+
+    public MovedBlock(Diff fromDiff, Hunk fromHunk, int fromLineIndex, Diff toDiff, Hunk toHunk, int toLineIndex,
+                      int lineCount) {
+        this.fromDiff = fromDiff;
+        this.fromHunk = fromHunk;
+        this.fromLineIndex = fromLineIndex;
+        this.toDiff = toDiff;
+        this.toHunk = toHunk;
+        this.toLineIndex = toLineIndex;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * The Diff the block has been removed from.
+     */
+    public Diff getFromDiff() {
+        return fromDiff;
+    }
+
+    /**
+     * The Hunk the block has been removed from.
+     */
+    public Hunk getFromHunk() {
+        return fromHunk;
+    }
+
+    /**
+     * The index of the first removed line within {@link Hunk#getLines()} of the "from" Hunk.
+     */
+    public int getFromLineIndex() {
+        return fromLineIndex;
+    }
+
+    /**
+     * The Diff the block has been added to.
+     */
+    public Diff getToDiff() {
+        return toDiff;
+    }
+
+    /**
+     * The Hunk the block has been added to.
+     */
+    public Hunk getToHunk() {
+        return toHunk;
+    }
+
+    /**
+     * The index of the first added line within {@link Hunk#getLines()} of the "to" Hunk.
+     */
+    public int getToLineIndex() {
+        return toLineIndex;
+    }
+
+    /**
+     * The number of lines of the block.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lines moved from %s to %s", lineCount, fromDiff.getFromFileName(), toDiff.getToFileName());
+    }
+
+}
@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds blocks of lines that have been removed in one Hunk and added in another Hunk of the same or a different Diff.
+ * Lines are compared by their {@link Line#getContentHash() content hash}, so re-indented lines are considered equal.
+ * <p/>
+ * All removed lines are put into a hash index once. Each run of added lines is then looked up in the index and
+ * extended as long as the following lines match, which takes linear time as long as the number of candidates checked
+ * per line is bounded (see {@link #setMaxCandidatesPerLine(int)}).
+ */
+public class MovedCodeDetector {
+
+    private int minLines = 3;
+
+    private int maxCandidatesPerLine = 16;
+
+    /**
+     * Defines the minimum number of lines of a moved block. Shorter runs of matching lines are ignored, since lines
+     * like a closing brace are removed and added all over the place. Defaults to 3.
+     *
+     * @param minLines the minimum number of lines of a moved block.
+     */
+    public void setMinLines(int minLines) {
+        this.minLines = minLines;
+    }
+
+    /**
+     * Defines how many removed lines with the same hash are checked as start of a block for each added line. Defaults
+     * to 16.
+     *
+     * @param maxCandidatesPerLine the maximum number of candidates per line.
+     */
+    public void setMaxCandidatesPerLine(int maxCandidatesPerLine) {
+        this.maxCandidatesPerLine = maxCandidatesPerLine;
+    }
+
+    /**
+     * Finds the moved blocks within the given Diffs.
+     *
+     * @param diffs the Diffs to search.
+     * @return the moved blocks in the order of their added lines.
+     */
+    public List<MovedBlock> detect(List<Diff> diffs) {
+        LineTable removed = new LineTable();
+        LineTable added = new LineTable();
+        for (int d = 0; d < diffs.size(); d++) {
+            List<Hunk> hunks = diffs.get(d).getHunks();
+            for (int h = 0; h < hunks.size(); h++) {
+                List<Line> lines = hunks.get(h).getLines();
+                for (int l = 0; l < lines.size(); l++) {
+                    Line line = lines.get(l);
+                    if (line.getLineType() == Line.LineType.FROM) {
+                        removed.add(line.getContentHash(), d, h, l);
+                    } else if (line.getLineType() == Line.LineType.TO) {
+                        added.add(line.getContentHash(), d, h, l);
+                    }
+                }
+            }
+        }
+
+        HashIndex index = new HashIndex(removed);
+        List<MovedBlock> blocks = new ArrayList<>();
+        int coveredUntil = 0;
+        for (int t = 0; t < added.size; t++) {
+            if (t < coveredUntil) {
+                continue;
+            }
+            int bestLength = 0;
+            int bestStart = -1;
+            int candidates = 0;
+            for (int f = index.first(added.hashes[t]); f >= 0 && candidates < maxCandidatesPerLine; f = index.next(f)) {
+                candidates++;
+                if (removed.diffs[f] == added.diffs[t] && removed.hunks[f] == added.hunks[t]) {
+                    continue;
+                }
+                int length = 1;
+                while (t + length < added.size && f + length < removed.size
+                        && added.continues(t + length - 1) && removed.continues(f + length - 1)
+                        && added.hashes[t + length] == removed.hashes[f + length]) {
+                    length++;
+                }
+                if (length > bestLength) {
+                    bestLength = length;
+                    bestStart = f;
+                }
+            }
+            if (bestLength >= minLines) {
+                blocks.add(createBlock(diffs, removed, bestStart, added, t, bestLength));
+                coveredUntil = t + bestLength;
+            }
+        }
+        return blocks;
+    }
+
+    private MovedBlock createBlock(List<Diff> diffs, LineTable removed, int f, LineTable added, int t, int length) {
+        Diff fromDiff = diffs.get(removed.diffs[f]);
+        Diff toDiff = diffs.get(added.diffs[t]);
+        return new MovedBlock(fromDiff, fromDiff.getHunks().get(removed.hunks[f]), removed.lines[f],
+                toDiff, toDiff.getHunks().get(added.hunks[t]), added.lines[t], length);
+    }
+
+    /**
+     * The hashes and positions of all lines of one type, stored in primitive arrays in the order of the input.
+     */
+    private static final class LineTable {
+
+        private long[] hashes = new long[1024];
+
+        private int[] diffs = new int[1024];
+
+        private int[] hunks = new int[1024];
+
+        private int[] lines = new int[1024];
+
+        private int size = 0;
+
+        private void add(long hash, int diff, int hunk, int line) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                diffs = Arrays.copyOf(diffs, size * 2);
+                hunks = Arrays.copyOf(hunks, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+            }
+            hashes[size] = hash;
+            diffs[size] = diff;
+            hunks[size] = hunk;
+            lines[size] = line;
+            size++;
+        }
+
+        /**
+         * Checks if the entry following the given entry is the next line in the same Hunk.
+         */
+        private boolean continues(int entry) {
+            return entry + 1 < size && diffs[entry + 1] == diffs[entry] && hunks[entry + 1] == hunks[entry]
+                    && lines[entry + 1] == lines[entry] + 1;
+        }
+    }
+
+    /**
+     * An open addressing hash table from line hashes to the first entry of a {@link LineTable} with that hash. The
+     * entries with the same hash are chained in ascending order.
+     */
+    private static final class HashIndex {
+
+        private final long[] keys;
+
+        private final int[] heads;
+
+        private final int[] chain;
+
+        private final int mask;
+
+        private HashIndex(LineTable table) {
+            int capacity = Integer.highestOneBit(Math.max(2, table.size * 2) - 1) << 1;
+            keys = new long[capacity];
+            heads = new int[capacity];
+            Arrays.fill(heads, -1);
+            chain = new int[table.size];
+            mask = capacity - 1;
+            // insert backwards, so that each chain is in ascending order
+            for (int entry = table.size - 1; entry >= 0; entry--) {
+                int slot = slot(table.hashes[entry]);
+                chain[entry] = heads[slot];
+                keys[slot] = table.hashes[entry];
+                heads[slot] = entry;
+            }
+        }
+
+        private int slot(long hash) {
+            int slot = (int) hash & mask;
+            while (heads[slot] >= 0 && keys[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int first(long hash) {
+            return heads[slot(hash)];
+        }
+
+        private int next(int entry) {
+            return chain[entry];
+        }
+    }
+
+}
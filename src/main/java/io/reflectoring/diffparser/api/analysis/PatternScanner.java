@@ -0,0 +1,314 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Line;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scans lines for many literals and regular expressions at once. All literals are compiled into a single Aho-Corasick
+ * automaton, so each line is read only once no matter how many literals are registered. Each regular expression is
+ * prefiltered with the longest literal it requires, which is added to the same automaton, and only run on the lines
+ * containing that literal. Expressions without such a literal are run on every line.
+ * <p/>
+ * A scanner is immutable and may be used by several threads. Use it with
+ * {@link io.reflectoring.diffparser.api.UnifiedDiffParser#setScanner(PatternScanner, ScanListener)} to scan lines
+ * while they are parsed.
+ */
+public class PatternScanner {
+
+    private static final int ASCII = 128;
+
+    private final String[] ids;
+
+    private final int[] literalLengths;
+
+    private final Pattern[] patterns;
+
+    private final int[] alwaysRunPatterns;
+
+    private final boolean scanRemovedLines;
+
+    /**
+     * The transitions of the automaton for ASCII characters, {@code ASCII} entries per state.
+     */
+    private final int[] asciiTransitions;
+
+    /**
+     * The edges of the trie for other characters, keyed by state and character.
+     */
+    private final Map<Long, Integer> otherEdges;
+
+    private final int[] failures;
+
+    /**
+     * The entries matched when reaching a state. Entries below the number of literals are literals, the others are
+     * prefilters of the pattern with the index {@code entry - literalCount}.
+     */
+    private final int[][] outputs;
+
+    private PatternScanner(Builder builder) {
+        int literalCount = builder.literalIds.size();
+        this.ids = new String[literalCount + builder.patternIds.size()];
+        this.literalLengths = new int[literalCount];
+        this.patterns = builder.patterns.toArray(new Pattern[builder.patterns.size()]);
+        this.scanRemovedLines = builder.scanRemovedLines;
+
+        List<String> entries = new ArrayList<>(builder.literals);
+        List<Integer> alwaysRun = new ArrayList<>();
+        for (int i = 0; i < literalCount; i++) {
+            ids[i] = builder.literalIds.get(i);
+            literalLengths[i] = builder.literals.get(i).length();
+        }
+        for (int p = 0; p < patterns.length; p++) {
+            ids[literalCount + p] = builder.patternIds.get(p);
+            String prefilter = RegexLiterals.longestRequiredLiteral(patterns[p]);
+            if (prefilter != null) {
+                entries.add(prefilter);
+            } else {
+                // keeps the entry indexes aligned with the patterns, an empty literal is never matched
+                entries.add("");
+                alwaysRun.add(p);
+            }
+        }
+        this.alwaysRunPatterns = new int[alwaysRun.size()];
+        for (int i = 0; i < alwaysRunPatterns.length; i++) {
+            alwaysRunPatterns[i] = alwaysRun.get(i);
+        }
+
+        // build the trie
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> ownOutputs = new ArrayList<>();
+        children.add(new HashMap<Character, Integer>());
+        ownOutputs.add(new ArrayList<Integer>());
+        for (int entry = 0; entry < entries.size(); entry++) {
+            String literal = entries.get(entry);
+            if (literal.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                Integer next = children.get(state).get(literal.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<Character, Integer>());
+                    ownOutputs.add(new ArrayList<Integer>());
+                    children.get(state).put(literal.charAt(i), next);
+                }
+                state = next;
+            }
+            ownOutputs.get(state).add(entry);
+        }
+
+        // compute the failure links and the complete ASCII transitions breadth first, so that the failure state of
+        // each state is complete before the state itself
+        int stateCount = children.size();
+        this.asciiTransitions = new int[stateCount * ASCII];
+        this.otherEdges = new HashMap<>();
+        this.failures = new int[stateCount];
+        this.outputs = new int[stateCount][];
+        outputs[0] = toArray(ownOutputs.get(0));
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (Map.Entry<Character, Integer> child : children.get(0).entrySet()) {
+            queue.add(child.getValue());
+        }
+        for (int state = 0; state < stateCount; state++) {
+            for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                if (child.getKey() >= ASCII) {
+                    otherEdges.put(edgeKey(state, child.getKey()), child.getValue());
+                }
+            }
+        }
+        for (Map.Entry<Character, Integer> child : children.get(0).entrySet()) {
+            if (child.getKey() < ASCII) {
+                asciiTransitions[child.getKey()] = child.getValue();
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+            for (int c = 0; c < ASCII; c++) {
+                Integer child = children.get(state).get((char) c);
+                asciiTransitions[state * ASCII + c] = child != null ? child : asciiTransitions[failure * ASCII + c];
+            }
+            for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                failures[child.getValue()] = step(failure, child.getKey());
+                queue.add(child.getValue());
+            }
+            outputs[state] = merge(ownOutputs.get(state), outputs[failure]);
+        }
+    }
+
+    /**
+     * Returns true if removed lines are scanned in addition to added lines.
+     */
+    public boolean isScanRemovedLines() {
+        return scanRemovedLines;
+    }
+
+    /**
+     * Scans the content of a line for all registered literals and patterns.
+     *
+     * @param content    the content of the line without the leading "+" or "-".
+     * @param fileName   the name of the file the line belongs to.
+     * @param lineType   the type of the line.
+     * @param lineNumber the number of the line within its file.
+     * @param matches    the list the matches are added to.
+     */
+    public void scan(CharSequence content, String fileName, Line.LineType lineType, int lineNumber,
+                     List<ScanMatch> matches) {
+        int literalCount = literalLengths.length;
+        boolean[] triggered = null;
+        int state = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            state = c < ASCII ? asciiTransitions[state * ASCII + c] : step(state, c);
+            for (int entry : outputs[state]) {
+                if (entry < literalCount) {
+                    matches.add(new ScanMatch(ids[entry], fileName, lineType, lineNumber, content,
+                            i + 1 - literalLengths[entry], i + 1));
+                } else {
+                    if (triggered == null) {
+                        triggered = new boolean[patterns.length];
+                    }
+                    triggered[entry - literalCount] = true;
+                }
+            }
+        }
+        if (triggered != null) {
+            for (int p = 0; p < patterns.length; p++) {
+                if (triggered[p]) {
+                    findPattern(p, content, fileName, lineType, lineNumber, matches);
+                }
+            }
+        }
+        for (int p : alwaysRunPatterns) {
+            findPattern(p, content, fileName, lineType, lineNumber, matches);
+        }
+    }
+
+    private void findPattern(int p, CharSequence content, String fileName, Line.LineType lineType, int lineNumber,
+                             List<ScanMatch> matches) {
+        Matcher matcher = patterns[p].matcher(content);
+        while (matcher.find()) {
+            matches.add(new ScanMatch(ids[literalLengths.length + p], fileName, lineType, lineNumber, content,
+                    matcher.start(), matcher.end()));
+        }
+    }
+
+    /**
+     * Follows the edges of the trie and the failure links for characters outside of the ASCII range.
+     */
+    private int step(int state, char c) {
+        if (c < ASCII) {
+            return asciiTransitions[state * ASCII + c];
+        }
+        int current = state;
+        while (true) {
+            Integer next = otherEdges.get(edgeKey(current, c));
+            if (next != null) {
+                return next;
+            }
+            if (current == 0) {
+                return 0;
+            }
+            current = failures[current];
+        }
+    }
+
+    private static long edgeKey(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        int[] merged = Arrays.copyOf(toArray(own), own.size() + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+        return merged;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Collects the literals and patterns to scan for.
+     */
+    public static class Builder {
+
+        private final List<String> literalIds = new ArrayList<>();
+
+        private final List<String> literals = new ArrayList<>();
+
+        private final List<String> patternIds = new ArrayList<>();
+
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        private boolean scanRemovedLines = false;
+
+        /**
+         * Adds a literal to scan for.
+         *
+         * @param id      the id reported with each match.
+         * @param literal the literal, must not be empty.
+         */
+        public Builder addLiteral(String id, String literal) {
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("The literal of '" + id + "' must not be empty.");
+            }
+            literalIds.add(id);
+            literals.add(literal);
+            return this;
+        }
+
+        /**
+         * Adds a regular expression to scan for.
+         *
+         * @param id      the id reported with each match.
+         * @param pattern the expression.
+         */
+        public Builder addPattern(String id, Pattern pattern) {
+            patternIds.add(id);
+            patterns.add(pattern);
+            return this;
+        }
+
+        /**
+         * Defines whether removed lines are scanned in addition to added lines. Disabled by default.
+         */
+        public Builder setScanRemovedLines(boolean scanRemovedLines) {
+            this.scanRemovedLines = scanRemovedLines;
+            return this;
+        }
+
+        public PatternScanner build() {
+            return new PatternScanner(this);
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import java.util.regex.Pattern;
+
+/**
+ * Extracts literal text from regular expressions, so that lines can be prefiltered by a fast substring search before
+ * running the expression on them.
+ */
+final class RegexLiterals {
+
+    private static final Pattern INLINE_FLAGS = Pattern.compile("\\(\\?[a-zA-Z-]*[ixu]");
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * Returns the longest literal that each match of the given expression contains. Only literals outside of groups
+     * and character classes are considered, and none at all if the expression is a top-level alternation or is matched
+     * case-insensitively or in comments mode.
+     *
+     * @return a literal of at least three characters or null if there is none.
+     */
+    static String longestRequiredLiteral(Pattern pattern) {
+        if ((pattern.flags() & (Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.UNICODE_CASE)) != 0) {
+            return null;
+        }
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return pattern.pattern().length() >= 3 ? pattern.pattern() : null;
+        }
+        String regex = pattern.pattern();
+        if (INLINE_FLAGS.matcher(regex).find()) {
+            return null;
+        }
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        int classDepth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (classDepth > 0) {
+                // character classes may be nested, as in [a-z&&[^aeiou]]
+                if (c == '\\') {
+                    i = escapeEnd(regex, i);
+                } else if (c == '[') {
+                    classDepth++;
+                } else if (c == ']') {
+                    classDepth--;
+                }
+                continue;
+            }
+            if (depth > 0) {
+                if (c == '\\') {
+                    i = escapeEnd(regex, i);
+                } else if (c == '[') {
+                    classDepth++;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+                continue;
+            }
+            switch (c) {
+                case '\\':
+                    if (i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                        run.append(regex.charAt(++i));
+                    } else if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+                        int end = escapeEnd(regex, i);
+                        run.append(regex, i + 2, regex.startsWith("\\E", end - 1) ? end - 1 : end + 1);
+                        i = end;
+                    } else {
+                        // a character class like \d, a boundary, a back reference or an escaped character like \x41
+                        best = longer(best, run);
+                        i = escapeEnd(regex, i);
+                    }
+                    break;
+                case '*':
+                case '?':
+                case '{':
+                    // the preceding character may not occur at all
+                    if (run.length() > 0) {
+                        run.setLength(run.length() - 1);
+                    }
+                    best = longer(best, run);
+                    if (c == '{') {
+                        i = Math.max(i, regex.indexOf('}', i));
+                    }
+                    break;
+                case '|':
+                    return null;
+                case '[':
+                    classDepth++;
+                    best = longer(best, run);
+                    break;
+                case '(':
+                    depth++;
+                    best = longer(best, run);
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    best = longer(best, run);
+                    break;
+                default:
+                    run.append(c);
+            }
+        }
+        best = longer(best, run);
+        return best.length() >= 3 ? best : null;
+    }
+
+    /**
+     * Returns the index of the last character of the escape sequence starting with the backslash at the given index,
+     * including the arguments of escapes like {@code \x41}, {@code \u0041}, {@code \0101}, {@code \cA},
+     * {@code \k<name>} and {@code \p{Lu}} and the text quoted by {@code \Q...\E}.
+     */
+    private static int escapeEnd(String regex, int backslash) {
+        int i = backslash + 1;
+        if (i >= regex.length()) {
+            return i;
+        }
+        switch (regex.charAt(i)) {
+            case 'x':
+                return i + 1 < regex.length() && regex.charAt(i + 1) == '{' ? closing(regex, i + 1, '}') : i + 2;
+            case 'u':
+                return i + 4;
+            case '0':
+                int digits = 0;
+                int maxDigits = i + 1 < regex.length() && regex.charAt(i + 1) <= '3' ? 3 : 2;
+                while (digits < maxDigits && i + 1 < regex.length() && isOctalDigit(regex.charAt(i + 1))) {
+                    i++;
+                    digits++;
+                }
+                return i;
+            case 'c':
+                return i + 1;
+            case 'k':
+                return closing(regex, i, '>');
+            case 'p':
+            case 'P':
+                // either a name in braces or a single letter like \pL
+                return i + 1 < regex.length() && regex.charAt(i + 1) == '{' ? closing(regex, i + 1, '}') : i + 1;
+            case 'N':
+            case 'b':
+                return i + 1 < regex.length() && regex.charAt(i + 1) == '{' ? closing(regex, i + 1, '}') : i;
+            case 'Q':
+                int end = regex.indexOf("\\E", i + 1);
+                return end < 0 ? regex.length() - 1 : end + 1;
+            default:
+                // a back reference may consist of several digits
+                while (Character.isDigit(regex.charAt(i)) && i + 1 < regex.length()
+                        && Character.isDigit(regex.charAt(i + 1))) {
+                    i++;
+                }
+                return i;
+        }
+    }
+
+    private static int closing(String regex, int from, char delimiter) {
+        int end = regex.indexOf(delimiter, from);
+        return end < 0 ? regex.length() - 1 : end;
+    }
+
+    private static boolean isOctalDigit(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    /**
+     * Returns the longer of the best literal so far and the current run, and clears the run.
+     */
+    private static String longer(String best, StringBuilder run) {
+        String result = run.length() > best.length() ? run.toString() : best;
+        run.setLength(0);
+        return result;
+    }
+
+}
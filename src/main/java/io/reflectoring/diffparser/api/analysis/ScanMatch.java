@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Line;
+
+/**
+ * An occurrence of a pattern of a {@link PatternScanner} in a line of a diff.
+ */
+public class ScanMatch {
+
+    private final String patternId;
+
+    private final String fileName;
+
+    private final Line.LineType lineType;
+
+    private final int lineNumber;
+
+    private final CharSequence content;
+
+    private final int start;
+
+    private final int end;
+
+    public ScanMatch(String patternId, String fileName, Line.LineType lineType, int lineNumber, CharSequence content,
+                     int start, int end) {
+        this.patternId = patternId;
+        this.fileName = fileName;
+        this.lineType = lineType;
+        this.lineNumber = lineNumber;
+        this.content = content;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * The id the pattern has been registered with.
+     */
+    public String getPatternId() {
+        return patternId;
+    }
+
+    /**
+     * The name of the "to" file for added lines and of the "from" file for removed lines.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Line.LineType getLineType() {
+        return lineType;
+    }
+
+    /**
+     * The number of the line in the "to" file for added lines and in the "from" file for removed lines.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * The content of the line without the leading "+" or "-".
+     */
+    public CharSequence getContent() {
+        return content;
+    }
+
+    /**
+     * The index of the first matched character within the content.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * The index after the last matched character within the content.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public String getMatchedText() {
+        return content.subSequence(start, end).toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%d: %s '%s'", fileName, lineNumber, patternId, getMatchedText());
+    }
+
+}
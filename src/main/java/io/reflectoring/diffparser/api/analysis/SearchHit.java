@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.analysis;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+
+/**
+ * A line matching a search query.
+ */
+public class SearchHit {
+
+    private final Diff diff;
+
+    private final Hunk hunk;
+
+    private final int lineIndex;
+
+    public SearchHit(Diff diff, Hunk hunk, int lineIndex) {
+        this.diff = diff;
+        this.hunk = hunk;
+        this.lineIndex = lineIndex;
+    }
+
+    public Diff getDiff() {
+        return diff;
+    }
+
+    public Hunk getHunk() {
+        return hunk;
+    }
+
+    /**
+     * The index of the matching line within {@link Hunk#getLines()}.
+     */
+    public int getLineIndex() {
+        return lineIndex;
+    }
+
+    public Line getLine() {
+        return hunk.getLines().get(lineIndex);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s", diff.getToFileName(), getLine().getContent());
+    }
+
+}
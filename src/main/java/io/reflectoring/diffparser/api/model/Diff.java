@@ -16,6 +16,7 @@
 package io.reflectoring.diffparser.api.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,6 +27,38 @@ import java.util.List;
 @SuppressWarnings("UnusedDeclaration")
 public class Diff {
 
+    /**
+     * The kinds of changes a Diff can describe, as announced by the extended header lines of a git diff.
+     */
+    public enum ChangeType {
+
+        /**
+         * The file has been created ({@code new file mode}).
+         */
+        ADDED,
+
+        /**
+         * The file has been deleted ({@code deleted file mode}).
+         */
+        DELETED,
+
+        /**
+         * The content or the mode of an existing file has been changed.
+         */
+        MODIFIED,
+
+        /**
+         * The file has been renamed ({@code rename from} / {@code rename to}), possibly with changes to its content.
+         */
+        RENAMED,
+
+        /**
+         * The file has been copied ({@code copy from} / {@code copy to}), possibly with changes to its content.
+         */
+        COPIED
+
+    }
+
     private String fromFileName;
 
     private String toFileName;
@@ -34,8 +67,35 @@ public class Diff {
 
     private List<Hunk> hunks = new ArrayList<>();
 
+    private ChangeType changeType = ChangeType.MODIFIED;
+
+    private String fromBlobId;
+
+    private List<String> fromBlobIds;
+
+    private String toBlobId;
+
+    private Integer fromFileMode;
+
+    private List<Integer> fromFileModes;
+
+    private Integer toFileMode;
+
+    private String sourcePath;
+
+    private String targetPath;
+
+    private Integer similarityIndex;
+
+    private boolean binary;
+
+    private long skippedByteCount;
+
+    private boolean combined;
+
     /**
-     * The header lines of the diff. These lines are purely informational and are not parsed.
+     * The header lines of the diff. The extended header lines of git diffs are parsed into the typed properties of this
+     * Diff, all other lines are purely informational.
      *
      * @return the list of header lines.
      */
@@ -88,6 +148,189 @@ public class Diff {
         this.hunks = hunks;
     }
 
+    /**
+     * The kind of change this Diff describes. Defaults to {@link ChangeType#MODIFIED} if the diff has no extended
+     * header lines saying otherwise.
+     *
+     * @return the kind of change.
+     */
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    /**
+     * The abbreviated id of the blob of the "from"-file as stated in the {@code index} header line of a git diff.
+     *
+     * @return the blob id or null if the diff contains no {@code index} line or is a combined diff, whose blob ids
+     * are returned by {@link #getFromBlobIds()}.
+     */
+    public String getFromBlobId() {
+        return fromBlobId;
+    }
+
+    public void setFromBlobId(String fromBlobId) {
+        this.fromBlobId = fromBlobId;
+    }
+
+    /**
+     * The abbreviated ids of the blobs of the "from"-files, one per parent of a combined diff. For a diff between two
+     * files, this is just the id returned by {@link #getFromBlobId()}.
+     *
+     * @return the blob ids, empty if the diff contains no {@code index} line.
+     */
+    public List<String> getFromBlobIds() {
+        if (fromBlobIds != null) {
+            return fromBlobIds;
+        }
+        return fromBlobId == null ? Collections.<String>emptyList() : Collections.singletonList(fromBlobId);
+    }
+
+    public void setFromBlobIds(List<String> fromBlobIds) {
+        this.fromBlobIds = fromBlobIds;
+    }
+
+    /**
+     * The abbreviated id of the blob of the "to"-file as stated in the {@code index} header line of a git diff.
+     *
+     * @return the blob id or null if the diff contains no {@code index} line.
+     */
+    public String getToBlobId() {
+        return toBlobId;
+    }
+
+    public void setToBlobId(String toBlobId) {
+        this.toBlobId = toBlobId;
+    }
+
+    /**
+     * The mode of the "from"-file (e.g. {@code 0100644}) as stated in the header lines of a git diff.
+     *
+     * @return the file mode or null if it is not stated, the file did not exist before or the diff is a combined
+     * diff, whose modes are returned by {@link #getFromFileModes()}.
+     */
+    public Integer getFromFileMode() {
+        return fromFileMode;
+    }
+
+    public void setFromFileMode(Integer fromFileMode) {
+        this.fromFileMode = fromFileMode;
+    }
+
+    /**
+     * The modes of the "from"-files, one per parent of a combined diff. For a diff between two files, this is just
+     * the mode returned by {@link #getFromFileMode()}.
+     *
+     * @return the file modes, empty if they are not stated.
+     */
+    public List<Integer> getFromFileModes() {
+        if (fromFileModes != null) {
+            return fromFileModes;
+        }
+        return fromFileMode == null ? Collections.<Integer>emptyList() : Collections.singletonList(fromFileMode);
+    }
+
+    public void setFromFileModes(List<Integer> fromFileModes) {
+        this.fromFileModes = fromFileModes;
+    }
+
+    /**
+     * The mode of the "to"-file (e.g. {@code 0100755}) as stated in the header lines of a git diff.
+     *
+     * @return the file mode or null if it is not stated or the file has been deleted.
+     */
+    public Integer getToFileMode() {
+        return toFileMode;
+    }
+
+    public void setToFileMode(Integer toFileMode) {
+        this.toFileMode = toFileMode;
+    }
+
+    /**
+     * The path the file has been renamed or copied from ({@code rename from} / {@code copy from}).
+     *
+     * @return the source path or null if the file has not been renamed or copied.
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    /**
+     * The path the file has been renamed or copied to ({@code rename to} / {@code copy to}).
+     *
+     * @return the target path or null if the file has not been renamed or copied.
+     */
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    public void setTargetPath(String targetPath) {
+        this.targetPath = targetPath;
+    }
+
+    /**
+     * The similarity of the source and target file of a rename or copy in percent ({@code similarity index}).
+     *
+     * @return the similarity index or null if it is not stated.
+     */
+    public Integer getSimilarityIndex() {
+        return similarityIndex;
+    }
+
+    public void setSimilarityIndex(Integer similarityIndex) {
+        this.similarityIndex = similarityIndex;
+    }
+
+    /**
+     * Whether this Diff describes a change to a binary file ({@code Binary files ... differ} or
+     * {@code GIT binary patch}). Binary Diffs contain no Hunks.
+     *
+     * @return true if the changed file is binary.
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public void setBinary(boolean binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * The approximate size of the binary data of a {@code GIT binary patch} that has been skipped while parsing.
+     *
+     * @return the number of bytes skipped.
+     */
+    public long getSkippedByteCount() {
+        return skippedByteCount;
+    }
+
+    public void setSkippedByteCount(long skippedByteCount) {
+        this.skippedByteCount = skippedByteCount;
+    }
+
+    /**
+     * Whether this Diff is a combined diff of a merge commit ({@code diff --cc} or {@code diff --combined}), which
+     * compares the merge result with all parents at once. The Hunks of a combined Diff have one "from" range per
+     * parent.
+     *
+     * @return true if this Diff is a combined diff.
+     */
+    public boolean isCombined() {
+        return combined;
+    }
+
+    public void setCombined(boolean combined) {
+        this.combined = combined;
+    }
+
     /**
      * Gets the last {@link Hunk} of changes that is part of this Diff.
      *
@@ -16,6 +16,8 @@
 package io.reflectoring.diffparser.api.model;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -34,8 +36,18 @@ public class Hunk {
 
     private Range toFileRange;
 
+    private List<Range> fromFileRanges;
+
+    private BitSet parentLines;
+
     private List<Line> lines = new ArrayList<>();
 
+    private boolean skipped;
+
+    private long skippedByteCount;
+
+    private LineRuns lineRuns;
+
     /**
      * The range of line numbers that this Hunk spans in the first file of the Diff.
      *
@@ -45,6 +57,51 @@ public class Hunk {
         return fromFileRange;
     }
 
+    /**
+     * The ranges of line numbers that this Hunk spans in each parent of a combined diff. For a diff between two files,
+     * this is just the range in the first file.
+     *
+     * @return ranges of line numbers in the "from" files, one per parent.
+     */
+    public List<Range> getFromFileRanges() {
+        return fromFileRanges == null ? Collections.singletonList(fromFileRange) : fromFileRanges;
+    }
+
+    /**
+     * The number of "from" files this Hunk compares the "to" file with: 1 for a diff between two files and the
+     * number of parents for a combined diff of a merge commit.
+     *
+     * @return the number of "from" files.
+     */
+    public int getParentCount() {
+        return fromFileRanges == null ? 1 : fromFileRanges.size();
+    }
+
+    /**
+     * The parents each line of a combined diff is contained in, with one bit per line and parent at index
+     * {@code lineIndex * getParentCount() + parent}. Null for a diff between two files.
+     *
+     * @return the parents of the lines.
+     */
+    public BitSet getParentLines() {
+        return parentLines;
+    }
+
+    /**
+     * Whether the line at the given index is contained in the given parent. For a diff between two files, all lines
+     * except "to" lines are contained in the only parent.
+     *
+     * @param lineIndex the index of the line within this Hunk.
+     * @param parent    the index of the parent, starting with 0.
+     * @return true if the parent contains the line.
+     */
+    public boolean isLineInParent(int lineIndex, int parent) {
+        if (parentLines == null) {
+            return lines.get(lineIndex).getLineType() != Line.LineType.TO;
+        }
+        return parentLines.get(lineIndex * getParentCount() + parent);
+    }
+
     /**
      * The range of line numbers that this Hunk spans in the second file of the Diff.
      *
@@ -63,15 +120,77 @@ public class Hunk {
         return lines;
     }
 
+    /**
+     * The types of the lines of this Hunk as runs of lines of the same type, which allows iterating the changed
+     * blocks and counting the added and removed lines without visiting each line. The runs are built on first access
+     * and cached until {@link #setLines(List)} or {@link #invalidateLineRuns()} is called, so call the latter after
+     * changing the list returned by {@link #getLines()}.
+     *
+     * @return the runs of the lines of this Hunk.
+     */
+    public LineRuns getLineRuns() {
+        if (lineRuns == null) {
+            lineRuns = LineRuns.of(lines);
+        }
+        return lineRuns;
+    }
+
+    /**
+     * Discards the cached {@link LineRuns}, so that they are rebuilt from the current lines on next access.
+     */
+    public void invalidateLineRuns() {
+        lineRuns = null;
+    }
+
+    /**
+     * Whether the lines of this Hunk have been skipped while parsing because the Hunk exceeded the configured size
+     * limits. A skipped Hunk contains no lines, but its line ranges are still available.
+     *
+     * @return true if the lines of this Hunk have been skipped.
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(boolean skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+     * The approximate size of the lines of this Hunk that have been skipped.
+     *
+     * @return the number of bytes skipped, 0 if the Hunk has not been skipped.
+     */
+    public long getSkippedByteCount() {
+        return skippedByteCount;
+    }
+
+    public void setSkippedByteCount(long skippedByteCount) {
+        this.skippedByteCount = skippedByteCount;
+    }
+
     public void setFromFileRange(Range fromFileRange) {
         this.fromFileRange = fromFileRange;
     }
 
+    /**
+     * Sets the ranges of a combined diff, one per parent. The first range is also the {@link #getFromFileRange()}.
+     */
+    public void setFromFileRanges(List<Range> fromFileRanges) {
+        this.fromFileRanges = fromFileRanges;
+        this.fromFileRange = fromFileRanges.get(0);
+    }
+
+    public void setParentLines(BitSet parentLines) {
+        this.parentLines = parentLines;
+    }
+
     public void setToFileRange(Range toFileRange) {
         this.toFileRange = toFileRange;
     }
 
     public void setLines(List<Line> lines) {
         this.lines = lines;
+        this.lineRuns = null;
     }
 }
@@ -48,13 +48,26 @@ public class Line {
 
     private final LineType lineType;
 
-    private final String content;
+    private final CharSequence content;
+
+    private long contentHash;
+
+    private int[] changedSpans;
 
     public Line(LineType lineType, String content) {
         this.lineType = lineType;
         this.content = content;
     }
 
+    /**
+     * Creates a line whose content is backed by the given {@link CharSequence}. The sequence is not copied, so it may be
+     * a view on a larger buffer like a {@link StringView}.
+     */
+    public Line(LineType lineType, CharSequence content) {
+        this.lineType = lineType;
+        this.content = content;
+    }
+
     /**
      * The type of this line.
      *
@@ -65,12 +78,91 @@ public class Line {
     }
 
     /**
-     * The actual content of the line as String.
+     * The actual content of the line as String. If the content is backed by a view, the String is materialized with
+     * each call, so prefer {@link #getContentSequence()} if you only need to read, hash or compare the content.
      *
      * @return the actual line content.
      */
     public String getContent() {
+        return content == null ? null : content.toString();
+    }
+
+    /**
+     * The actual content of the line as {@link CharSequence}. Other than {@link #getContent()} this does not copy the
+     * content.
+     *
+     * @return the actual line content.
+     */
+    public CharSequence getContentSequence() {
         return content;
     }
 
+    /**
+     * Checks if this line is a "\ No newline at end of file" marker, which the parser keeps as a neutral line although
+     * it belongs to neither file.
+     *
+     * @return true if this is a neutral line starting with a backslash.
+     */
+    public boolean isNoNewlineMarker() {
+        return lineType == LineType.NEUTRAL && content != null && content.length() > 0 && content.charAt(0) == '\\';
+    }
+
+    /**
+     * A 64-bit hash of the content of the line that ignores leading and trailing whitespace, so that lines that have
+     * only been re-indented have the same hash. Computed on first access unless the parser has been configured to
+     * compute it while parsing.
+     *
+     * @return the hash of the line content.
+     */
+    public long getContentHash() {
+        long h = contentHash;
+        if (h == 0 && content != null) {
+            h = hash(content);
+            contentHash = h;
+        }
+        return h;
+    }
+
+    /**
+     * The parts of the content that have changed compared to the line this line has been paired with, as computed by
+     * an {@link io.reflectoring.diffparser.api.IntralineDiff}. Each span is stored as two consecutive offsets into the
+     * content, the first inclusive and the second exclusive, so the array {@code [0, 3, 8, 12]} marks the characters
+     * 0 to 2 and 8 to 11 as changed.
+     *
+     * @return the start and end offsets of the changed spans, an empty array if the paired lines are equal, or null if
+     * the line has not been compared with another line.
+     */
+    public int[] getChangedSpans() {
+        return changedSpans;
+    }
+
+    public void setChangedSpans(int[] changedSpans) {
+        this.changedSpans = changedSpans;
+    }
+
+    /**
+     * FNV-1a over the characters of the trimmed content, followed by the finalizer of MurmurHash3 to spread the bits
+     * of short lines.
+     */
+    private static long hash(CharSequence content) {
+        int start = 0;
+        int end = content.length();
+        while (start < end && Character.isWhitespace(content.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(content.charAt(end - 1))) {
+            end--;
+        }
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h = (h ^ content.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
 }
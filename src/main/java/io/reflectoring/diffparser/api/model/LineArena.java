@@ -0,0 +1,250 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores the content of {@link Line}s outside of the Java heap, so that a parsed diff of several gigabytes does not
+ * fill the heap with Strings that have to be traced by each full garbage collection. The content is appended to
+ * chunks of direct {@link ByteBuffer}s or of a memory-mapped scratch file and only decoded into Strings on demand.
+ * <p/>
+ * Lines consisting of characters up to U+00FF take one byte per character, other lines two bytes per character, so
+ * that each character can be accessed in constant time.
+ * <p/>
+ * The memory of an arena is released when the arena and all lines referencing it have been garbage collected. An
+ * arena may be shared by several parsers.
+ */
+public final class LineArena implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final int chunkSize;
+
+    private final FileChannel channel;
+
+    private ByteBuffer chunk;
+
+    private long mappedSize = 0;
+
+    private long size = 0;
+
+    private LineArena(int chunkSize, FileChannel channel) {
+        this.chunkSize = chunkSize;
+        this.channel = channel;
+    }
+
+    /**
+     * Creates an arena backed by direct {@link ByteBuffer}s of the default chunk size. Note that the JVM limits the
+     * total size of direct buffers with {@code -XX:MaxDirectMemorySize}.
+     */
+    public static LineArena direct() {
+        return direct(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an arena backed by direct {@link ByteBuffer}s of the given size.
+     */
+    public static LineArena direct(int chunkSize) {
+        return new LineArena(chunkSize, null);
+    }
+
+    /**
+     * Creates an arena backed by a memory-mapped scratch file with chunks of the default size. The operating system
+     * pages the content out to the file under memory pressure.
+     *
+     * @param scratchFile the file to map. It is created or overwritten.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static LineArena mapped(File scratchFile) throws IOException {
+        return mapped(scratchFile, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an arena backed by a memory-mapped scratch file with chunks of the given size.
+     *
+     * @param scratchFile the file to map. It is created or overwritten.
+     * @param chunkSize   the size of each mapped region of the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static LineArena mapped(File scratchFile, int chunkSize) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(scratchFile, "rw");
+        file.setLength(0);
+        return new LineArena(chunkSize, file.getChannel());
+    }
+
+    /**
+     * Copies the characters of the given String from the given index to its end into the arena.
+     *
+     * @param text  the text to store.
+     * @param start the index of the first character to store.
+     * @return a {@link CharSequence} decoding the stored characters on demand.
+     */
+    public synchronized CharSequence store(String text, int start) {
+        int length = text.length() - start;
+        boolean wide = false;
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) > 0xff) {
+                wide = true;
+                break;
+            }
+        }
+        int bytes = wide ? length * 2 : length;
+        ensureCapacity(bytes);
+        int offset = chunk.position();
+        if (wide) {
+            for (int i = start; i < text.length(); i++) {
+                chunk.putChar(text.charAt(i));
+            }
+        } else {
+            for (int i = start; i < text.length(); i++) {
+                chunk.put((byte) text.charAt(i));
+            }
+        }
+        size += bytes;
+        return new ArenaText(chunk, offset, length, wide);
+    }
+
+    /**
+     * Returns the number of bytes occupied by the stored lines.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Closes the scratch file of a memory-mapped arena. The stored lines stay readable as long as they are referenced.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (chunk != null && chunk.remaining() >= bytes) {
+            return;
+        }
+        int newChunkSize = Math.max(chunkSize, bytes);
+        try {
+            if (channel != null) {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, mappedSize, newChunkSize);
+                mappedSize += newChunkSize;
+            } else {
+                chunk = ByteBuffer.allocateDirect(newChunkSize);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * A read-only view on characters stored in a chunk. Only uses absolute reads, so that it can be read by several
+     * threads while the arena appends to the same chunk.
+     */
+    private static final class ArenaText implements CharSequence {
+
+        private final ByteBuffer chunk;
+
+        private final int offset;
+
+        private final int length;
+
+        private final boolean wide;
+
+        private int hash;
+
+        private ArenaText(ByteBuffer chunk, int offset, int length, boolean wide) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.length = length;
+            this.wide = wide;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return wide ? chunk.getChar(offset + 2 * index) : (char) (chunk.get(offset + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length || from > to) {
+                throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d) for a text of length %d", from,
+                        to, length));
+            }
+            return new ArenaText(chunk, offset + (wide ? 2 * from : from), to - from, wide);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ArenaText)) {
+                return false;
+            }
+            ArenaText other = (ArenaText) o;
+            if (other.length != length || (hash != 0 && other.hash != 0 && hash != other.hash)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (charAt(i) != other.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computed the same way as {@link String#hashCode()}.
+         */
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                for (int i = 0; i < length; i++) {
+                    h = 31 * h + charAt(i);
+                }
+                hash = h;
+            }
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+
+}
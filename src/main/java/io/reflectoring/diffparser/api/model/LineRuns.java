@@ -0,0 +1,293 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The types of the lines of a {@link Hunk} stored as runs of consecutive lines of the same type. The changed regions
+ * of a diff usually consist of a run of "from" lines followed by a run of "to" lines between runs of neutral lines, so
+ * a Hunk has far fewer runs than lines.
+ * <p/>
+ * Each run is identified by its index and stores its type, its length and the index of its first line within
+ * {@link Hunk#getLines()}. Consecutive runs of "from" and "to" lines form a changed block, which is only separated by
+ * neutral lines that are not {@code \ No newline at end of file} markers. The number of added and removed lines is
+ * counted once when the runs are built.
+ */
+public final class LineRuns {
+
+    private static final Line.LineType[] TYPES = Line.LineType.values();
+
+    private static final int TYPE_BITS = 2;
+
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private static final int[] NO_BLOCKS = new int[0];
+
+    private static final LineRuns EMPTY = new LineRuns(new int[]{0}, NO_BLOCKS, 0, 0);
+
+    /**
+     * The index of the first line of each run shifted left by two bits with the ordinal of its type in the lower bits,
+     * followed by the number of lines. Packing both into one array keeps the runs of small Hunks small.
+     */
+    private final int[] runs;
+
+    /**
+     * The first run and the run after the last run of each changed block.
+     */
+    private final int[] blocks;
+
+    private final int removedLineCount;
+
+    private final int addedLineCount;
+
+    private LineRuns(int[] runs, int[] blocks, int removedLineCount, int addedLineCount) {
+        this.runs = runs;
+        this.blocks = blocks;
+        this.removedLineCount = removedLineCount;
+        this.addedLineCount = addedLineCount;
+    }
+
+    /**
+     * Builds the runs of the given lines.
+     *
+     * @param lines the lines of a Hunk.
+     * @return the runs of the lines.
+     */
+    public static LineRuns of(List<Line> lines) {
+        if (lines.isEmpty()) {
+            return EMPTY;
+        }
+        int[] runs = new int[16];
+        int[] blocks = new int[8];
+        int runCount = 0;
+        int blockCount = 0;
+        int removed = 0;
+        int added = 0;
+        // whether the last changed block may still be continued by the following changes
+        boolean blockOpen = false;
+        boolean markersOnly = false;
+        Line.LineType previousType = null;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            Line.LineType type = line.getLineType();
+            if (type != previousType) {
+                if (runCount + 1 == runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                if (previousType == Line.LineType.NEUTRAL && !markersOnly) {
+                    blockOpen = false;
+                }
+                runs[runCount++] = i << TYPE_BITS | type.ordinal();
+                markersOnly = true;
+                previousType = type;
+            }
+            if (type == Line.LineType.NEUTRAL) {
+                markersOnly &= line.isNoNewlineMarker();
+                continue;
+            }
+            if (type == Line.LineType.FROM) {
+                removed++;
+            } else {
+                added++;
+            }
+            if (!blockOpen) {
+                if (blockCount == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                }
+                blocks[blockCount] = runCount - 1;
+                blockCount += 2;
+                blockOpen = true;
+            }
+            blocks[blockCount - 1] = runCount;
+        }
+        runs[runCount] = lines.size() << TYPE_BITS;
+        return new LineRuns(Arrays.copyOf(runs, runCount + 1),
+                blockCount == 0 ? NO_BLOCKS : Arrays.copyOf(blocks, blockCount), removed, added);
+    }
+
+    /**
+     * The number of runs.
+     *
+     * @return the number of runs, 0 if there are no lines.
+     */
+    public int getRunCount() {
+        return runs.length - 1;
+    }
+
+    /**
+     * The type of all lines of the given run.
+     *
+     * @param run the index of the run.
+     * @return the type of the lines of the run.
+     */
+    public Line.LineType getType(int run) {
+        checkRun(run);
+        return TYPES[runs[run] & TYPE_MASK];
+    }
+
+    /**
+     * The index of the first line of the given run within the lines of the Hunk.
+     *
+     * @param run the index of the run.
+     * @return the index of the first line of the run.
+     */
+    public int getStart(int run) {
+        checkRun(run);
+        return runs[run] >>> TYPE_BITS;
+    }
+
+    /**
+     * The number of lines of the given run.
+     *
+     * @param run the index of the run.
+     * @return the number of lines of the run, at least 1.
+     */
+    public int getLength(int run) {
+        checkRun(run);
+        return (runs[run + 1] >>> TYPE_BITS) - (runs[run] >>> TYPE_BITS);
+    }
+
+    /**
+     * Finds the run containing the given line with a binary search.
+     *
+     * @param lineIndex the index of the line within the lines of the Hunk.
+     * @return the index of the run containing the line.
+     */
+    public int findRun(int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= getLineCount()) {
+            throw new IndexOutOfBoundsException(String.valueOf(lineIndex));
+        }
+        int low = 0;
+        int high = runs.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (runs[middle] >>> TYPE_BITS <= lineIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The number of changed blocks.
+     *
+     * @return the number of changed blocks, 0 if the lines contain no changes.
+     */
+    public int getChangedBlockCount() {
+        return blocks.length / 2;
+    }
+
+    /**
+     * The first run of the given changed block, which is always a run of "from" or "to" lines.
+     *
+     * @param block the index of the changed block.
+     * @return the index of the first run of the block.
+     */
+    public int getChangedBlockStartRun(int block) {
+        return blocks[2 * block];
+    }
+
+    /**
+     * The run following the last run of the given changed block.
+     *
+     * @param block the index of the changed block.
+     * @return the index of the run after the block (exclusive).
+     */
+    public int getChangedBlockEndRun(int block) {
+        return blocks[2 * block + 1];
+    }
+
+    /**
+     * The index of the first line of the given changed block within the lines of the Hunk.
+     *
+     * @param block the index of the changed block.
+     * @return the index of the first line of the block.
+     */
+    public int getChangedBlockStart(int block) {
+        return runs[blocks[2 * block]] >>> TYPE_BITS;
+    }
+
+    /**
+     * The index of the line following the given changed block within the lines of the Hunk.
+     *
+     * @param block the index of the changed block.
+     * @return the index of the line after the block (exclusive).
+     */
+    public int getChangedBlockEnd(int block) {
+        return runs[blocks[2 * block + 1]] >>> TYPE_BITS;
+    }
+
+    /**
+     * Finds the changed block containing the given run with a binary search.
+     *
+     * @param run the index of the run.
+     * @return the index of the block containing the run, or -1 if the run is a neutral run outside of all blocks.
+     */
+    public int findChangedBlock(int run) {
+        checkRun(run);
+        int low = 0;
+        int high = blocks.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (run < blocks[2 * middle]) {
+                high = middle - 1;
+            } else if (run >= blocks[2 * middle + 1]) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The number of "from" lines, which are removed by the Hunk.
+     *
+     * @return the number of removed lines.
+     */
+    public int getRemovedLineCount() {
+        return removedLineCount;
+    }
+
+    /**
+     * The number of "to" lines, which are added by the Hunk.
+     *
+     * @return the number of added lines.
+     */
+    public int getAddedLineCount() {
+        return addedLineCount;
+    }
+
+    /**
+     * The number of lines covered by all runs.
+     *
+     * @return the number of lines.
+     */
+    public int getLineCount() {
+        return runs[runs.length - 1] >>> TYPE_BITS;
+    }
+
+    private void checkRun(int run) {
+        if (run < 0 || run >= runs.length - 1) {
+            throw new IndexOutOfBoundsException(String.valueOf(run));
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.model;
+
+/**
+ * A read-only {@link CharSequence} view on a range of characters of a String. Creating a view does not copy any
+ * characters. The characters are only copied into a new String when {@link #toString()} is called.
+ * <p/>
+ * {@link #hashCode()} is computed the same way as {@link String#hashCode()}, so a view has the same hash code as
+ * the String it represents. Use {@link #contentEquals(CharSequence)} to compare a view with any other
+ * {@link CharSequence} without materializing it.
+ */
+public final class StringView implements CharSequence {
+
+    private final String source;
+
+    private final int start;
+
+    private final int end;
+
+    private int hash;
+
+    /**
+     * Creates a view on the characters of the given String starting at the given index up to the end of the String.
+     *
+     * @param source the String to create a view on.
+     * @param start  the index of the first character of the view (inclusive).
+     */
+    public StringView(String source, int start) {
+        this(source, start, source.length());
+    }
+
+    /**
+     * Creates a view on the characters of the given String between the given indexes.
+     *
+     * @param source the String to create a view on.
+     * @param start  the index of the first character of the view (inclusive).
+     * @param end    the index of the last character of the view (exclusive).
+     */
+    public StringView(String source, int start, int end) {
+        if (start < 0 || end > source.length() || start > end) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d) for a String of length %d", start, end,
+                    source.length()));
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > end - start || from > to) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d) for a view of length %d", from, to, length()));
+        }
+        return new StringView(source, start + from, start + to);
+    }
+
+    /**
+     * Copies characters of this view into the given array, like {@link String#getChars(int, int, char[], int)}.
+     *
+     * @param from        the index of the first character to copy (inclusive).
+     * @param to          the index of the last character to copy (exclusive).
+     * @param destination the array to copy the characters to.
+     * @param offset      the index in the array to copy the first character to.
+     */
+    public void getChars(int from, int to, char[] destination, int offset) {
+        if (from < 0 || to > end - start || from > to) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d) for a view of length %d", from, to, length()));
+        }
+        source.getChars(start + from, start + to, destination, offset);
+    }
+
+    /**
+     * Compares the characters of this view with the characters of the given {@link CharSequence} without copying
+     * any of them.
+     *
+     * @param other the sequence to compare this view with.
+     * @return true if both sequences contain the same characters in the same order.
+     */
+    public boolean contentEquals(CharSequence other) {
+        if (other == null || other.length() != end - start) {
+            return false;
+        }
+        for (int i = start, j = 0; i < end; i++, j++) {
+            if (source.charAt(i) != other.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StringView)) {
+            return false;
+        }
+        StringView other = (StringView) o;
+        return (hash == 0 || other.hash == 0 || hash == other.hash) && contentEquals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (int i = start; i < end; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Materializes the characters of this view into a new String.
+     *
+     * @return a String containing the characters of this view.
+     */
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+}
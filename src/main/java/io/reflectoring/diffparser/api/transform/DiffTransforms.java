@@ -0,0 +1,437 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.api.transform;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.Range;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reverses and composes Diffs of a single file on the level of their Hunks, without access to the content of the
+ * files. The lines outside of the Hunks are known to be unchanged, which is all that is needed to re-derive the line
+ * numbers of the resulting Hunks.
+ * <p/>
+ * The header lines of the given Diffs are not carried over, since they describe the original changes. Combined diffs
+ * are not supported.
+ */
+public final class DiffTransforms {
+
+    private DiffTransforms() {
+    }
+
+    /**
+     * Creates the Diff that undoes the given Diff. The "from" and "to" sides of the file names, blob ids, modes and
+     * Hunks are swapped, and in each block of changed lines the removed lines are put before the added lines again.
+     *
+     * @param diff the Diff to reverse.
+     * @return the reversed Diff.
+     */
+    public static Diff reverse(Diff diff) {
+        checkNotCombined(diff);
+        Diff reversed = new Diff();
+        reversed.setFromFileName(diff.getToFileName());
+        reversed.setToFileName(diff.getFromFileName());
+        reversed.setFromBlobId(diff.getToBlobId());
+        reversed.setToBlobId(diff.getFromBlobId());
+        reversed.setFromFileMode(diff.getToFileMode());
+        reversed.setToFileMode(diff.getFromFileMode());
+        reversed.setSourcePath(diff.getTargetPath());
+        reversed.setTargetPath(diff.getSourcePath());
+        reversed.setSimilarityIndex(diff.getSimilarityIndex());
+        reversed.setBinary(diff.isBinary());
+        reversed.setSkippedByteCount(diff.getSkippedByteCount());
+        if (diff.getChangeType() == Diff.ChangeType.ADDED) {
+            reversed.setChangeType(Diff.ChangeType.DELETED);
+        } else if (diff.getChangeType() == Diff.ChangeType.DELETED) {
+            reversed.setChangeType(Diff.ChangeType.ADDED);
+        } else {
+            reversed.setChangeType(diff.getChangeType());
+        }
+        for (Hunk hunk : diff.getHunks()) {
+            Hunk reversedHunk = new Hunk();
+            reversedHunk.setFromFileRange(hunk.getToFileRange());
+            reversedHunk.setToFileRange(hunk.getFromFileRange());
+            reversedHunk.setSkipped(hunk.isSkipped());
+            reversedHunk.setSkippedByteCount(hunk.getSkippedByteCount());
+            List<Line> lines = new ArrayList<>(hunk.getLines().size());
+            for (Line line : hunk.getLines()) {
+                switch (line.getLineType()) {
+                    case FROM:
+                        lines.add(new Line(Line.LineType.TO, line.getContentSequence()));
+                        break;
+                    case TO:
+                        lines.add(new Line(Line.LineType.FROM, line.getContentSequence()));
+                        break;
+                    default:
+                        lines.add(line);
+                }
+            }
+            reversedHunk.setLines(removedLinesFirst(lines));
+            reversed.getHunks().add(reversedHunk);
+        }
+        return reversed;
+    }
+
+    /**
+     * Creates the Diff that has the same effect as applying the first and then the second Diff. The "to" file of the
+     * first Diff must be the "from" file of the second Diff.
+     * <p/>
+     * Both lists of Hunks are walked once in the order of the intermediate file. Hunks that overlap or touch in the
+     * intermediate file are merged into one Hunk, in which lines added by the first Diff and removed by the second
+     * Diff cancel each other out. Hunks without any changes left are dropped.
+     *
+     * @param first  the Diff applied first.
+     * @param second the Diff applied second.
+     * @return the composed Diff.
+     * @throws IllegalArgumentException if a Diff is combined, binary or has skipped Hunks, or if the lines of a Hunk
+     *                                  do not match its ranges.
+     */
+    public static Diff compose(Diff first, Diff second) {
+        checkComposable(first);
+        checkComposable(second);
+        Diff composed = new Diff();
+        composed.setFromFileName(first.getFromFileName());
+        composed.setToFileName(second.getToFileName());
+        composed.setFromBlobId(first.getFromBlobId());
+        composed.setToBlobId(second.getToBlobId());
+        composed.setFromFileMode(first.getFromFileMode());
+        composed.setToFileMode(second.getToFileMode());
+        composed.setSourcePath(first.getSourcePath());
+        composed.setTargetPath(second.getTargetPath());
+        composed.setChangeType(composeChangeTypes(first.getChangeType(), second.getChangeType()));
+
+        List<Hunk> firstHunks = first.getHunks();
+        List<Hunk> secondHunks = second.getHunks();
+        int i = 0;
+        int j = 0;
+        int firstDelta = 0;
+        int secondDelta = 0;
+        while (i < firstHunks.size() || j < secondHunks.size()) {
+            // start the group with the Hunk that starts first in the intermediate file
+            int firstEnd = i;
+            int secondEnd = j;
+            Range start;
+            if (j == secondHunks.size() || (i < firstHunks.size()
+                    && begin(firstHunks.get(i).getToFileRange()) <= begin(secondHunks.get(j).getFromFileRange()))) {
+                start = firstHunks.get(firstEnd++).getToFileRange();
+            } else {
+                start = secondHunks.get(secondEnd++).getFromFileRange();
+            }
+            int groupBegin = begin(start);
+            int groupEnd = end(start);
+            // add all Hunks that overlap or touch the group
+            while (true) {
+                if (firstEnd < firstHunks.size() && begin(firstHunks.get(firstEnd).getToFileRange()) <= groupEnd) {
+                    groupEnd = Math.max(groupEnd, end(firstHunks.get(firstEnd++).getToFileRange()));
+                } else if (secondEnd < secondHunks.size()
+                        && begin(secondHunks.get(secondEnd).getFromFileRange()) <= groupEnd) {
+                    groupEnd = Math.max(groupEnd, end(secondHunks.get(secondEnd++).getFromFileRange()));
+                } else {
+                    break;
+                }
+            }
+
+            Hunk hunk;
+            if (firstEnd - i == 1 && secondEnd == j) {
+                hunk = shiftedCopy(firstHunks.get(i), firstHunks.get(i).getFromFileRange(),
+                        shift(firstHunks.get(i).getToFileRange(), secondDelta));
+            } else if (secondEnd - j == 1 && firstEnd == i) {
+                hunk = shiftedCopy(secondHunks.get(j), shift(secondHunks.get(j).getFromFileRange(), -firstDelta),
+                        secondHunks.get(j).getToFileRange());
+            } else {
+                hunk = composeGroup(firstHunks.subList(i, firstEnd), secondHunks.subList(j, secondEnd), groupBegin,
+                        groupEnd, firstDelta, secondDelta);
+            }
+            if (hunk != null) {
+                composed.getHunks().add(hunk);
+            }
+            for (; i < firstEnd; i++) {
+                Hunk firstHunk = firstHunks.get(i);
+                firstDelta += firstHunk.getToFileRange().getLineCount() - firstHunk.getFromFileRange().getLineCount();
+            }
+            for (; j < secondEnd; j++) {
+                Hunk secondHunk = secondHunks.get(j);
+                secondDelta += secondHunk.getToFileRange().getLineCount()
+                        - secondHunk.getFromFileRange().getLineCount();
+            }
+        }
+        return composed;
+    }
+
+    /**
+     * Composes a series of Diffs of the same file into one Diff. Neighbouring Diffs are composed pairwise in rounds,
+     * so each Hunk is copied a logarithmic number of times instead of once per Diff as when folding the series.
+     *
+     * @param diffs the Diffs in the order they are applied, at least one.
+     * @return the composed Diff, or the only Diff of the series itself.
+     * @see #compose(Diff, Diff)
+     */
+    public static Diff compose(List<Diff> diffs) {
+        if (diffs.isEmpty()) {
+            throw new IllegalArgumentException("At least one Diff is needed.");
+        }
+        List<Diff> round = diffs;
+        while (round.size() > 1) {
+            List<Diff> next = new ArrayList<>((round.size() + 1) / 2);
+            for (int i = 0; i + 1 < round.size(); i += 2) {
+                next.add(compose(round.get(i), round.get(i + 1)));
+            }
+            if (round.size() % 2 == 1) {
+                next.add(round.get(round.size() - 1));
+            }
+            round = next;
+        }
+        return round.get(0);
+    }
+
+    /**
+     * Copies a Hunk that is not overlapped by any Hunk of the other Diff, which only moves it within the file.
+     */
+    private static Hunk shiftedCopy(Hunk hunk, Range fromFileRange, Range toFileRange) {
+        Hunk copy = new Hunk();
+        copy.setFromFileRange(fromFileRange);
+        copy.setToFileRange(toFileRange);
+        copy.setLines(new ArrayList<>(hunk.getLines()));
+        return copy;
+    }
+
+    private static Range shift(Range range, int delta) {
+        return delta == 0 ? range : new Range(range.getLineStart() + delta, range.getLineCount());
+    }
+
+    /**
+     * Merges a group of Hunks covering the lines {@code [groupBegin, groupEnd)} of the intermediate file without gaps.
+     * Each line of the intermediate file has been added or kept by the first Diff and is removed or kept by the second
+     * Diff. Lines removed by the first Diff and lines added by the second Diff lie between them.
+     *
+     * @param firstDelta  the number of lines added minus the number of lines removed by the preceding Hunks of the
+     *                    first Diff.
+     * @param secondDelta the same for the second Diff.
+     * @return the merged Hunk or null if no changes are left.
+     */
+    private static Hunk composeGroup(List<Hunk> firstHunks, List<Hunk> secondHunks, int groupBegin, int groupEnd,
+                                     int firstDelta, int secondDelta) {
+        int size = groupEnd - groupBegin;
+        Line[] firstLines = new Line[size];
+        Line[] secondLines = new Line[size];
+        Line[] noNewlineMarkers = new Line[size];
+        List<List<Line>> removedBefore = new ArrayList<>(size + 1);
+        List<List<Line>> addedBefore = new ArrayList<>(size + 1);
+        for (int i = 0; i <= size; i++) {
+            removedBefore.add(null);
+            addedBefore.add(null);
+        }
+
+        for (Hunk hunk : firstHunks) {
+            int position = begin(hunk.getToFileRange()) - groupBegin;
+            boolean afterRemovedLine = false;
+            for (Line line : hunk.getLines()) {
+                if (line.isNoNewlineMarker()) {
+                    // the marker belongs to the line before it
+                    if (afterRemovedLine) {
+                        add(removedBefore, position, line);
+                    } else if (position > 0) {
+                        noNewlineMarkers[position - 1] = line;
+                    }
+                } else if (line.getLineType() == Line.LineType.FROM) {
+                    add(removedBefore, position, line);
+                    afterRemovedLine = true;
+                } else {
+                    checkPosition(position, size);
+                    firstLines[position++] = line;
+                    afterRemovedLine = false;
+                }
+            }
+        }
+        for (Hunk hunk : secondHunks) {
+            int position = begin(hunk.getFromFileRange()) - groupBegin;
+            boolean afterAddedLine = false;
+            for (Line line : hunk.getLines()) {
+                if (line.isNoNewlineMarker()) {
+                    if (afterAddedLine) {
+                        add(addedBefore, position, line);
+                    } else if (position > 0) {
+                        noNewlineMarkers[position - 1] = line;
+                    }
+                } else if (line.getLineType() == Line.LineType.TO) {
+                    add(addedBefore, position, line);
+                    afterAddedLine = true;
+                } else {
+                    checkPosition(position, size);
+                    secondLines[position++] = line;
+                    afterAddedLine = false;
+                }
+            }
+        }
+
+        List<Line> lines = new ArrayList<>();
+        for (int position = 0; position <= size; position++) {
+            addAll(lines, removedBefore.get(position));
+            addAll(lines, addedBefore.get(position));
+            if (position == size) {
+                break;
+            }
+            Line firstLine = firstLines[position];
+            Line secondLine = secondLines[position];
+            if (firstLine == null && secondLine == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Line %d of the intermediate file is not covered by the Hunks.", groupBegin + position));
+            }
+            boolean added = firstLine != null && firstLine.getLineType() == Line.LineType.TO;
+            boolean removed = secondLine != null && secondLine.getLineType() == Line.LineType.FROM;
+            Line line;
+            if (added && removed) {
+                line = null;
+            } else if (added) {
+                line = firstLine;
+            } else if (removed) {
+                line = secondLine;
+            } else {
+                line = firstLine != null ? firstLine : secondLine;
+            }
+            if (line != null) {
+                lines.add(line);
+                if (noNewlineMarkers[position] != null) {
+                    lines.add(noNewlineMarkers[position]);
+                }
+            }
+        }
+
+        int fromCount = 0;
+        int toCount = 0;
+        boolean changed = false;
+        for (Line line : lines) {
+            if (line.isNoNewlineMarker()) {
+                continue;
+            }
+            if (line.getLineType() != Line.LineType.TO) {
+                fromCount++;
+            }
+            if (line.getLineType() != Line.LineType.FROM) {
+                toCount++;
+            }
+            changed |= line.getLineType() != Line.LineType.NEUTRAL;
+        }
+        if (!changed) {
+            return null;
+        }
+        // the lines before the group are unchanged by both Diffs
+        Hunk hunk = new Hunk();
+        hunk.setFromFileRange(range(groupBegin - firstDelta, fromCount));
+        hunk.setToFileRange(range(groupBegin + secondDelta, toCount));
+        hunk.setLines(removedLinesFirst(lines));
+        return hunk;
+    }
+
+    /**
+     * Reorders each block of changed lines so that the removed lines come before the added lines, as in the output of
+     * diff tools. A "\ No newline at end of file" marker stays with the line before it.
+     */
+    private static List<Line> removedLinesFirst(List<Line> lines) {
+        List<Line> ordered = new ArrayList<>(lines.size());
+        List<Line> added = new ArrayList<>();
+        boolean afterAddedLine = false;
+        for (Line line : lines) {
+            if (line.isNoNewlineMarker()) {
+                (afterAddedLine ? added : ordered).add(line);
+            } else if (line.getLineType() == Line.LineType.TO) {
+                added.add(line);
+                afterAddedLine = true;
+            } else if (line.getLineType() == Line.LineType.FROM) {
+                ordered.add(line);
+                afterAddedLine = false;
+            } else {
+                ordered.addAll(added);
+                added.clear();
+                ordered.add(line);
+                afterAddedLine = false;
+            }
+        }
+        ordered.addAll(added);
+        return ordered;
+    }
+
+    private static Diff.ChangeType composeChangeTypes(Diff.ChangeType first, Diff.ChangeType second) {
+        if (first == Diff.ChangeType.ADDED || second == Diff.ChangeType.DELETED) {
+            return first == Diff.ChangeType.ADDED ? first : second;
+        } else if (first == Diff.ChangeType.RENAMED || second == Diff.ChangeType.RENAMED) {
+            return Diff.ChangeType.RENAMED;
+        } else {
+            return Diff.ChangeType.MODIFIED;
+        }
+    }
+
+    /**
+     * The first line of a range. An empty range starts after the line it names, like in {@code @@ -5,0 +6,2 @@}.
+     */
+    private static int begin(Range range) {
+        return range.getLineCount() == 0 ? range.getLineStart() + 1 : range.getLineStart();
+    }
+
+    private static int end(Range range) {
+        return begin(range) + range.getLineCount();
+    }
+
+    private static Range range(int begin, int count) {
+        return new Range(count == 0 ? begin - 1 : begin, count);
+    }
+
+    private static void add(List<List<Line>> lines, int position, Line line) {
+        if (lines.get(position) == null) {
+            lines.set(position, new ArrayList<Line>());
+        }
+        lines.get(position).add(line);
+    }
+
+    private static void addAll(List<Line> lines, List<Line> added) {
+        if (added != null) {
+            lines.addAll(added);
+        }
+    }
+
+    private static void checkPosition(int position, int size) {
+        if (position >= size) {
+            throw new IllegalArgumentException("The lines of a Hunk do not match its line range.");
+        }
+    }
+
+    private static void checkNotCombined(Diff diff) {
+        boolean combined = diff.isCombined();
+        for (Hunk hunk : diff.getHunks()) {
+            combined |= hunk.getParentCount() > 1;
+        }
+        if (combined) {
+            throw new IllegalArgumentException("Combined diffs are not supported.");
+        }
+    }
+
+    private static void checkComposable(Diff diff) {
+        checkNotCombined(diff);
+        if (diff.isBinary()) {
+            throw new IllegalArgumentException("Binary diffs cannot be composed.");
+        }
+        for (Hunk hunk : diff.getHunks()) {
+            if (hunk.isSkipped()) {
+                throw new IllegalArgumentException("Diffs with skipped Hunks cannot be composed.");
+            }
+        }
+    }
+
+}
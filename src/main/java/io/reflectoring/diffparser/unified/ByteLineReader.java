@@ -0,0 +1,337 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.ParseLimitExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link LineReader} that splits the raw bytes of the input into lines before decoding them. Lines that consist of
+ * ASCII characters only are converted to Strings directly; only lines containing other characters go through the
+ * decoder of the charset.
+ * <p/>
+ * This only works for charsets that encode ASCII characters as single bytes and never use bytes of the ASCII range
+ * within the encoding of other characters (like UTF-8 and single-byte charsets). Use {@link #supports(Charset)} to
+ * check a charset.
+ */
+final class ByteLineReader implements LineReader {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private static final long LINE_FEEDS = LOW_BITS * '\n';
+
+    private static final long CARRIAGE_RETURNS = LOW_BITS * '\r';
+
+    private final InputStream in;
+
+    private final Charset charset;
+
+    private final int maxLineLength;
+
+    private byte[] buffer;
+
+    // reads eight bytes of the buffer at once, which compiles to a single load on current JVMs
+    private ByteBuffer words;
+
+    private int position = 0;
+
+    private int limit = 0;
+
+    private boolean isEndOfStream = false;
+
+    private boolean skipLineFeed = false;
+
+    private long lineCount = 0;
+
+    private long consumedSize = 0;
+
+    ByteLineReader(InputStream in, Charset charset) {
+        this(in, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    ByteLineReader(InputStream in, Charset charset, int bufferSize) {
+        this(in, charset, bufferSize, Integer.MAX_VALUE);
+    }
+
+    ByteLineReader(InputStream in, Charset charset, int bufferSize, int maxLineLength) {
+        this.in = in;
+        this.charset = charset;
+        this.buffer = new byte[bufferSize];
+        this.words = wrap(buffer);
+        this.maxLineLength = maxLineLength;
+    }
+
+    private static ByteBuffer wrap(byte[] buffer) {
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checks if lines of input in the given charset can be split on the byte level.
+     */
+    static boolean supports(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset)) {
+            return true;
+        }
+        return charset.canEncode() && isSingleByteAsciiCompatible(charset);
+    }
+
+    private static boolean isSingleByteAsciiCompatible(Charset charset) {
+        CharsetEncoder encoder = charset.newEncoder();
+        if (encoder.maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        char[] ascii = new char[128];
+        for (char c = 0; c < ascii.length; c++) {
+            ascii[c] = c;
+        }
+        try {
+            ByteBuffer encoded = encoder.encode(CharBuffer.wrap(ascii));
+            for (int i = 0; i < ascii.length; i++) {
+                if (encoded.get(i) != i) {
+                    return false;
+                }
+            }
+            return encoded.remaining() == ascii.length;
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        skipPendingLineFeed();
+        int scan = position;
+        long bits = 0;
+        while (true) {
+            int i = scan;
+            for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+                long word = words.getLong(i);
+                long found = lineBreaks(word);
+                if (found != 0) {
+                    int index = Long.numberOfTrailingZeros(found) >>> 3;
+                    // only the bytes before the line break belong to the line
+                    bits |= word & ((1L << (index << 3)) - 1);
+                    return line(i + index, bits);
+                }
+                bits |= word;
+            }
+            for (; i < limit; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    return line(i, bits);
+                }
+                bits |= b;
+            }
+            int scanned = limit - position;
+            // checked before filling, so that the buffer never grows much beyond the maximum line length
+            checkLineLength(scanned);
+            if (!fill()) {
+                if (scanned == 0) {
+                    return null;
+                }
+                lineCount++;
+                String line = decode(position, scanned, bits);
+                consumedSize += scanned;
+                position = limit;
+                return line;
+            }
+            scan = position + scanned;
+        }
+    }
+
+    private String line(int end, long bits) {
+        checkLineLength(end - position);
+        String line = decode(position, end - position, bits);
+        skipLineFeed = buffer[end] == '\r';
+        consumedSize += end + 1 - position;
+        position = end + 1;
+        lineCount++;
+        return line;
+    }
+
+    @Override
+    public boolean nextLineStartsWith(String prefix) throws IOException {
+        skipPendingLineFeed();
+        while (limit - position < prefix.length()) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer[position + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int peekFirstChar() throws IOException {
+        skipPendingLineFeed();
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    /**
+     * Skips the next line by scanning for its end. The scanned bytes are discarded right away, so skipping a line
+     * never grows the buffer.
+     */
+    @Override
+    public long skipLine() throws IOException {
+        skipPendingLineFeed();
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        long skipped = 0;
+        while (true) {
+            int end = indexOfLineBreak(position, limit);
+            if (end >= 0) {
+                skipLineFeed = buffer[end] == '\r';
+                lineCount++;
+                skipped += end + 1 - position;
+                position = end + 1;
+                consumedSize += skipped;
+                return skipped;
+            }
+            skipped += limit - position;
+            position = limit;
+            if (!fill()) {
+                lineCount++;
+                consumedSize += skipped;
+                return skipped;
+            }
+        }
+    }
+
+    @Override
+    public long getConsumedSize() {
+        return consumedSize;
+    }
+
+    private void checkLineLength(int length) {
+        if (length > maxLineLength) {
+            throw new ParseLimitExceededException(ParseLimitExceededException.Limit.LINE_LENGTH, maxLineLength,
+                    lineCount + 1);
+        }
+    }
+
+    /**
+     * Skips the line feed of a line that has been terminated by "\r\n".
+     */
+    private void skipPendingLineFeed() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if ((position < limit || fill()) && buffer[position] == '\n') {
+                position++;
+                consumedSize++;
+            }
+        }
+    }
+
+    /**
+     * Finds the first '\n' or '\r' in the given range of the buffer, eight bytes at once.
+     *
+     * @return the index of the line break or -1.
+     */
+    private int indexOfLineBreak(int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long found = lineBreaks(words.getLong(i));
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte b = buffer[i];
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the bytes of a little-endian word that are '\n' or '\r' by setting their high bit. XOR-ing the word with
+     * a byte repeated eight times turns the matching bytes into zero bytes, and {@code (x - 0x01..) & ~x & 0x80..}
+     * sets the high bit of each zero byte. The borrow of the subtraction can only mark bytes following a zero byte, so
+     * the lowest marked byte is always the first match.
+     */
+    private static long lineBreaks(long word) {
+        long lineFeeds = word ^ LINE_FEEDS;
+        long carriageReturns = word ^ CARRIAGE_RETURNS;
+        return ((lineFeeds - LOW_BITS) & ~lineFeeds | (carriageReturns - LOW_BITS) & ~carriageReturns) & HIGH_BITS;
+    }
+
+    /**
+     * Converts a line to a String. If no byte of the line has the high bit set, the line is pure ASCII and each byte
+     * is the character itself, which the ISO-8859-1 conversion copies without any decoding logic.
+     *
+     * @param bits all bytes of the line or-ed together, in any arrangement.
+     */
+    private String decode(int offset, int length, long bits) {
+        if ((bits & HIGH_BITS) == 0) {
+            return new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+        } else {
+            return new String(buffer, offset, length, charset);
+        }
+    }
+
+    /**
+     * Reads more bytes from the input, moving the unread bytes to the start of the buffer and growing the buffer if it
+     * is full.
+     *
+     * @return false if the end of the stream has been reached.
+     */
+    private boolean fill() throws IOException {
+        if (isEndOfStream) {
+            return false;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            words = wrap(buffer);
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            isEndOfStream = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Detects compressed input by its magic bytes and wraps it into a decompressing stream. Supported are gzip streams
+ * (as written by {@code gzip} or {@link java.util.zip.GZIPOutputStream}) and zlib-wrapped deflate streams (as written by
+ * {@link java.util.zip.DeflaterOutputStream}) at the default or best compression level. Raw deflate data without a zlib
+ * header and zlib streams of lower compression levels are not detected.
+ */
+public final class CompressedInput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Returns a stream that delivers the decompressed content of the given stream if it is compressed, or a stream
+     * delivering the unchanged content otherwise.
+     * <p/>
+     * Closing the returned stream never closes the given stream.
+     *
+     * @param in        the stream that may contain compressed data.
+     * @param pipelined if true, decompression runs on a separate thread so that it overlaps with parsing.
+     * @return a stream delivering uncompressed data.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static InputStream decompressIfNecessary(InputStream in, boolean pipelined) throws IOException {
+        InputStream buffered = in.markSupported() ? in : new BufferedInputStream(new NonClosingInputStream(in), BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+
+        InputStream decompressed;
+        if (isGzipHeader(first, second)) {
+            decompressed = new GZIPInputStream(new NonClosingInputStream(buffered), BUFFER_SIZE);
+        } else if (isZlibHeader(first, second)) {
+            decompressed = new InflaterInputStream(new NonClosingInputStream(buffered));
+        } else {
+            return buffered;
+        }
+        return pipelined ? new PipelinedInputStream(decompressed) : decompressed;
+    }
+
+    private static boolean isGzipHeader(int first, int second) {
+        return first == 0x1f && second == 0x8b;
+    }
+
+    /**
+     * Only accepts the header bytes written by zlib encoders at the default and the best compression levels (32K
+     * window, no preset dictionary). The headers of the lower levels are the ASCII text "x^" and "x" followed by a
+     * control character, which plain text patches may start with.
+     */
+    private static boolean isZlibHeader(int first, int second) {
+        return first == 0x78 && (second == 0x9c || second == 0xda);
+    }
+
+    /**
+     * Shields the wrapped stream from being closed by the decompressing stream, which closes its source when it
+     * releases its native resources.
+     */
+    private static final class NonClosingInputStream extends FilterInputStream {
+
+        private NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // the caller owns the wrapped stream
+        }
+    }
+
+}
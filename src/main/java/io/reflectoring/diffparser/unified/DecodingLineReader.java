@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.ParseLimitExceededException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link LineReader} that reads lines through a {@link BufferedReader}. Works for any charset, since the input is
+ * decoded before it is split into lines.
+ */
+final class DecodingLineReader implements LineReader {
+
+    private final BufferedReader reader;
+
+    private final int maxLineLength;
+
+    private String nextLine;
+
+    private long lineCount = 0;
+
+    private long consumedSize = 0;
+
+    DecodingLineReader(InputStream in, Charset charset) {
+        this(in, charset, Integer.MAX_VALUE);
+    }
+
+    DecodingLineReader(InputStream in, Charset charset, int maxLineLength) {
+        this.reader = new BufferedReader(new InputStreamReader(in, charset));
+        this.maxLineLength = maxLineLength;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        String line = nextLine != null ? nextLine : readNextLine();
+        nextLine = null;
+        if (line != null) {
+            consumedSize += line.length() + 1;
+        }
+        return line;
+    }
+
+    @Override
+    public boolean nextLineStartsWith(String prefix) throws IOException {
+        return peekLine() != null && nextLine.startsWith(prefix);
+    }
+
+    @Override
+    public int peekFirstChar() throws IOException {
+        if (peekLine() == null) {
+            return -1;
+        }
+        return nextLine.isEmpty() ? '\n' : nextLine.charAt(0);
+    }
+
+    @Override
+    public long skipLine() throws IOException {
+        String line = readLine();
+        return line == null ? -1 : line.length() + 1;
+    }
+
+    @Override
+    public long getConsumedSize() {
+        return consumedSize;
+    }
+
+    private String peekLine() throws IOException {
+        if (nextLine == null) {
+            nextLine = readNextLine();
+        }
+        return nextLine;
+    }
+
+    private String readNextLine() throws IOException {
+        String line = maxLineLength == Integer.MAX_VALUE ? reader.readLine() : readBoundedLine();
+        if (line != null) {
+            lineCount++;
+        }
+        return line;
+    }
+
+    /**
+     * Reads a line character by character, since {@link BufferedReader#readLine()} would buffer a line of any length.
+     */
+    private String readBoundedLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == '\n') {
+                return line.toString();
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                return line.toString();
+            } else if (line.length() == maxLineLength) {
+                throw new ParseLimitExceededException(ParseLimitExceededException.Limit.LINE_LENGTH, maxLineLength,
+                        lineCount + 1);
+            }
+            line.append((char) c);
+        }
+        return line.length() == 0 ? null : line.toString();
+    }
+
+}
@@ -0,0 +1,337 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.model.Diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses the extended header lines of a git diff into the typed properties of a {@link Diff}. Example header:
+ * <pre>
+ * diff --git a/old.txt b/new.txt
+ * similarity index 90%
+ * rename from old.txt
+ * rename to new.txt
+ * index 5809534..4f4147a 100644
+ * </pre>
+ * Lines that are no git header lines or cannot be parsed are ignored, since header lines are informational only.
+ * The combined diffs of merge commits start with {@code diff --cc file.txt} or {@code diff --combined file.txt}
+ * instead.
+ */
+public final class GitHeaderParser {
+
+    public static final String DIFF_GIT = "diff --git ";
+
+    public static final String DIFF_CC = "diff --cc ";
+
+    public static final String DIFF_COMBINED = "diff --combined ";
+
+    public static final String GIT_BINARY_PATCH = "GIT binary patch";
+
+    public static final String BINARY_LITERAL = "literal ";
+
+    public static final String BINARY_DELTA = "delta ";
+
+    private static final String INDEX = "index ";
+
+    private static final String NEW_FILE_MODE = "new file mode ";
+
+    private static final String DELETED_FILE_MODE = "deleted file mode ";
+
+    private static final String OLD_MODE = "old mode ";
+
+    private static final String COMBINED_MODE = "mode ";
+
+    private static final String NEW_MODE = "new mode ";
+
+    private static final String SIMILARITY_INDEX = "similarity index ";
+
+    private static final String RENAME_FROM = "rename from ";
+
+    private static final String RENAME_TO = "rename to ";
+
+    private static final String COPY_FROM = "copy from ";
+
+    private static final String COPY_TO = "copy to ";
+
+    private static final String BINARY_FILES = "Binary files ";
+
+    // boxed once, since Integer.valueOf() only caches small values and nearly all files have one of these modes
+    private static final Integer REGULAR_FILE = 0100644;
+
+    private static final Integer EXECUTABLE_FILE = 0100755;
+
+    private static final Integer SYMBOLIC_LINK = 0120000;
+
+    private static final Integer GITLINK = 0160000;
+
+    private GitHeaderParser() {
+    }
+
+    /**
+     * Checks if the given line starts a git diff, either a regular or a combined one.
+     */
+    public static boolean isDiffStartLine(String line) {
+        return line.startsWith(DIFF_GIT) || line.startsWith(DIFF_CC) || line.startsWith(DIFF_COMBINED);
+    }
+
+    /**
+     * Checks if the given line starts a block of binary data following a {@code GIT binary patch} line.
+     */
+    public static boolean isBinaryBlockStart(String line) {
+        return line.startsWith(BINARY_LITERAL) || line.startsWith(BINARY_DELTA);
+    }
+
+    /**
+     * Checks if the given Diff has been started by a {@code diff --git}, {@code diff --cc} or {@code diff --combined}
+     * line.
+     */
+    public static boolean isGitDiff(Diff diff) {
+        for (String headerLine : diff.getHeaderLines()) {
+            if (isDiffStartLine(headerLine)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given header line is an {@code index} line. Since it names the blob ids of a single change, it
+     * practically never repeats across Diffs.
+     */
+    public static boolean isIndexLine(String line) {
+        return line.startsWith(INDEX);
+    }
+
+    /**
+     * Parses the given header line into the properties of the given Diff, if it is an extended git header line.
+     *
+     * @param diff the Diff the header line belongs to.
+     * @param line the header line.
+     */
+    public static void parseHeaderLine(Diff diff, String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        // dispatch on the first character so that most lines are only compared with one or two prefixes
+        switch (line.charAt(0)) {
+            case 'd':
+                if (line.startsWith(DIFF_GIT)) {
+                    parseDiffGitLine(diff, line.substring(DIFF_GIT.length()));
+                } else if (line.startsWith(DIFF_CC)) {
+                    parseCombinedDiffLine(diff, line.substring(DIFF_CC.length()));
+                } else if (line.startsWith(DIFF_COMBINED)) {
+                    parseCombinedDiffLine(diff, line.substring(DIFF_COMBINED.length()));
+                } else if (line.startsWith(DELETED_FILE_MODE)) {
+                    diff.setChangeType(Diff.ChangeType.DELETED);
+                    parseFromModes(diff, line.substring(DELETED_FILE_MODE.length()));
+                }
+                break;
+            case 'm':
+                if (line.startsWith(COMBINED_MODE)) {
+                    parseCombinedModeLine(diff, line.substring(COMBINED_MODE.length()));
+                }
+                break;
+            case 'i':
+                if (line.startsWith(INDEX)) {
+                    parseIndexLine(diff, line.substring(INDEX.length()));
+                }
+                break;
+            case 'n':
+                if (line.startsWith(NEW_FILE_MODE)) {
+                    diff.setChangeType(Diff.ChangeType.ADDED);
+                    diff.setToFileMode(parseMode(line.substring(NEW_FILE_MODE.length())));
+                } else if (line.startsWith(NEW_MODE)) {
+                    diff.setToFileMode(parseMode(line.substring(NEW_MODE.length())));
+                }
+                break;
+            case 'o':
+                if (line.startsWith(OLD_MODE)) {
+                    diff.setFromFileMode(parseMode(line.substring(OLD_MODE.length())));
+                }
+                break;
+            case 's':
+                if (line.startsWith(SIMILARITY_INDEX)) {
+                    diff.setSimilarityIndex(parsePercentage(line.substring(SIMILARITY_INDEX.length())));
+                }
+                break;
+            case 'r':
+                if (line.startsWith(RENAME_FROM)) {
+                    diff.setChangeType(Diff.ChangeType.RENAMED);
+                    diff.setSourcePath(line.substring(RENAME_FROM.length()));
+                } else if (line.startsWith(RENAME_TO)) {
+                    diff.setChangeType(Diff.ChangeType.RENAMED);
+                    diff.setTargetPath(line.substring(RENAME_TO.length()));
+                }
+                break;
+            case 'c':
+                if (line.startsWith(COPY_FROM)) {
+                    diff.setChangeType(Diff.ChangeType.COPIED);
+                    diff.setSourcePath(line.substring(COPY_FROM.length()));
+                } else if (line.startsWith(COPY_TO)) {
+                    diff.setChangeType(Diff.ChangeType.COPIED);
+                    diff.setTargetPath(line.substring(COPY_TO.length()));
+                }
+                break;
+            case 'B':
+                if (line.startsWith(BINARY_FILES) && line.endsWith(" differ")) {
+                    diff.setBinary(true);
+                }
+                break;
+            case 'G':
+                if (line.startsWith(GIT_BINARY_PATCH)) {
+                    diff.setBinary(true);
+                }
+                break;
+            default:
+                // no git header line
+        }
+    }
+
+    /**
+     * Takes the file names from {@code a/file.txt b/file.txt}. If the file has not been renamed, both names have the
+     * same length, which allows splitting names containing spaces correctly. The names are only used as long as there
+     * are no {@code ---} and {@code +++} lines, as is the case for binary files and pure renames.
+     */
+    private static void parseDiffGitLine(Diff diff, String names) {
+        if (diff.getFromFileName() != null || diff.getToFileName() != null) {
+            return;
+        }
+        int separator = -1;
+        int half = (names.length() - 1) / 2;
+        if (names.length() % 2 == 1 && names.charAt(half) == ' '
+                && names.regionMatches(2, names, half + 3, half - 2)) {
+            separator = half;
+        } else {
+            int toPrefix = names.lastIndexOf(" b/");
+            if (toPrefix > 0) {
+                separator = toPrefix;
+            }
+        }
+        if (separator > 0) {
+            diff.setFromFileName(names.substring(0, separator));
+            diff.setToFileName(names.substring(separator + 1));
+        }
+    }
+
+    /**
+     * A combined diff names the merged file only once, since renames are not shown in combined diffs.
+     */
+    private static void parseCombinedDiffLine(Diff diff, String name) {
+        diff.setCombined(true);
+        if (diff.getFromFileName() == null && diff.getToFileName() == null) {
+            diff.setFromFileName(name);
+            diff.setToFileName(name);
+        }
+    }
+
+    /**
+     * Parses {@code 5809534..4f4147a} with an optional mode like {@code 100644}. Combined diffs list the blob of each
+     * parent, as in {@code fabadb8,cc95eb0..4866510}.
+     */
+    private static void parseIndexLine(Diff diff, String index) {
+        int range = index.indexOf("..");
+        if (range < 0) {
+            return;
+        }
+        int modeStart = index.indexOf(' ', range);
+        String fromBlobIds = index.substring(0, range);
+        int parents = 1;
+        if (fromBlobIds.indexOf(',') >= 0) {
+            List<String> blobIds = Arrays.asList(fromBlobIds.split(","));
+            parents = blobIds.size();
+            diff.setFromBlobIds(blobIds);
+        } else {
+            diff.setFromBlobId(fromBlobIds);
+        }
+        diff.setToBlobId(index.substring(range + 2, modeStart < 0 ? index.length() : modeStart));
+        if (modeStart > 0) {
+            Integer mode = parseMode(index.substring(modeStart + 1));
+            if (parents > 1) {
+                if (diff.getFromFileModes().isEmpty()) {
+                    diff.setFromFileModes(Collections.nCopies(parents, mode));
+                }
+            } else if (diff.getFromFileMode() == null) {
+                diff.setFromFileMode(mode);
+            }
+            if (diff.getToFileMode() == null) {
+                diff.setToFileMode(mode);
+            }
+        }
+    }
+
+    /**
+     * Parses the modes of a combined diff whose parents have different modes, like {@code 100644,100755..100755}.
+     */
+    private static void parseCombinedModeLine(Diff diff, String modes) {
+        int range = modes.indexOf("..");
+        if (range < 0) {
+            return;
+        }
+        parseFromModes(diff, modes.substring(0, range));
+        diff.setToFileMode(parseMode(modes.substring(range + 2)));
+    }
+
+    /**
+     * Parses a single mode or the comma-separated modes of the parents of a combined diff.
+     */
+    private static void parseFromModes(Diff diff, String modes) {
+        if (modes.indexOf(',') < 0) {
+            diff.setFromFileMode(parseMode(modes));
+            return;
+        }
+        List<Integer> fromModes = new ArrayList<>();
+        for (String mode : modes.split(",")) {
+            fromModes.add(parseMode(mode));
+        }
+        diff.setFromFileModes(fromModes);
+    }
+
+    private static Integer parseMode(String mode) {
+        int value;
+        try {
+            value = Integer.parseInt(mode.trim(), 8);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        switch (value) {
+            case 0100644:
+                return REGULAR_FILE;
+            case 0100755:
+                return EXECUTABLE_FILE;
+            case 0120000:
+                return SYMBOLIC_LINK;
+            case 0160000:
+                return GITLINK;
+            default:
+                return value;
+        }
+    }
+
+    private static Integer parsePercentage(String percentage) {
+        int end = percentage.indexOf('%');
+        try {
+            return Integer.valueOf(end < 0 ? percentage.trim() : percentage.substring(0, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
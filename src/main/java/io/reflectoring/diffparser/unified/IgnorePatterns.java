@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regular expressions for lines that are skipped while reading the input, like time stamps or banners of the tool
+ * that created the diff. A line is ignored if one of the expressions matches the whole line.
+ * <p/>
+ * Instead of matching each expression on its own, the expressions are grouped by the characters their matches can
+ * start with, and each group is compiled into a single alternation. Most lines are thus rejected by looking up their first
+ * character, and the remaining ones are matched against one expression per line. Expressions that may start with any
+ * character are combined into a group that is matched against every line. Expressions using back references or named
+ * groups can't be combined, since group numbers and names would clash, and are matched on their own.
+ * <p/>
+ * The compiled expressions are immutable and may be shared by several parsers. Each parser creates its own
+ * {@link LineMatcher}, which reuses its {@link Matcher}s for all lines.
+ */
+public final class IgnorePatterns {
+
+    private static final String METACHARACTERS = "[](){}.*+?^$|";
+
+    private static final String DIGITS = "0123456789";
+
+    private final Pattern[] byFirstChar = new Pattern[128];
+
+    private final Pattern anyFirstChar;
+
+    private final List<Pattern> separate = new ArrayList<>();
+
+    private final List<String> regexes;
+
+    /**
+     * Compiles the given regular expressions.
+     *
+     * @param regexes the expressions, each matched against whole lines.
+     * @throws java.util.regex.PatternSyntaxException if an expression is invalid.
+     */
+    public IgnorePatterns(Collection<String> regexes) {
+        List<List<String>> groups = new ArrayList<>(128);
+        for (int i = 0; i < 128; i++) {
+            groups.add(new ArrayList<String>());
+        }
+        List<String> anyFirstCharGroup = new ArrayList<>();
+        for (String regex : regexes) {
+            // compiling each expression on its own reports syntax errors for the expression that causes them
+            Pattern pattern = Pattern.compile(regex);
+            if (usesGroupReferences(regex)) {
+                separate.add(pattern);
+                continue;
+            }
+            String firstChars = firstChars(regex);
+            if (firstChars == null) {
+                anyFirstCharGroup.add(regex);
+                continue;
+            }
+            for (int i = 0; i < firstChars.length(); i++) {
+                groups.get(firstChars.charAt(i)).add(regex);
+            }
+        }
+        for (int i = 0; i < 128; i++) {
+            byFirstChar[i] = combine(groups.get(i));
+        }
+        anyFirstChar = combine(anyFirstCharGroup);
+        this.regexes = Collections.unmodifiableList(new ArrayList<>(regexes));
+    }
+
+    /**
+     * Checks if there are no expressions at all, so that lines don't need to be checked.
+     */
+    public boolean isEmpty() {
+        return regexes.isEmpty();
+    }
+
+    /**
+     * Returns the expressions these patterns have been compiled from.
+     */
+    public List<String> getRegexes() {
+        return regexes;
+    }
+
+    /**
+     * Creates a matcher for use by a single thread.
+     */
+    public LineMatcher matcher() {
+        return new LineMatcher();
+    }
+
+    private static Pattern combine(List<String> regexes) {
+        if (regexes.isEmpty()) {
+            return null;
+        }
+        if (regexes.size() == 1) {
+            return Pattern.compile(regexes.get(0));
+        }
+        StringBuilder combined = new StringBuilder();
+        for (String regex : regexes) {
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            // inline flags like (?i) end with the group they are declared in
+            combined.append("(?:").append(regex).append(')');
+        }
+        return Pattern.compile(combined.toString());
+    }
+
+    /**
+     * Returns the ASCII characters a match of the expression can start with, or null if this is not obvious from the
+     * first element of the expression. This is conservative: alternations, character classes other than
+     * {@code \d}, groups, optional first elements and non-ASCII characters are all treated as "any character".
+     */
+    static String firstChars(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return null;
+        }
+        int i = regex.startsWith("^") ? 1 : 0;
+        if (i >= regex.length()) {
+            return null;
+        }
+        char c = regex.charAt(i);
+        String firstChars;
+        int next;
+        if (c == '\\') {
+            if (i + 1 >= regex.length()) {
+                return null;
+            }
+            char escaped = regex.charAt(i + 1);
+            if (escaped == 'd') {
+                firstChars = DIGITS;
+            } else if (!Character.isLetterOrDigit(escaped)) {
+                firstChars = String.valueOf(escaped);
+            } else {
+                return null;
+            }
+            next = i + 2;
+        } else if (METACHARACTERS.indexOf(c) >= 0) {
+            return null;
+        } else {
+            firstChars = String.valueOf(c);
+            next = i + 1;
+        }
+        if (next < regex.length() && isOptional(regex, next)) {
+            return null;
+        }
+        return firstChars.charAt(0) < 128 ? firstChars : null;
+    }
+
+    /**
+     * Checks if the quantifier at the given position allows the preceding element to be absent.
+     */
+    private static boolean isOptional(String regex, int quantifier) {
+        char c = regex.charAt(quantifier);
+        if (c == '{') {
+            return quantifier + 1 >= regex.length() || regex.charAt(quantifier + 1) < '1'
+                    || regex.charAt(quantifier + 1) > '9';
+        }
+        return c == '*' || c == '?';
+    }
+
+    private static boolean usesGroupReferences(String regex) {
+        for (int i = 0; i < regex.length() - 1; i++) {
+            char c = regex.charAt(i);
+            char next = regex.charAt(i + 1);
+            if (c == '\\') {
+                if ((next >= '1' && next <= '9') || next == 'k') {
+                    return true;
+                }
+                i++;
+            } else if (c == '(' && regex.startsWith("?<", i + 1) && i + 3 < regex.length()
+                    && regex.charAt(i + 3) != '=' && regex.charAt(i + 3) != '!') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches lines against the compiled expressions, reusing one {@link Matcher} per expression. Not thread-safe.
+     */
+    public final class LineMatcher {
+
+        private final Matcher[] byFirstCharMatchers = new Matcher[128];
+
+        private final Matcher anyFirstCharMatcher = anyFirstChar != null ? anyFirstChar.matcher("") : null;
+
+        private final Matcher[] separateMatchers = new Matcher[separate.size()];
+
+        private LineMatcher() {
+            for (int i = 0; i < separateMatchers.length; i++) {
+                separateMatchers[i] = separate.get(i).matcher("");
+            }
+        }
+
+        /**
+         * Checks if the given line is to be ignored.
+         *
+         * @param line the line without line terminator.
+         * @return true if one of the expressions matches the whole line.
+         */
+        public boolean matches(String line) {
+            if (line.length() > 0) {
+                char c = line.charAt(0);
+                if (c < 128 && byFirstChar[c] != null) {
+                    Matcher matcher = byFirstCharMatchers[c];
+                    if (matcher == null) {
+                        matcher = byFirstChar[c].matcher(line);
+                        byFirstCharMatchers[c] = matcher;
+                    } else {
+                        matcher.reset(line);
+                    }
+                    if (matcher.matches()) {
+                        return true;
+                    }
+                }
+            }
+            if (anyFirstCharMatcher != null && anyFirstCharMatcher.reset(line).matches()) {
+                return true;
+            }
+            for (Matcher matcher : separateMatchers) {
+                if (matcher.reset(line).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
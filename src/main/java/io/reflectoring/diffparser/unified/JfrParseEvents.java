@@ -0,0 +1,161 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Flight Recorder events emitted by {@link ParseEvents}. This class references the {@code jdk.jfr} API and must
+ * only be loaded after checking that the API is available. Compiling it requires JDK 8u262 or later, which the build
+ * checks.
+ */
+final class JfrParseEvents {
+
+    private static final String CATEGORY = "DiffParser";
+
+    private JfrParseEvents() {
+    }
+
+    static Object beginParse() {
+        ParseEvent event = new ParseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endParse(Object parse, long bytes, long lines, int diffs) {
+        ParseEvent event = (ParseEvent) parse;
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytesRead = bytes;
+            event.linesRead = lines;
+            event.diffCount = diffs;
+            event.commit();
+        }
+    }
+
+    static void diffParsed(Diff diff, int lineNumber) {
+        DiffParsedEvent event = new DiffParsedEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        int lines = 0;
+        for (Hunk hunk : diff.getHunks()) {
+            lines += hunk.getLines().size();
+        }
+        event.fromFileName = diff.getFromFileName();
+        event.toFileName = diff.getToFileName();
+        event.hunkCount = diff.getHunks().size();
+        event.lineCount = lines;
+        event.lineNumber = lineNumber;
+        event.commit();
+    }
+
+    static void lookahead(int lineNumber, int lines) {
+        LookaheadEvent event = new LookaheadEvent();
+        if (event.shouldCommit()) {
+            event.lineNumber = lineNumber;
+            event.linesAhead = lines;
+            event.commit();
+        }
+    }
+
+    static void virtualBlankLine(int lineNumber) {
+        VirtualBlankLineEvent event = new VirtualBlankLineEvent();
+        if (event.shouldCommit()) {
+            event.lineNumber = lineNumber;
+            event.commit();
+        }
+    }
+
+    @Name("io.reflectoring.diffparser.Parse")
+    @Label("Diff Parse")
+    @Category(CATEGORY)
+    @Description("The parse of a diff from the first to the last line")
+    static final class ParseEvent extends Event {
+
+        @Label("Bytes Read")
+        @Description("The size of the lines read, in bytes for UTF-8 and single-byte charsets, in characters otherwise")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Lines Read")
+        long linesRead;
+
+        @Label("Diffs")
+        int diffCount;
+    }
+
+    @Name("io.reflectoring.diffparser.DiffParsed")
+    @Label("Diff Parsed")
+    @Category(CATEGORY)
+    @Description("A diff of a single file that has been parsed completely")
+    @StackTrace(false)
+    static final class DiffParsedEvent extends Event {
+
+        @Label("From File")
+        String fromFileName;
+
+        @Label("To File")
+        String toFileName;
+
+        @Label("Hunks")
+        int hunkCount;
+
+        @Label("Lines")
+        int lineCount;
+
+        @Label("Line Number")
+        @Description("The number of the line following the diff")
+        int lineNumber;
+    }
+
+    @Name("io.reflectoring.diffparser.Lookahead")
+    @Label("Deep Lookahead")
+    @Category(CATEGORY)
+    @Description("A blank line that needed many lines of lookahead to decide whether it ends a diff")
+    @StackTrace(false)
+    static final class LookaheadEvent extends Event {
+
+        @Label("Line Number")
+        int lineNumber;
+
+        @Label("Lines Ahead")
+        int linesAhead;
+    }
+
+    @Name("io.reflectoring.diffparser.VirtualBlankLine")
+    @Label("Virtual Blank Line")
+    @Category(CATEGORY)
+    @Description("A blank line inserted between two diffs that are not separated by one")
+    @StackTrace(false)
+    static final class VirtualBlankLineEvent extends Event {
+
+        @Label("Line Number")
+        int lineNumber;
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.ParseLimitExceededException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the lines of an input stream. A line is terminated by a line feed ('\n'), a carriage return ('\r') or a
+ * carriage return followed immediately by a line feed, just like with {@link BufferedReader#readLine()}.
+ */
+interface LineReader {
+
+    /**
+     * Reads the next line.
+     *
+     * @return the content of the line without line termination characters or null if the end of the stream has been
+     * reached.
+     */
+    String readLine() throws IOException;
+
+    /**
+     * Checks if the next line starts with the given prefix without consuming it.
+     *
+     * @param prefix a prefix consisting of ASCII characters.
+     * @return true if the next line starts with the prefix, false if it does not or if the end of the stream has been
+     * reached.
+     */
+    boolean nextLineStartsWith(String prefix) throws IOException;
+
+    /**
+     * Returns the first character of the next line without consuming it.
+     *
+     * @return the first character of the next line, a line termination character if the next line is empty or -1 if
+     * the end of the stream has been reached.
+     */
+    int peekFirstChar() throws IOException;
+
+    /**
+     * Skips the next line without decoding it, if possible.
+     *
+     * @return the size of the skipped line including its line termination characters (in bytes if the line has not
+     * been decoded, in characters otherwise) or -1 if the end of the stream has been reached.
+     */
+    long skipLine() throws IOException;
+
+    /**
+     * Returns the size of all lines read or skipped so far, including their line termination characters. The size is
+     * counted in bytes of the input if the reader splits the input into lines before decoding it, and in characters
+     * (counting each line termination as one character) otherwise. Lines that have only been peeked at are not
+     * included.
+     */
+    long getConsumedSize();
+
+    /**
+     * Creates the fastest {@link LineReader} that supports the given charset.
+     *
+     * @param maxLineLength the maximum length of a line read by {@link #readLine()}; longer lines cause a
+     *                      {@link ParseLimitExceededException} before they are buffered completely.
+     */
+    static LineReader create(InputStream in, Charset charset, int maxLineLength) {
+        if (ByteLineReader.supports(charset)) {
+            return new ByteLineReader(in, charset, ByteLineReader.DEFAULT_BUFFER_SIZE, maxLineLength);
+        } else {
+            return new DecodingLineReader(in, charset, maxLineLength);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.model.Diff;
+
+/**
+ * Emits Java Flight Recorder events about the progress of a parse, so that a slow parse in a live service can be
+ * attributed to reading the input, to looking ahead for the end of a diff or to building the model:
+ * <ul>
+ * <li>{@code io.reflectoring.diffparser.Parse}: the duration of a whole parse with the number of bytes, lines and
+ * diffs read.</li>
+ * <li>{@code io.reflectoring.diffparser.DiffParsed}: a parsed diff with its number of hunks and lines.</li>
+ * <li>{@code io.reflectoring.diffparser.Lookahead}: a blank line that needed at least {@link #DEEP_LOOKAHEAD_LINES}
+ * lines of lookahead to decide whether it ends a diff.</li>
+ * <li>{@code io.reflectoring.diffparser.VirtualBlankLine}: a blank line inserted between two diffs that are not
+ * separated by one, as written by {@code svn diff}.</li>
+ * </ul>
+ * The events are only emitted on JVMs providing the {@code jdk.jfr} API, which are JDK 11 and later and JDK 8 from
+ * update 262 on. On other JVMs, or if the system property {@code diffparser.jfr} is set to {@code false}, all methods
+ * return right away and the event classes are never loaded. While no recording is running, an event costs a check of
+ * a flag.
+ */
+public final class ParseEvents {
+
+    /**
+     * The number of lines a blank line has to be looked ahead of before a Lookahead event is emitted.
+     */
+    public static final int DEEP_LOOKAHEAD_LINES = 32;
+
+    private static final boolean ENABLED = isJfrAvailable();
+
+    private ParseEvents() {
+    }
+
+    /**
+     * Starts the timing of a parse.
+     *
+     * @return the event to pass to {@link #endParse(Object, long, long, int)}, null if no events are emitted.
+     */
+    public static Object beginParse() {
+        return ENABLED ? JfrParseEvents.beginParse() : null;
+    }
+
+    /**
+     * Ends the timing of a parse and emits its event, if it is enabled.
+     *
+     * @param parse the event returned by {@link #beginParse()}.
+     * @param bytes the number of bytes read.
+     * @param lines the number of lines read.
+     * @param diffs the number of diffs parsed.
+     */
+    public static void endParse(Object parse, long bytes, long lines, int diffs) {
+        if (parse != null) {
+            JfrParseEvents.endParse(parse, bytes, lines, diffs);
+        }
+    }
+
+    /**
+     * Emits the event of a parsed Diff, if it is enabled.
+     *
+     * @param diff       the parsed Diff.
+     * @param lineNumber the number of the line following the Diff.
+     */
+    public static void diffParsed(Diff diff, int lineNumber) {
+        if (ENABLED) {
+            JfrParseEvents.diffParsed(diff, lineNumber);
+        }
+    }
+
+    /**
+     * Emits the event of a lookahead, if it covered at least {@link #DEEP_LOOKAHEAD_LINES} lines and is enabled.
+     *
+     * @param lineNumber the number of the blank line that has been looked ahead of.
+     * @param lines      the number of lines that have been looked at.
+     */
+    public static void lookahead(int lineNumber, int lines) {
+        if (ENABLED && lines >= DEEP_LOOKAHEAD_LINES) {
+            JfrParseEvents.lookahead(lineNumber, lines);
+        }
+    }
+
+    /**
+     * Emits the event of an inserted blank line, if it is enabled.
+     *
+     * @param lineNumber the number of the line the blank line has been inserted in front of.
+     */
+    public static void virtualBlankLine(int lineNumber) {
+        if (ENABLED) {
+            JfrParseEvents.virtualBlankLine(lineNumber);
+        }
+    }
+
+    private static boolean isJfrAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("diffparser.jfr", "true"))) {
+            return false;
+        }
+        try {
+            Class.forName("jdk.jfr.Event", false, ParseEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
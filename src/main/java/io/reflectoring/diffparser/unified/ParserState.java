@@ -75,7 +75,7 @@ public enum ParserState {
                 logTransition(line, FROM_FILE, TO_FILE);
                 return TO_FILE;
             } else {
-                throw new IllegalStateException("A FROM_FILE line ('---') must be directly followed by a TO_FILE line ('+++')!");
+                return resynchronize(line, FROM_FILE);
             }
         }
     },
@@ -94,7 +94,7 @@ public enum ParserState {
                 logTransition(line, TO_FILE, HUNK_START);
                 return HUNK_START;
             } else {
-                throw new IllegalStateException("A TO_FILE line ('+++') must be directly followed by a HUNK_START line ('@@')!");
+                return resynchronize(line, TO_FILE);
             }
         }
     },
@@ -139,6 +139,9 @@ public enum ParserState {
             } else if (matchesToLinePattern(line)) {
                 logTransition(line, FROM_LINE, TO_LINE);
                 return TO_LINE;
+            } else if (matchesGitDiffStartPattern(line)) {
+                logTransition(line, FROM_LINE, HEADER);
+                return HEADER;
             } else if (matchesEndPattern(line, window)) {
                 logTransition(line, FROM_LINE, END);
                 return END;
@@ -169,6 +172,9 @@ public enum ParserState {
             } else if (matchesToLinePattern(line)) {
                 logTransition(line, TO_LINE, TO_LINE);
                 return TO_LINE;
+            } else if (matchesGitDiffStartPattern(line)) {
+                logTransition(line, TO_LINE, HEADER);
+                return HEADER;
             } else if (matchesEndPattern(line, window)) {
                 logTransition(line, TO_LINE, END);
                 return END;
@@ -196,6 +202,9 @@ public enum ParserState {
             } else if (matchesToLinePattern(line)) {
                 logTransition(line, NEUTRAL_LINE, TO_LINE);
                 return TO_LINE;
+            } else if (matchesGitDiffStartPattern(line)) {
+                logTransition(line, NEUTRAL_LINE, HEADER);
+                return HEADER;
             } else if (matchesEndPattern(line, window)) {
                 logTransition(line, NEUTRAL_LINE, END);
                 return END;
@@ -218,7 +227,20 @@ public enum ParserState {
         public ParserState nextState(ParseWindow window) {
             String line = window.getFocusLine();
             logTransition(line, END, INITIAL);
-            return INITIAL;
+            // the line after the delimiter is already the first line of the next diff
+            return INITIAL.nextState(window);
+        }
+    },
+
+    /**
+     * The parser is in this state if the structure of the input did not match the unified diff format. A FROM_FILE
+     * line must be followed by a TO_FILE line and a TO_FILE line by a HUNK_START line. The parser stays in this state
+     * until it can resynchronize at the start of the next diff.
+     */
+    MALFORMED {
+        @Override
+        public ParserState nextState(ParseWindow window) {
+            return resynchronize(window.getFocusLine(), MALFORMED);
         }
     };
 
@@ -234,7 +256,26 @@ public enum ParserState {
     public abstract ParserState nextState(ParseWindow window);
 
     protected void logTransition(String currentLine, ParserState fromState, ParserState toState) {
-        logger.debug(String.format("%12s -> %12s: %s", fromState, toState, currentLine));
+        // called for each line, so only format the message if it is logged
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%12s -> %12s: %s", fromState, toState, currentLine));
+        }
+    }
+
+    /**
+     * Continues with the line starting the next diff, if the given line is one, and with {@link #MALFORMED} otherwise.
+     */
+    protected ParserState resynchronize(String line, ParserState fromState) {
+        ParserState toState;
+        if (matchesFromFilePattern(line)) {
+            toState = FROM_FILE;
+        } else if (matchesGitDiffStartPattern(line)) {
+            toState = HEADER;
+        } else {
+            toState = MALFORMED;
+        }
+        logTransition(line, fromState, toState);
+        return toState;
     }
 
     protected boolean matchesFromFilePattern(String line) {
@@ -253,31 +294,64 @@ public enum ParserState {
         return line.startsWith("+");
     }
 
+    protected boolean matchesGitDiffStartPattern(String line) {
+        return GitHeaderParser.isDiffStartLine(line);
+    }
+
     protected boolean matchesHunkStartPattern(String line) {
-        return LINE_RANGE_PATTERN.matcher(line).matches();
+        // this is checked for each neutral line, so the pattern is only matched against lines containing the " +N"
+        // it requires, which avoids allocating a Matcher per line
+        return containsToRangeStart(line) && LINE_RANGE_PATTERN.matcher(line).matches();
+    }
+
+    /**
+     * Same as {@code line.trim().isEmpty()}, but without copying the lines that have leading or trailing whitespace,
+     * which are all neutral lines.
+     */
+    private static boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsToRangeStart(String line) {
+        int index = line.indexOf(" +");
+        while (index >= 0) {
+            if (index + 2 < line.length() && line.charAt(index + 2) >= '0' && line.charAt(index + 2) <= '9') {
+                return true;
+            }
+            index = line.indexOf(" +", index + 1);
+        }
+        return false;
     }
 
     protected boolean matchesEndPattern(String line, ParseWindow window) {
-        if ("".equals(line.trim())) {
+        if (isBlank(line)) {
             // We have a newline which might be the delimiter between two diffs. It may just be an empty line in the current diff or it
             // may be the delimiter to the next diff. This has to be disambiguated...
             int i = 1;
             String futureLine;
+            // We reach the end of the stream unless one of the following lines decides otherwise.
+            boolean end = true;
             while ((futureLine = window.getFutureLine(i)) != null) {
-                if (matchesFromFilePattern(futureLine)) {
+                if (matchesFromFilePattern(futureLine) || matchesGitDiffStartPattern(futureLine)) {
                     // We found the start of a new diff without another newline in between. That makes the current line the delimiter
                     // between this diff and the next.
-                    return true;
-                } else if ("".equals(futureLine.trim())) {
+                    break;
+                } else if (isBlank(futureLine)) {
                     // We found another newline after the current newline without a start of a new diff in between. That makes the
                     // current line just a newline within the current diff.
-                    return false;
+                    end = false;
+                    break;
                 } else {
                     i++;
                 }
             }
-            // We reached the end of the stream.
-            return true;
+            ParseEvents.lookahead(window.getFocusLineNumber(), i);
+            return end;
         } else {
             // some diff tools like "svn diff" do not put an empty line between two diffs
             // we add that empty line and call the method again
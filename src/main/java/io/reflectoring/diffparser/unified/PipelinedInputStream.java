@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2013-2015 Tom Hombergs (tom.hombergs@gmail.com | http://wickedsource.org)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.reflectoring.diffparser.unified;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link InputStream} that reads its source stream on a separate thread. The source is read in chunks which are
+ * handed over to the reading thread through a bounded queue, so that reading (and e.g. decompressing) the source
+ * overlaps with processing the data that has already been read.
+ * <p/>
+ * Chunks are recycled once they have been consumed. The background thread closes the source stream once it has been
+ * read completely or this stream has been closed.
+ */
+public class PipelinedInputStream extends InputStream {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private static final long HANDOFF_TIMEOUT_MILLIS = 100;
+
+    private static final Chunk END_OF_STREAM = new Chunk(new byte[0]);
+
+    private final BlockingQueue<Chunk> filledChunks;
+
+    private final BlockingQueue<Chunk> freeChunks;
+
+    private final int chunkSize;
+
+    private Chunk currentChunk;
+
+    private int position;
+
+    private boolean isEndOfStream = false;
+
+    private volatile boolean closed = false;
+
+    private volatile Throwable failure;
+
+    public PipelinedInputStream(InputStream source) {
+        this(source, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param source    the stream to read on a separate thread.
+     * @param chunkSize the number of bytes read from the source at once.
+     * @param capacity  the number of chunks that may be read ahead of the consumer.
+     */
+    public PipelinedInputStream(InputStream source, int chunkSize, int capacity) {
+        this.chunkSize = chunkSize;
+        this.filledChunks = new ArrayBlockingQueue<>(capacity);
+        this.freeChunks = new ArrayBlockingQueue<>(capacity + 1);
+        Thread producer = new Thread(new Producer(source), "diffparser-pipeline");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return currentChunk.bytes[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(len, currentChunk.length - position);
+        System.arraycopy(currentChunk.bytes, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return currentChunk == null ? 0 : currentChunk.length - position;
+    }
+
+    /**
+     * Makes sure that the current chunk has unread bytes by taking the next chunk from the queue, if necessary.
+     *
+     * @return false if the end of the source stream has been reached.
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (!isEndOfStream && (currentChunk == null || position >= currentChunk.length)) {
+            if (currentChunk != null) {
+                freeChunks.offer(currentChunk);
+                currentChunk = null;
+            }
+            Chunk next;
+            try {
+                next = filledChunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for input");
+            }
+            if (next == END_OF_STREAM) {
+                isEndOfStream = true;
+            } else {
+                currentChunk = next;
+                position = 0;
+            }
+        }
+        if (isEndOfStream && failure != null) {
+            throw new IOException("Failed to read input in the background", failure);
+        }
+        return !isEndOfStream;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        filledChunks.clear();
+    }
+
+    private static final class Chunk {
+
+        private final byte[] bytes;
+
+        private int length;
+
+        private Chunk(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final class Producer implements Runnable {
+
+        private final InputStream source;
+
+        private Producer(InputStream source) {
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int read = 0;
+                while (read >= 0 && !closed) {
+                    Chunk chunk = freeChunks.poll();
+                    if (chunk == null) {
+                        chunk = new Chunk(new byte[chunkSize]);
+                    }
+                    chunk.length = 0;
+                    while (chunk.length < chunkSize && (read = source.read(chunk.bytes, chunk.length, chunkSize - chunk.length)) >= 0) {
+                        chunk.length += read;
+                    }
+                    if (chunk.length > 0) {
+                        handOver(chunk);
+                    }
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                closeSource();
+                handOver(END_OF_STREAM);
+            }
+        }
+
+        private void closeSource() {
+            try {
+                source.close();
+            } catch (IOException e) {
+                // the data has already been read completely
+            }
+        }
+
+        /**
+         * Puts the chunk into the queue, giving up once the consumer has closed the stream.
+         */
+        private void handOver(Chunk chunk) {
+            try {
+                while (!closed && !filledChunks.offer(chunk, HANDOFF_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // the consumer is busy, wait for it to take the next chunk
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+        }
+    }
+
+}
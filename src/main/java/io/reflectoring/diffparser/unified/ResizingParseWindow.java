@@ -15,11 +15,14 @@
  */
 package io.reflectoring.diffparser.unified;
 
+import io.reflectoring.diffparser.api.ParseLimitExceededException;
+import io.reflectoring.diffparser.api.ParseLimits;
+
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -32,31 +35,79 @@ import java.util.regex.Pattern;
 @SuppressWarnings("UnusedDeclaration")
 public class ResizingParseWindow implements ParseWindow {
 
-    private BufferedReader reader;
+    private LineReader reader;
 
     private LinkedList<String> lineQueue = new LinkedList<>();
 
     private int lineNumber = 0;
 
-    private List<Pattern> ignorePatterns = new ArrayList<>();
+    private final List<String> ignorePatterns = new ArrayList<>();
+
+    // compiled from ignorePatterns before the first line is matched, null while out of date
+    private IgnorePatterns compiledIgnorePatterns;
+
+    private IgnorePatterns.LineMatcher ignoreMatcher;
 
     private boolean isEndOfStream = false;
 
+    private final ParseLimits limits;
+
+    private long totalLines = 0;
+
+    private long totalBytes = 0;
+
+    /**
+     * Creates a window on the given input stream which is decoded with the platform's default charset.
+     */
     public ResizingParseWindow(InputStream in) {
-        Reader unbufferedReader = new InputStreamReader(in);
-        this.reader = new BufferedReader(unbufferedReader);
+        this(in, Charset.defaultCharset());
+    }
+
+    /**
+     * Creates a window on the given input stream which is decoded with the given charset. For UTF-8, US-ASCII and
+     * ASCII-compatible single-byte charsets the input is split into lines before decoding, so that lines containing
+     * only ASCII characters don't need to be decoded at all.
+     */
+    public ResizingParseWindow(InputStream in, Charset charset) {
+        this(in, charset, new ParseLimits());
     }
 
+    /**
+     * Creates a window on the given input stream which is decoded with the given charset. Reading more input than
+     * allowed by the given limits causes a {@link ParseLimitExceededException}.
+     */
+    public ResizingParseWindow(InputStream in, Charset charset, ParseLimits limits) {
+        this.reader = LineReader.create(in, charset, limits.getMaxLineLength());
+        this.limits = limits;
+    }
+
+    /**
+     * Adds a regular expression for lines that are skipped. A line is skipped if the expression matches the whole
+     * line.
+     */
     public void addIgnorePattern(String ignorePattern) {
-        this.ignorePatterns.add(Pattern.compile(ignorePattern));
+        Pattern.compile(ignorePattern);
+        this.ignorePatterns.add(ignorePattern);
+        this.compiledIgnorePatterns = null;
+        this.ignoreMatcher = null;
+    }
+
+    /**
+     * Replaces the expressions for lines that are skipped by the given precompiled expressions. Expressions added
+     * afterwards are combined with these.
+     */
+    public void setIgnorePatterns(IgnorePatterns ignorePatterns) {
+        this.ignorePatterns.clear();
+        this.ignorePatterns.addAll(ignorePatterns.getRegexes());
+        this.compiledIgnorePatterns = ignorePatterns;
+        this.ignoreMatcher = null;
     }
 
     @Override
     public String getFutureLine(int distance) {
-        try {
-            resizeWindowIfNecessary(distance + 1);
+        if (resizeWindowIfNecessary(distance + 1)) {
             return lineQueue.get(distance);
-        } catch (IndexOutOfBoundsException e) {
+        } else {
             return null;
         }
     }
@@ -64,6 +115,9 @@ public class ResizingParseWindow implements ParseWindow {
     @Override
     public void addLine(int pos, String line) {
         lineQueue.add(pos, line);
+        if (line.isEmpty()) {
+            ParseEvents.virtualBlankLine(lineNumber + pos);
+        }
     }
 
     /**
@@ -71,18 +125,24 @@ public class ResizingParseWindow implements ParseWindow {
      *
      * @param newSize the new size of the window (i.e. the number of lines in the
      *                window).
+     * @return false if the end of the stream has been reached before the window reached the new size.
      */
-    private void resizeWindowIfNecessary(int newSize) {
+    private boolean resizeWindowIfNecessary(int newSize) {
         try {
             int numberOfLinesToLoad = newSize - this.lineQueue.size();
+            if (numberOfLinesToLoad > 0 && newSize - 1 > limits.getMaxLookaheadLines()) {
+                throw new ParseLimitExceededException(ParseLimitExceededException.Limit.LOOKAHEAD_LINES,
+                        limits.getMaxLookaheadLines(), totalLines + 1);
+            }
             for (int i = 0; i < numberOfLinesToLoad; i++) {
                 String nextLine = getNextLine();
                 if (nextLine != null) {
                     lineQueue.addLast(nextLine);
                 } else {
-                    throw new IndexOutOfBoundsException("End of stream has been reached!");
+                    return false;
                 }
             }
+            return true;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -107,15 +167,211 @@ public class ResizingParseWindow implements ParseWindow {
         }
     }
 
+    /**
+     * Skips the blocks of binary data following a {@code GIT binary patch} focus line. Each block starts with a
+     * {@code literal} or {@code delta} line and ends with a blank line. The blank line ending the last block is not
+     * skipped, so that the end of the diff can be detected as usual when sliding forward. Skipping stops early at a
+     * line starting a new diff in case the binary data is truncated. Lines that have not yet been read into the window
+     * are skipped without decoding them.
+     *
+     * @return the approximate number of bytes that have been skipped.
+     */
+    public long skipBinaryPatch() {
+        try {
+            long skipped = 0;
+            boolean inBlock = false;
+            while (true) {
+                if (lineQueue.size() > 1) {
+                    String line = lineQueue.get(1);
+                    if (isDiffStart(line)) {
+                        return skipped;
+                    }
+                    if (line.isEmpty()) {
+                        // only a blank line followed by another block belongs to the binary data
+                        if (!inBlock || !nextBlockFollowsBlankLine()) {
+                            return skipped;
+                        }
+                        inBlock = false;
+                    } else if (!inBlock) {
+                        if (!GitHeaderParser.isBinaryBlockStart(line)) {
+                            return skipped;
+                        }
+                        inBlock = true;
+                    }
+                    skipped += skipQueuedLine();
+                } else {
+                    int firstChar = isEndOfStream ? -1 : reader.peekFirstChar();
+                    if (firstChar < 0) {
+                        return skipped;
+                    }
+                    if (firstChar == '\n' || firstChar == '\r') {
+                        // read the blank line into the window to look at the line following it
+                        lineQueue.addLast(readLine());
+                        continue;
+                    }
+                    if (nextLineStartsDiff()) {
+                        return skipped;
+                    }
+                    if (!inBlock) {
+                        if (!reader.nextLineStartsWith(GitHeaderParser.BINARY_LITERAL)
+                                && !reader.nextLineStartsWith(GitHeaderParser.BINARY_DELTA)) {
+                            return skipped;
+                        }
+                        inBlock = true;
+                    }
+                    long size = reader.skipLine();
+                    if (size < 0) {
+                        return skipped;
+                    }
+                    countLine();
+                    skipped += size;
+                    lineNumber++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Skips the lines of a hunk following the focus line, based on the number of lines the hunk spans in the "from"
+     * and "to" file. The last line of the hunk is not skipped, so that the end of the hunk can be detected as usual
+     * when sliding forward. Skipping stops early at a line starting a new hunk or diff in case the line counts don't
+     * match the content.
+     *
+     * @param fromLines the number of lines of the hunk in the "from" file that have not been read yet.
+     * @param toLines   the number of lines of the hunk in the "to" file that have not been read yet.
+     * @return the approximate number of bytes that have been skipped.
+     */
+    public long skipHunkLines(int fromLines, int toLines) {
+        try {
+            long skipped = 0;
+            int remainingFromLines = fromLines;
+            int remainingToLines = toLines;
+            while (true) {
+                int firstChar = peekFirstCharAfterFocus();
+                if (firstChar < 0) {
+                    return skipped;
+                }
+                if ((firstChar == '@' || firstChar == 'd') && startsNewSectionAfterFocus()) {
+                    return skipped;
+                }
+                switch (firstChar) {
+                    case '-':
+                        remainingFromLines--;
+                        break;
+                    case '+':
+                        remainingToLines--;
+                        break;
+                    case '\\':
+                        // "\ No newline at end of file" does not count as a line
+                        break;
+                    default:
+                        remainingFromLines--;
+                        remainingToLines--;
+                }
+                if (remainingFromLines <= 0 && remainingToLines <= 0) {
+                    return skipped;
+                }
+                if (lineQueue.size() > 1) {
+                    skipped += skipQueuedLine();
+                } else {
+                    long size = reader.skipLine();
+                    countLine();
+                    skipped += size;
+                    lineNumber++;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int peekFirstCharAfterFocus() throws IOException {
+        if (lineQueue.size() > 1) {
+            String line = lineQueue.get(1);
+            return line.isEmpty() ? '\n' : line.charAt(0);
+        } else if (isEndOfStream) {
+            return -1;
+        } else {
+            return reader.peekFirstChar();
+        }
+    }
+
+    private boolean startsNewSectionAfterFocus() throws IOException {
+        if (lineQueue.size() > 1) {
+            String line = lineQueue.get(1);
+            return line.startsWith("@@") || GitHeaderParser.isDiffStartLine(line);
+        } else {
+            return reader.nextLineStartsWith("@@") || reader.nextLineStartsWith(GitHeaderParser.DIFF_GIT)
+                    || reader.nextLineStartsWith(GitHeaderParser.DIFF_CC)
+                    || reader.nextLineStartsWith(GitHeaderParser.DIFF_COMBINED);
+        }
+    }
+
+    private boolean isDiffStart(String line) {
+        return GitHeaderParser.isDiffStartLine(line) || line.startsWith("--- ");
+    }
+
+    private boolean nextLineStartsDiff() throws IOException {
+        return reader.nextLineStartsWith(GitHeaderParser.DIFF_GIT) || reader.nextLineStartsWith(GitHeaderParser.DIFF_CC)
+                || reader.nextLineStartsWith(GitHeaderParser.DIFF_COMBINED) || reader.nextLineStartsWith("--- ");
+    }
+
+    /**
+     * Checks if the line following the blank line right after the focus line starts another block of binary data.
+     */
+    private boolean nextBlockFollowsBlankLine() throws IOException {
+        if (lineQueue.size() > 2) {
+            return GitHeaderParser.isBinaryBlockStart(lineQueue.get(2));
+        }
+        return !isEndOfStream && (reader.nextLineStartsWith(GitHeaderParser.BINARY_LITERAL)
+                || reader.nextLineStartsWith(GitHeaderParser.BINARY_DELTA));
+    }
+
+    private long skipQueuedLine() {
+        String line = lineQueue.remove(1);
+        lineNumber++;
+        return line.length() + 1;
+    }
+
     private String getNextLine() throws IOException {
-        String nextLine = reader.readLine();
+        String nextLine = readLine();
         while (matchesIgnorePattern(nextLine)) {
-            nextLine = reader.readLine();
+            nextLine = readLine();
         }
 
         return getNextLineOrVirtualBlankLineAtEndOfStream(nextLine);
     }
 
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            countLine();
+        } else {
+            // the line feed of a final "\r\n" is only consumed when looking for the next line
+            countBytes();
+        }
+        return line;
+    }
+
+    private void countLine() {
+        totalLines++;
+        if (totalLines > limits.getMaxTotalLines()) {
+            throw new ParseLimitExceededException(ParseLimitExceededException.Limit.TOTAL_LINES,
+                    limits.getMaxTotalLines(), totalLines);
+        }
+        countBytes();
+    }
+
+    private void countBytes() {
+        totalBytes = reader.getConsumedSize();
+        if (totalBytes > limits.getMaxTotalBytes()) {
+            throw new ParseLimitExceededException(ParseLimitExceededException.Limit.TOTAL_BYTES,
+                    limits.getMaxTotalBytes(), totalLines);
+        }
+    }
+
     /**
      * Guarantees that a virtual blank line is injected at the end of the input
      * stream to ensure the parser attempts to transition to the {@code END}
@@ -131,17 +387,31 @@ public class ResizingParseWindow implements ParseWindow {
     }
 
     private boolean matchesIgnorePattern(String line) {
-        if (line == null) {
+        if (line == null || ignorePatterns.isEmpty()) {
             return false;
-        } else {
-            for (Pattern pattern : ignorePatterns) {
-                Matcher matcher = pattern.matcher(line);
-                if (matcher.matches()) {
-                    return true;
-                }
+        }
+        if (ignoreMatcher == null) {
+            if (compiledIgnorePatterns == null) {
+                compiledIgnorePatterns = new IgnorePatterns(ignorePatterns);
             }
-            return false;
+            ignoreMatcher = compiledIgnorePatterns.matcher();
         }
+        return ignoreMatcher.matches(line);
+    }
+
+    /**
+     * Returns the number of lines read from the input stream so far, including the lines looked ahead at.
+     */
+    public long getTotalLines() {
+        return totalLines;
+    }
+
+    /**
+     * Returns the size of the lines read from the input stream so far, including the lines looked ahead at. The size
+     * is measured as described for {@link ParseLimits#getMaxTotalBytes()}.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
     }
 
     @Override
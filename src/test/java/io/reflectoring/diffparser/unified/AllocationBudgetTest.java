@@ -0,0 +1,155 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import junit.framework.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Guards the parser against allocation regressions like a new {@link java.util.regex.Matcher} or formatted String per
+ * line. Measures the bytes the parsing thread allocates per input line with the allocation counter of the
+ * {@link com.sun.management.ThreadMXBean} and fails if they exceed the budget of the parse mode. The tests are skipped
+ * on JVMs without the counter.
+ * <p/>
+ * The budgets are about 12% above the values measured on Java 8 (320, 293, 317 and 134 bytes per line), which
+ * allocates more than later versions storing Latin-1 Strings in one byte per character. They fail on a new object per
+ * line, but not on small changes of the model. The streaming mode reads from a stream in small chunks and drops all context lines, the stats-only
+ * mode skips the lines of all hunks and only keeps their ranges.
+ */
+public class AllocationBudgetTest {
+
+    private static final int WARMUP_ITERATIONS = 5;
+
+    private static final int MEASURED_ITERATIONS = 5;
+
+    private final String gitPatch = SyntheticPatches.gitPatch(2000, 5, 42);
+
+    private final String svnPatch = svnPatch(2000);
+
+    @Test
+    public void testFullParse() throws Exception {
+        assertBudget("full parse (git)", gitPatch, 360, new Parse() {
+            @Override
+            public void parse(byte[] patch) {
+                new UnifiedDiffParser().parse(patch);
+            }
+        });
+        assertBudget("full parse (svn)", svnPatch, 330, new Parse() {
+            @Override
+            public void parse(byte[] patch) {
+                new UnifiedDiffParser().parse(patch);
+            }
+        });
+    }
+
+    @Test
+    public void testStreamingParse() throws Exception {
+        assertBudget("streaming parse", gitPatch, 360, new Parse() {
+            @Override
+            public void parse(byte[] patch) {
+                UnifiedDiffParser parser = new UnifiedDiffParser();
+                parser.setMaxContextLines(0);
+                parser.parse(new ChunkedInputStream(new ByteArrayInputStream(patch)));
+            }
+        });
+    }
+
+    @Test
+    public void testStatsOnlyParse() throws Exception {
+        assertBudget("stats-only parse", gitPatch, 150, new Parse() {
+            @Override
+            public void parse(byte[] patch) {
+                UnifiedDiffParser parser = new UnifiedDiffParser();
+                parser.setMaxHunkLines(0);
+                parser.parse(patch);
+            }
+        });
+    }
+
+    private void assertBudget(String name, String patch, double bytesPerLineBudget, Parse parse) throws Exception {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("the JVM does not count allocated bytes per thread");
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+            throw new SkipException("counting allocated bytes per thread is not supported or disabled");
+        }
+        byte[] bytes = patch.getBytes(StandardCharsets.UTF_8);
+        int lines = countLines(patch);
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            parse.parse(bytes);
+        }
+        // the minimum hides allocations of the JIT compiler and the class loader running on the same thread
+        long minAllocated = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            parse.parse(bytes);
+            minAllocated = Math.min(minAllocated, allocations.getThreadAllocatedBytes(threadId) - before);
+        }
+        double bytesPerLine = (double) minAllocated / lines;
+        Assert.assertTrue(String.format("%s allocates %.1f bytes per line, the budget is %.0f", name, bytesPerLine,
+                bytesPerLineBudget), bytesPerLine <= bytesPerLineBudget);
+    }
+
+    private static int countLines(String patch) {
+        int lines = 0;
+        for (int i = 0; i < patch.length(); i++) {
+            if (patch.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Creates a patch in the format of {@code svn diff}, without blank lines between the diffs.
+     */
+    private static String svnPatch(int files) {
+        StringBuilder patch = new StringBuilder();
+        for (int i = 0; i < files; i++) {
+            patch.append("Index: src/File").append(i).append(".java\n")
+                    .append("===================================================================\n")
+                    .append("--- src/File").append(i).append(".java\t(revision 3)\n")
+                    .append("+++ src/File").append(i).append(".java\t(working copy)\n")
+                    .append("@@ -10,7 +10,7 @@\n")
+                    .append("     public void method").append(i).append("() {\n")
+                    .append("         int a = 1;\n")
+                    .append("         int b = 2;\n")
+                    .append("-        return a + b;\n")
+                    .append("+        return a * b;\n")
+                    .append("     }\n")
+                    .append(" \n")
+                    .append(" }\n");
+        }
+        return patch.toString();
+    }
+
+    private interface Parse {
+        void parse(byte[] patch) throws Exception;
+    }
+
+    /**
+     * Returns at most 4 KB per read, like a socket.
+     */
+    private static final class ChunkedInputStream extends FilterInputStream {
+
+        private ChunkedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 4096));
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.reflectoring.diffparser.unified;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal timing harness for the tests in the "benchmark" group. These are excluded from the regular test run and
+ * can be run with {@code ./gradlew benchmark}.
+ */
+final class Benchmarks {
+
+    private static final Logger logger = LoggerFactory.getLogger(Benchmarks.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs the task repeatedly and logs its throughput.
+     *
+     * @param name  the name of the benchmark.
+     * @param bytes the number of bytes the task processes in one run.
+     * @param task  the task to measure.
+     * @return the throughput in MB/s.
+     */
+    static double measureThroughput(String name, long bytes, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            task.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytesPerSecond = bytes * MEASURED_ITERATIONS / seconds / (1024 * 1024);
+        logger.info(String.format("%-50s %10.1f MB/s", name, megabytesPerSecond));
+        return megabytesPerSecond;
+    }
+
+    /**
+     * Runs the task repeatedly and logs the average time of a run.
+     *
+     * @param name the name of the benchmark.
+     * @param task the task to measure.
+     * @return the average time of a run in milliseconds.
+     */
+    static double measureTime(String name, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            task.run();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / MEASURED_ITERATIONS;
+        logger.info(String.format("%-50s %10.2f ms", name, millis));
+        return millis;
+    }
+
+    /**
+     * Runs a full garbage collection and returns the heap memory that is still used afterwards.
+     *
+     * @return the used heap in bytes.
+     */
+    static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Measures the time of a full garbage collection with everything that is currently referenced being alive.
+     *
+     * @return the time the garbage collectors reported for the collection in milliseconds.
+     */
+    static long fullGcMillis() {
+        long before = totalGcMillis();
+        System.gc();
+        return totalGcMillis() - before;
+    }
+
+    /**
+     * Logs a measured value.
+     */
+    static void report(String name, double value, String unit) {
+        logger.info(String.format("%-50s %10.1f %s", name, value, unit));
+    }
+
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,76 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares splitting source code patches into lines with the ASCII fast path against decoding them with a
+ * {@link java.io.BufferedReader}, for patches of short source code lines and of long generated lines.
+ */
+@Test(groups = "benchmark")
+public class CharsetDecodingBenchmark {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(2000, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    public void benchmarkLineReaders() throws Exception {
+        measureLineReaders("", patch);
+        StringBuilder longLines = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longLines.append('+');
+            for (int j = 0; j < 100; j++) {
+                longLines.append("var x").append(j).append("=").append(i).append(';');
+            }
+            longLines.append('\n');
+        }
+        measureLineReaders(", long lines", longLines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void measureLineReaders(String name, final byte[] input) throws Exception {
+        Benchmarks.measureThroughput("DecodingLineReader (UTF-8" + name + ")", input.length, new Benchmarks.Task() {
+            @Override
+            public void run() throws Exception {
+                readAllLines(new DecodingLineReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8));
+            }
+        });
+        Benchmarks.measureThroughput("ByteLineReader (UTF-8" + name + ")", input.length, new Benchmarks.Task() {
+            @Override
+            public void run() throws Exception {
+                readAllLines(new ByteLineReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8));
+            }
+        });
+        Benchmarks.measureThroughput("ByteLineReader, skipping (UTF-8" + name + ")", input.length,
+                new Benchmarks.Task() {
+                    @Override
+                    public void run() throws Exception {
+                        LineReader reader = new ByteLineReader(new ByteArrayInputStream(input),
+                                StandardCharsets.UTF_8);
+                        while (reader.skipLine() >= 0) {
+                            // only the line ends are searched
+                        }
+                    }
+                });
+    }
+
+    public void benchmarkParse() throws Exception {
+        final UnifiedDiffParser utf8Parser = new UnifiedDiffParser();
+        utf8Parser.setCharset(StandardCharsets.UTF_8);
+
+        Benchmarks.measureThroughput("UnifiedDiffParser (UTF-8, ASCII fast path)", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() {
+                utf8Parser.parse(patch);
+            }
+        });
+    }
+
+    private int readAllLines(LineReader reader) throws Exception {
+        int count = 0;
+        while (reader.readLine() != null) {
+            count++;
+        }
+        return count;
+    }
+}
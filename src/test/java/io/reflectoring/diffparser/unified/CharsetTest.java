@@ -0,0 +1,126 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests decoding the input of the DiffParser with different charsets.
+ */
+public class CharsetTest {
+
+    private static final String DIFF = ""
+            + "--- from\n"
+            + "+++ to\n"
+            + "@@ -1,2 +1,2 @@\n"
+            + " ascii\n"
+            + "-gr\u00fc\u00dfe\n"
+            + "+\u20ac 100\n";
+
+    @Test
+    public void testParse_Utf8() throws Exception {
+        assertDecoded(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testParse_Utf16UsesDecodingReader() throws Exception {
+        assertDecoded(StandardCharsets.UTF_16);
+    }
+
+    @Test
+    public void testParse_SingleByteCharset() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(StandardCharsets.ISO_8859_1);
+        String diff = DIFF.replace("\u20ac", "EUR");
+
+        // when
+        List<Diff> diffs = parser.parse(diff.getBytes(StandardCharsets.ISO_8859_1));
+
+        // then
+        List<Line> lines = diffs.get(0).getHunks().get(0).getLines();
+        Assert.assertEquals("gr\u00fc\u00dfe", lines.get(1).getContent());
+        Assert.assertEquals("EUR 100", lines.get(2).getContent());
+    }
+
+    @Test
+    public void testByteLineReader_SupportedCharsets() throws Exception {
+        Assert.assertTrue(ByteLineReader.supports(StandardCharsets.UTF_8));
+        Assert.assertTrue(ByteLineReader.supports(StandardCharsets.US_ASCII));
+        Assert.assertTrue(ByteLineReader.supports(Charset.forName("windows-1252")));
+        Assert.assertFalse(ByteLineReader.supports(StandardCharsets.UTF_16));
+        Assert.assertFalse(ByteLineReader.supports(StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    public void testByteLineReader_LineTerminatorsAndBufferBoundaries() throws Exception {
+        // given
+        String input = "first\r\nsecond\rthird\n\nl\u00e4nger than the buffer\r";
+        ByteLineReader reader = new ByteLineReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, 4);
+
+        // when / then
+        Assert.assertEquals("first", reader.readLine());
+        Assert.assertEquals("second", reader.readLine());
+        Assert.assertEquals("third", reader.readLine());
+        Assert.assertEquals("", reader.readLine());
+        Assert.assertEquals("l\u00e4nger than the buffer", reader.readLine());
+        Assert.assertNull(reader.readLine());
+    }
+
+    @Test
+    public void testByteLineReader_SameLinesAsDecodingReader() throws Exception {
+        // lines of all lengths, so that line breaks and non-ASCII bytes appear at each offset of the 8-byte words
+        String[] parts = {"a", "+", " ", "\u00e4", "\u20ac", "\n", "\r", "\r\n", "@@"};
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            // given
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(80);
+            for (int j = 0; j < length; j++) {
+                input.append(parts[random.nextInt(parts.length)]);
+            }
+            byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+            LineReader expected = new DecodingLineReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+            LineReader actual = new ByteLineReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8,
+                    1 + random.nextInt(32));
+
+            // when / then
+            String line;
+            do {
+                if (random.nextInt(4) == 0) {
+                    long skipped = expected.skipLine();
+                    Assert.assertEquals(skipped < 0, actual.skipLine() < 0);
+                    line = skipped < 0 ? null : "";
+                } else {
+                    line = expected.readLine();
+                    Assert.assertEquals(line, actual.readLine());
+                }
+            } while (line != null);
+        }
+    }
+
+    private void assertDecoded(Charset charset) {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(charset);
+
+        // when
+        List<Diff> diffs = parser.parse(DIFF.getBytes(charset));
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        List<Line> lines = diffs.get(0).getHunks().get(0).getLines();
+        Assert.assertEquals(" ascii", lines.get(0).getContent());
+        Assert.assertEquals("gr\u00fc\u00dfe", lines.get(1).getContent());
+        Assert.assertEquals("\u20ac 100", lines.get(2).getContent());
+    }
+}
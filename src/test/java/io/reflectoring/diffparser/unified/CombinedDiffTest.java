@@ -0,0 +1,201 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.PatternScanner;
+import io.reflectoring.diffparser.api.analysis.ScanListener;
+import io.reflectoring.diffparser.api.analysis.ScanMatch;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests parsing the combined diffs of merge commits, as created by "git diff --cc".
+ */
+public class CombinedDiffTest {
+
+    private static final String DIFF = ""
+            + "diff --cc describe.c\n"
+            + "index fabadb8,cc95eb0..4866510\n"
+            + "--- a/describe.c\n"
+            + "+++ b/describe.c\n"
+            + "@@@ -98,6 -98,4 +98,6 @@@\n"
+            + "  }\n"
+            + "  /* describe */\n"
+            + "- static void describe(char *arg)\n"
+            + " -static void describe(struct commit *cmit, int last_one)\n"
+            + "++static void describe(char *arg, int last_one)\n"
+            + "  {\n"
+            + " +\tunsigned char sha1[20];\n"
+            + " +\tstruct commit *cmit;\n"
+            + "diff --cc README\n"
+            + "index 1111111,2222222,3333333..4444444\n"
+            + "--- a/README\n"
+            + "+++ b/README\n"
+            + "@@@@ -1,1 -1,1 -1,2 +1,2 @@@@\n"
+            + "   title\n"
+            + "++ merged\n";
+
+    @Test
+    public void testParse_CombinedDiff() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+
+        // when
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        Diff diff = diffs.get(0);
+        Assert.assertTrue(diff.isCombined());
+        Assert.assertEquals("a/describe.c", diff.getFromFileName());
+        Assert.assertEquals("b/describe.c", diff.getToFileName());
+        Assert.assertEquals(1, diff.getHunks().size());
+        Assert.assertNull(diff.getFromBlobId());
+        Assert.assertEquals(Arrays.asList("fabadb8", "cc95eb0"), diff.getFromBlobIds());
+        Assert.assertEquals("4866510", diff.getToBlobId());
+
+        Hunk hunk = diff.getLatestHunk();
+        Assert.assertEquals(2, hunk.getParentCount());
+        Assert.assertEquals(98, hunk.getFromFileRange().getLineStart());
+        Assert.assertEquals(6, hunk.getFromFileRanges().get(0).getLineCount());
+        Assert.assertEquals(4, hunk.getFromFileRanges().get(1).getLineCount());
+        Assert.assertEquals(6, hunk.getToFileRange().getLineCount());
+
+        List<Line> lines = hunk.getLines();
+        Assert.assertEquals(8, lines.size());
+        assertLine(lines.get(0), Line.LineType.NEUTRAL, " }");
+        assertLine(lines.get(2), Line.LineType.FROM, "static void describe(char *arg)");
+        assertLine(lines.get(3), Line.LineType.FROM, "static void describe(struct commit *cmit, int last_one)");
+        assertLine(lines.get(4), Line.LineType.TO, "static void describe(char *arg, int last_one)");
+        assertLine(lines.get(5), Line.LineType.NEUTRAL, " {");
+        assertLine(lines.get(6), Line.LineType.TO, "\tunsigned char sha1[20];");
+
+        assertParents(hunk, 0, true, true);
+        assertParents(hunk, 2, true, false);
+        assertParents(hunk, 3, false, true);
+        assertParents(hunk, 4, false, false);
+        assertParents(hunk, 6, true, false);
+    }
+
+    @Test
+    public void testParse_CombinedDiffWithThreeParents() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+
+        // when
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Diff diff = diffs.get(1);
+        Assert.assertTrue(diff.isCombined());
+        Assert.assertEquals("a/README", diff.getFromFileName());
+        Assert.assertEquals(Arrays.asList("1111111", "2222222", "3333333"), diff.getFromBlobIds());
+        Hunk hunk = diff.getLatestHunk();
+        Assert.assertEquals(3, hunk.getParentCount());
+        Assert.assertEquals(2, hunk.getFromFileRanges().get(2).getLineCount());
+        Assert.assertEquals(2, hunk.getLines().size());
+        assertLine(hunk.getLines().get(1), Line.LineType.TO, "merged");
+        assertParents(hunk, 0, true, true, true);
+        assertParents(hunk, 1, false, false, true);
+    }
+
+    @Test
+    public void testParse_CombinedHeaderLines() throws Exception {
+        // given
+        String diff = ""
+                + "diff --cc run.sh\n"
+                + "index 1111111,2222222..3333333\n"
+                + "mode 100644,100755..100755\n"
+                + "--- a/run.sh\n"
+                + "+++ b/run.sh\n"
+                + "@@@ -1,1 -1,1 +1,1 @@@\n"
+                + "  echo\n"
+                + "diff --cc gone.txt\n"
+                + "deleted file mode 100644,100644\n"
+                + "index 4444444,5555555..0000000\n";
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+
+        // when
+        List<Diff> diffs = parser.parse(diff.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Diff modes = diffs.get(0);
+        Assert.assertNull(modes.getFromBlobId());
+        Assert.assertEquals(Arrays.asList("1111111", "2222222"), modes.getFromBlobIds());
+        Assert.assertEquals("3333333", modes.getToBlobId());
+        Assert.assertNull(modes.getFromFileMode());
+        Assert.assertEquals(Arrays.asList(0100644, 0100755), modes.getFromFileModes());
+        Assert.assertEquals(Integer.valueOf(0100755), modes.getToFileMode());
+
+        Diff deleted = diffs.get(1);
+        Assert.assertEquals(Diff.ChangeType.DELETED, deleted.getChangeType());
+        Assert.assertEquals(Arrays.asList("4444444", "5555555"), deleted.getFromBlobIds());
+        Assert.assertEquals(Arrays.asList(0100644, 0100644), deleted.getFromFileModes());
+        Assert.assertNull(deleted.getToFileMode());
+    }
+
+    @Test
+    public void testParse_TwoWayDiffHasOneParent() throws Exception {
+        // given
+        String diff = ""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + " same\n"
+                + "-old\n"
+                + "+new\n";
+
+        // when
+        Diff parsed = new UnifiedDiffParser().parse(diff.getBytes(StandardCharsets.UTF_8)).get(0);
+
+        // then
+        Assert.assertFalse(parsed.isCombined());
+        Hunk hunk = parsed.getLatestHunk();
+        Assert.assertEquals(1, hunk.getParentCount());
+        Assert.assertEquals(1, hunk.getFromFileRanges().size());
+        Assert.assertNull(hunk.getParentLines());
+        assertParents(hunk, 0, true);
+        assertParents(hunk, 1, true);
+        assertParents(hunk, 2, false);
+    }
+
+    @Test
+    public void testParse_ScansAddedLinesOfCombinedDiff() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        final List<ScanMatch> matches = new ArrayList<>();
+        parser.setScanner(new PatternScanner.Builder().addLiteral("cmit", "cmit").build(), new ScanListener() {
+            @Override
+            public void onMatch(ScanMatch match) {
+                matches.add(match);
+            }
+        });
+
+        // when
+        parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals(103, matches.get(0).getLineNumber());
+        Assert.assertEquals("\tstruct commit *cmit;", matches.get(0).getContent().toString());
+    }
+
+    private void assertLine(Line line, Line.LineType lineType, String content) {
+        Assert.assertEquals(lineType, line.getLineType());
+        Assert.assertEquals(content, line.getContent());
+    }
+
+    private void assertParents(Hunk hunk, int lineIndex, boolean... inParent) {
+        for (int parent = 0; parent < inParent.length; parent++) {
+            Assert.assertEquals(inParent[parent], hunk.isLineInParent(lineIndex, parent));
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests the DiffParser with compressed input.
+ */
+public class CompressedInputTest {
+
+    @Test
+    public void testParse_GzipInput() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(compressed);
+        out.write(readFixture("tortoise.diff"));
+        out.close();
+
+        // when
+        List<Diff> diffs = parser.parse(compressed.toByteArray());
+
+        // then
+        assertTortoiseDiffs(diffs);
+    }
+
+    @Test
+    public void testParse_ZlibInputWithoutPipelining() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setPipelinedDecompression(false);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream out = new DeflaterOutputStream(compressed);
+        out.write(readFixture("tortoise.diff"));
+        out.close();
+
+        // when
+        List<Diff> diffs = parser.parse(compressed.toByteArray());
+
+        // then
+        assertTortoiseDiffs(diffs);
+    }
+
+    @Test
+    public void testParse_GzipInputIsNotClosed() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream out = new GZIPOutputStream(compressed);
+        out.write(readFixture("tortoise.diff"));
+        out.close();
+        final boolean[] closed = {false};
+        InputStream in = new ByteArrayInputStream(compressed.toByteArray()) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        // when
+        List<Diff> diffs = parser.parse(in);
+
+        // then
+        assertTortoiseDiffs(diffs);
+        Assert.assertFalse(closed[0]);
+    }
+
+    @Test
+    public void testParse_InputWithoutMarkSupportIsNotClosed() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        final boolean[] closed = {false};
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(readFixture("tortoise.diff"))) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        // when
+        List<Diff> diffs = parser.parse(in);
+
+        // then
+        assertTortoiseDiffs(diffs);
+        Assert.assertFalse(closed[0]);
+    }
+
+    @Test
+    public void testParse_TextStartingLikeZlibHeader() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        String diff = "x^2 is computed by square()\n"
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1 +1 @@\n"
+                + "-a\n"
+                + "+b\n";
+
+        // when
+        List<Diff> diffs = parser.parse(diff.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        Assert.assertEquals("a/file.txt", diffs.get(0).getFromFileName());
+        Assert.assertEquals(2, diffs.get(0).getLatestHunk().getLines().size());
+    }
+
+    @Test
+    public void testParse_DetectionDisabled() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setDetectCompressedInput(false);
+
+        // when
+        List<Diff> diffs = parser.parse(readFixture("tortoise.diff"));
+
+        // then
+        assertTortoiseDiffs(diffs);
+    }
+
+    private void assertTortoiseDiffs(List<Diff> diffs) {
+        Assert.assertEquals(2, diffs.size());
+        Assert.assertEquals("/trunk/test1 - Kopie (2).txt", diffs.get(0).getFromFileName());
+        Assert.assertEquals(2, diffs.get(0).getHunks().size());
+        Assert.assertEquals("/trunk/test1.txt", diffs.get(1).getToFileName());
+    }
+
+    private byte[] readFixture(String name) throws IOException {
+        InputStream in = getClass().getResourceAsStream(name);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,123 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests reducing the context lines of parsed Hunks with {@link UnifiedDiffParser#setMaxContextLines(int)}.
+ */
+public class ContextTrimmingTest {
+
+    @Test
+    public void testParse_HunkIsSplit() throws Exception {
+        // given
+        String diff = ""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,9 +1,9 @@\n"
+                + " one\n"
+                + " two\n"
+                + "-three\n"
+                + "+3\n"
+                + " four\n"
+                + " five\n"
+                + " six\n"
+                + " seven\n"
+                + "-eight\n"
+                + "+8\n"
+                + " nine\n"
+                + "\\ No newline at end of file\n";
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setMaxContextLines(1);
+
+        // when
+        List<Hunk> hunks = parser.parse(diff.getBytes(StandardCharsets.UTF_8)).get(0).getHunks();
+
+        // then
+        Assert.assertEquals(2, hunks.size());
+        assertRanges(hunks.get(0), 2, 3, 2, 3);
+        Assert.assertEquals(" two", hunks.get(0).getLines().get(0).getContent());
+        Assert.assertEquals(" four", hunks.get(0).getLines().get(3).getContent());
+        assertRanges(hunks.get(1), 7, 3, 7, 3);
+        Assert.assertEquals(5, hunks.get(1).getLines().size());
+        Assert.assertEquals("\\ No newline at end of file", hunks.get(1).getLines().get(4).getContent());
+    }
+
+    @Test
+    public void testParse_HunkWithoutChangesIsDropped() throws Exception {
+        // given
+        String diff = ""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + " one\n"
+                + " two\n"
+                + "@@ -10,1 +10,1 @@\n"
+                + "-ten\n"
+                + "+10\n";
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setMaxContextLines(3);
+
+        // when
+        List<Hunk> hunks = parser.parse(diff.getBytes(StandardCharsets.UTF_8)).get(0).getHunks();
+
+        // then
+        Assert.assertEquals(1, hunks.size());
+        assertRanges(hunks.get(0), 10, 1, 10, 1);
+    }
+
+    @Test
+    public void testParse_SameAsDiffWithLessContext() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            // given
+            List<String> from = SyntheticPatches.randomFile(random.nextInt(80), random);
+            List<String> to = SyntheticPatches.randomEdit(from, 1 + random.nextInt(6), random);
+            int context = random.nextInt(4);
+            String fullContext = SyntheticPatches.unifiedDiff("file.txt", from, to, 1000);
+            if (fullContext.indexOf("@@") < 0) {
+                continue;
+            }
+            UnifiedDiffParser parser = new UnifiedDiffParser();
+            parser.setMaxContextLines(context);
+
+            // when
+            Diff trimmed = parser.parse(fullContext.getBytes(StandardCharsets.UTF_8)).get(0);
+
+            // then
+            String expectedText = SyntheticPatches.unifiedDiff("file.txt", from, to, context);
+            Diff expected = new UnifiedDiffParser().parse(expectedText.getBytes(StandardCharsets.UTF_8)).get(0);
+            Assert.assertEquals(expected.getHunks().size(), trimmed.getHunks().size());
+            for (int h = 0; h < expected.getHunks().size(); h++) {
+                Hunk expectedHunk = expected.getHunks().get(h);
+                Hunk trimmedHunk = trimmed.getHunks().get(h);
+                assertRanges(trimmedHunk, expectedHunk.getFromFileRange().getLineStart(),
+                        expectedHunk.getFromFileRange().getLineCount(), expectedHunk.getToFileRange().getLineStart(),
+                        expectedHunk.getToFileRange().getLineCount());
+                Assert.assertEquals(expectedHunk.getLines().size(), trimmedHunk.getLines().size());
+                for (int l = 0; l < expectedHunk.getLines().size(); l++) {
+                    Line expectedLine = expectedHunk.getLines().get(l);
+                    Line trimmedLine = trimmedHunk.getLines().get(l);
+                    Assert.assertEquals(expectedLine.getLineType(), trimmedLine.getLineType());
+                    Assert.assertEquals(expectedLine.getContent(), trimmedLine.getContent());
+                }
+            }
+        }
+    }
+
+    private void assertRanges(Hunk hunk, int fromStart, int fromCount, int toStart, int toCount) {
+        Assert.assertEquals(fromStart, hunk.getFromFileRange().getLineStart());
+        Assert.assertEquals(fromCount, hunk.getFromFileRange().getLineCount());
+        Assert.assertEquals(toStart, hunk.getToFileRange().getLineStart());
+        Assert.assertEquals(toCount, hunk.getToFileRange().getLineCount());
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.DiffGenerator;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.UnifiedDiffWriter;
+import io.reflectoring.diffparser.api.model.Diff;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the {@link DiffGenerator} on large files with scattered and with dense edits, against diffing small files
+ * with a longest common subsequence table and against writing the generated Diff as text and parsing it again.
+ */
+@Test(groups = "benchmark")
+public class DiffGeneratorBenchmark {
+
+    private static final int LARGE_FILE_LINES = 300000;
+
+    private static final int SMALL_FILE_LINES = 2000;
+
+    public void benchmarkGenerate() throws Exception {
+        Random random = new Random(42);
+        List<String> large = SyntheticPatches.randomFile(LARGE_FILE_LINES, random);
+        measure(LARGE_FILE_LINES + " lines, 100 edits", large, SyntheticPatches.randomEdit(large, 100, random));
+        measure(LARGE_FILE_LINES + " lines, 5000 edits", large, SyntheticPatches.randomEdit(large, 5000, random));
+        // in real source files most lines occur only a few times, which gives the histogram algorithm its anchors
+        List<String> distinct = new ArrayList<>(large.size());
+        for (String line : large) {
+            distinct.add(line + " // " + random.nextInt(LARGE_FILE_LINES));
+        }
+        measure(LARGE_FILE_LINES + " distinct lines, 5000 edits", distinct,
+                SyntheticPatches.randomEdit(distinct, 5000, random));
+        List<String> small = SyntheticPatches.randomFile(SMALL_FILE_LINES, random);
+        final List<String> smallEdited = SyntheticPatches.randomEdit(small, 50, random);
+        measure(SMALL_FILE_LINES + " lines, 50 edits", small, smallEdited);
+
+        final List<String> from = small;
+        Benchmarks.measureTime(SMALL_FILE_LINES + " lines, 50 edits: LCS table", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                SyntheticPatches.unifiedDiff("file.txt", from, smallEdited, 3);
+            }
+        });
+    }
+
+    private void measure(String name, final List<String> from, final List<String> to) throws Exception {
+        for (DiffGenerator.Algorithm algorithm : DiffGenerator.Algorithm.values()) {
+            final DiffGenerator generator = new DiffGenerator();
+            generator.setAlgorithm(algorithm);
+            Benchmarks.measureTime(name + ": " + algorithm, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    generator.generate(from, to);
+                }
+            });
+        }
+        final DiffGenerator generator = new DiffGenerator();
+        Benchmarks.measureTime(name + ": MYERS, written and parsed", new Benchmarks.Task() {
+            @Override
+            public void run() throws Exception {
+                Diff diff = generator.generate("a/file.txt", "b/file.txt", from, to);
+                ByteArrayOutputStream text = new ByteArrayOutputStream();
+                UnifiedDiffWriter writer = new UnifiedDiffWriter();
+                writer.setCharset(StandardCharsets.UTF_8);
+                writer.write(Collections.singletonList(diff), text);
+                new UnifiedDiffParser().parse(text.toByteArray());
+            }
+        });
+    }
+
+}
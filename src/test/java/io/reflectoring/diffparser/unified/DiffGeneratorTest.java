@@ -0,0 +1,165 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.DiffGenerator;
+import io.reflectoring.diffparser.api.UnifiedDiffWriter;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests creating Diffs between two versions of a file with the {@link DiffGenerator}.
+ */
+public class DiffGeneratorTest {
+
+    @Test
+    public void testGenerate() throws Exception {
+        // given
+        List<String> from = Arrays.asList("one", "two", "three", "four", "five", "six", "seven", "eight", "nine");
+        List<String> to = Arrays.asList("one", "2", "three", "four", "five", "six", "seven", "eight", "nine", "ten");
+        DiffGenerator generator = new DiffGenerator();
+        generator.setContextLines(2);
+
+        // when
+        Diff diff = generator.generate("a/file.txt", "b/file.txt", from, to);
+
+        // then
+        StringWriter written = new StringWriter();
+        new UnifiedDiffWriter().write(Collections.singletonList(diff), written);
+        Assert.assertEquals(""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,4 +1,4 @@\n"
+                + " one\n"
+                + "-two\n"
+                + "+2\n"
+                + " three\n"
+                + " four\n"
+                + "@@ -8,2 +8,3 @@\n"
+                + " eight\n"
+                + " nine\n"
+                + "+ten\n", written.toString());
+    }
+
+    @Test
+    public void testGenerate_EqualVersions() throws Exception {
+        List<String> file = Arrays.asList("one", "two");
+
+        Diff diff = new DiffGenerator().generate(file, new ArrayList<>(file));
+
+        Assert.assertTrue(diff.getHunks().isEmpty());
+    }
+
+    @Test
+    public void testGenerate_AddedFile() throws Exception {
+        // when
+        Diff diff = new DiffGenerator().generate(Collections.<String>emptyList(), Arrays.asList("one", "two"));
+
+        // then
+        Hunk hunk = diff.getLatestHunk();
+        Assert.assertEquals(0, hunk.getFromFileRange().getLineStart());
+        Assert.assertEquals(0, hunk.getFromFileRange().getLineCount());
+        Assert.assertEquals(1, hunk.getToFileRange().getLineStart());
+        Assert.assertEquals(2, hunk.getToFileRange().getLineCount());
+        Assert.assertEquals(Line.LineType.TO, hunk.getLines().get(1).getLineType());
+        Assert.assertEquals("two", hunk.getLines().get(1).getContent());
+    }
+
+    @Test
+    public void testGenerate_ChangesWithinContextShareHunk() throws Exception {
+        // given
+        List<String> from = SyntheticPatches.randomFile(30, new Random(1));
+        List<String> to = new ArrayList<>(from);
+        to.set(5, "changed");
+        to.set(12, "changed");
+        DiffGenerator generator = new DiffGenerator();
+
+        // when
+        generator.setContextLines(3);
+        Diff threeLines = generator.generate(from, to);
+        generator.setContextLines(2);
+        Diff twoLines = generator.generate(from, to);
+
+        // then
+        Assert.assertEquals(1, threeLines.getHunks().size());
+        Assert.assertEquals(14, threeLines.getLatestHunk().getFromFileRange().getLineCount());
+        Assert.assertEquals(2, twoLines.getHunks().size());
+        Assert.assertEquals(5, twoLines.getLatestHunk().getFromFileRange().getLineCount());
+    }
+
+    @Test
+    public void testGenerate_RandomEdits() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            // given
+            List<String> from = SyntheticPatches.randomFile(random.nextInt(60), random);
+            List<String> to = SyntheticPatches.randomEdit(from, random.nextInt(8), random);
+            int context = random.nextInt(4);
+
+            for (DiffGenerator.Algorithm algorithm : DiffGenerator.Algorithm.values()) {
+                DiffGenerator generator = new DiffGenerator();
+                generator.setAlgorithm(algorithm);
+                generator.setContextLines(context);
+
+                // when
+                Diff diff = generator.generate(from, to);
+
+                // then
+                Assert.assertEquals(to, SyntheticPatches.apply(from, diff));
+                if (algorithm == DiffGenerator.Algorithm.MYERS) {
+                    // a minimal diff changes as many lines as a diff from the longest common subsequence
+                    Assert.assertEquals(changedLines(SyntheticPatches.unifiedDiff("file.txt", from, to, 0)),
+                            changedLines(diff));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGenerate_LargeFile() throws Exception {
+        // given
+        Random random = new Random(7);
+        List<String> from = SyntheticPatches.randomFile(200000, random);
+        List<String> to = SyntheticPatches.randomEdit(from, 200, random);
+
+        for (DiffGenerator.Algorithm algorithm : DiffGenerator.Algorithm.values()) {
+            DiffGenerator generator = new DiffGenerator();
+            generator.setAlgorithm(algorithm);
+
+            // when
+            Diff diff = generator.generate(from, to);
+
+            // then
+            Assert.assertEquals(to, SyntheticPatches.apply(from, diff));
+        }
+    }
+
+    private int changedLines(String diff) {
+        int count = 0;
+        for (String line : diff.split("\n")) {
+            if ((line.startsWith("-") && !line.startsWith("---")) || (line.startsWith("+") && !line.startsWith("+++"))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int changedLines(Diff diff) {
+        int count = 0;
+        for (Hunk hunk : diff.getHunks()) {
+            for (Line line : hunk.getLines()) {
+                count += line.getLineType() != Line.LineType.NEUTRAL ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.DiffSearchIndex;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compares queries on a {@link DiffSearchIndex} against scanning the content of all lines.
+ */
+@Test(groups = "benchmark")
+public class DiffSearchIndexBenchmark {
+
+    private final List<Diff> diffs = new UnifiedDiffParser().parse(
+            SyntheticPatches.movedCodePatch(20000, 10, 42).getBytes(StandardCharsets.UTF_8));
+
+    public void benchmarkQueries() throws Exception {
+        final Pattern pattern = Pattern.compile("compute1234\\(\\d+\\)");
+        Benchmarks.measureTime("build index", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                DiffSearchIndex.build(diffs);
+            }
+        });
+        final DiffSearchIndex index = DiffSearchIndex.build(diffs);
+        Benchmarks.measureTime("scan all lines (regex)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                scan(pattern);
+            }
+        });
+        Benchmarks.measureTime("index query (regex)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                index.find(pattern, null, null);
+            }
+        });
+        Benchmarks.measureTime("index query (substring)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                index.find("compute1234(", null, null);
+            }
+        });
+    }
+
+    private int scan(Pattern pattern) {
+        int hits = 0;
+        for (Diff diff : diffs) {
+            for (Hunk hunk : diff.getHunks()) {
+                for (Line line : hunk.getLines()) {
+                    if (line.getLineType() != Line.LineType.NEUTRAL && pattern.matcher(line.getContentSequence()).find()) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+}
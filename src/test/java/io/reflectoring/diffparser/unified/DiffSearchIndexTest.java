@@ -0,0 +1,106 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.DiffSearchIndex;
+import io.reflectoring.diffparser.api.analysis.SearchHit;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Tests searching the lines of parsed Diffs with a {@link DiffSearchIndex}.
+ */
+public class DiffSearchIndexTest {
+
+    private static final String DIFF = ""
+            + "--- a/src/Config.java\n"
+            + "+++ b/src/Config.java\n"
+            + "@@ -1,3 +1,3 @@\n"
+            + " class Config {\n"
+            + "-    String apiKey = System.getenv(\"API_KEY\");\n"
+            + "+    String apiKey = \"sk-12345\";\n"
+            + " }\n"
+            + "\n"
+            + "--- a/config.properties\n"
+            + "+++ b/config.properties\n"
+            + "@@ -1,1 +1,2 @@\n"
+            + " name=test\n"
+            + "+api_key = sk-67890\n";
+
+    private final List<Diff> diffs = new UnifiedDiffParser().parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+    private final DiffSearchIndex index = DiffSearchIndex.build(diffs);
+
+    @Test
+    public void testFind_Substring() throws Exception {
+        // when
+        List<SearchHit> all = index.find("apiKey", null, null);
+        List<SearchHit> added = index.find("apiKey", Line.LineType.TO, null);
+        List<SearchHit> removed = index.find("apiKey", Line.LineType.FROM, null);
+
+        // then
+        Assert.assertEquals(3, index.getLineCount());
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(1, added.size());
+        Assert.assertEquals("    String apiKey = \"sk-12345\";", added.get(0).getLine().getContent());
+        Assert.assertSame(diffs.get(0), added.get(0).getDiff());
+        Assert.assertEquals(2, added.get(0).getLineIndex());
+        Assert.assertEquals(1, removed.size());
+        Assert.assertEquals(Line.LineType.FROM, removed.get(0).getLine().getLineType());
+    }
+
+    @Test
+    public void testFind_NoMatchAndShortSubstring() throws Exception {
+        Assert.assertTrue(index.find("password", null, null).isEmpty());
+        Assert.assertTrue(index.find("keyapi", null, null).isEmpty());
+        Assert.assertEquals(2, index.find("sk", Line.LineType.TO, null).size());
+    }
+
+    @Test
+    public void testFind_Pattern() throws Exception {
+        // when
+        List<SearchHit> secrets = index.find(Pattern.compile("sk-[0-9]{5}"), Line.LineType.TO, null);
+        List<SearchHit> keys = index.find(Pattern.compile("api_?key\\s*="), null, null);
+        List<SearchHit> caseInsensitive = index.find(Pattern.compile("API_?KEY", Pattern.CASE_INSENSITIVE), null, null);
+        List<SearchHit> inProperties = index.find(Pattern.compile("sk-\\d+"), null, Pattern.compile("\\.properties$"));
+
+        // then
+        Assert.assertEquals(2, secrets.size());
+        Assert.assertEquals(1, keys.size());
+        Assert.assertEquals("api_key = sk-67890", keys.get(0).getLine().getContent());
+        Assert.assertEquals(3, caseInsensitive.size());
+        Assert.assertEquals(1, inProperties.size());
+        Assert.assertSame(diffs.get(1), inProperties.get(0).getDiff());
+    }
+
+    @Test
+    public void testFind_CaseInsensitiveLiteralPattern() throws Exception {
+        // when
+        List<SearchHit> keys = index.find(Pattern.compile("APIKEY", Pattern.LITERAL | Pattern.CASE_INSENSITIVE),
+                null, null);
+        List<SearchHit> secrets = index.find(Pattern.compile("SK-6789", Pattern.LITERAL | Pattern.CASE_INSENSITIVE),
+                null, null);
+
+        // then
+        Assert.assertEquals(2, keys.size());
+        Assert.assertEquals(1, secrets.size());
+        Assert.assertSame(diffs.get(1), secrets.get(0).getDiff());
+    }
+
+    @Test
+    public void testFind_PatternWithEscapeArguments() throws Exception {
+        // when
+        List<SearchHit> hex = index.find(Pattern.compile("api_key\\x20=\\x20sk"), null, null);
+        List<SearchHit> unicode = index.find(Pattern.compile("\\u0022sk-\\d+"), null, null);
+
+        // then
+        Assert.assertEquals(1, hex.size());
+        Assert.assertEquals(1, unicode.size());
+    }
+
+}
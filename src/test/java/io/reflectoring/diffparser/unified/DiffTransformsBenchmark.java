@@ -0,0 +1,74 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.transform.DiffTransforms;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares squashing a long series of patches with {@link DiffTransforms#compose(Diff, Diff)} against applying the
+ * patches to the file content and diffing the result against the original.
+ */
+@Test(groups = "benchmark")
+public class DiffTransformsBenchmark {
+
+    private static final int PATCHES = 200;
+
+    private final List<String> original;
+
+    private final List<Diff> series = new ArrayList<>();
+
+    public DiffTransformsBenchmark() {
+        Random random = new Random(42);
+        original = SyntheticPatches.randomFile(2000, random);
+        List<String> version = original;
+        for (int i = 0; i < PATCHES; i++) {
+            List<String> next = SyntheticPatches.randomEdit(version, 1 + random.nextInt(5), random);
+            String diff = SyntheticPatches.unifiedDiff("file.txt", version, next, 3);
+            series.add(new UnifiedDiffParser().parse(diff.getBytes(StandardCharsets.UTF_8)).get(0));
+            version = next;
+        }
+    }
+
+    public void benchmarkSquash() throws Exception {
+        Benchmarks.measureTime("compose " + PATCHES + " patches one by one", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                Diff squashed = series.get(0);
+                for (int i = 1; i < series.size(); i++) {
+                    squashed = DiffTransforms.compose(squashed, series.get(i));
+                }
+            }
+        });
+        Benchmarks.measureTime("compose " + PATCHES + " patches pairwise", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                DiffTransforms.compose(series);
+            }
+        });
+        Benchmarks.measureTime("reverse " + PATCHES + " patches", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                for (Diff diff : series) {
+                    DiffTransforms.reverse(diff);
+                }
+            }
+        });
+        Benchmarks.measureTime("apply " + PATCHES + " patches and diff", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                List<String> version = original;
+                for (Diff diff : series) {
+                    version = SyntheticPatches.apply(version, diff);
+                }
+                SyntheticPatches.unifiedDiff("file.txt", original, version, 3);
+            }
+        });
+    }
+
+}
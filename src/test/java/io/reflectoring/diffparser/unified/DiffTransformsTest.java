@@ -0,0 +1,169 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.transform.DiffTransforms;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests reversing and composing Diffs with {@link DiffTransforms}.
+ */
+public class DiffTransformsTest {
+
+    @Test
+    public void testReverse() throws Exception {
+        // given
+        Diff diff = parse(""
+                + "diff --git a/file.txt b/file.txt\n"
+                + "new file mode 100644\n"
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,3 +1,3 @@\n"
+                + " one\n"
+                + "-two\n"
+                + "+2\n"
+                + " three\n");
+
+        // when
+        Diff reversed = DiffTransforms.reverse(diff);
+
+        // then
+        Assert.assertEquals("b/file.txt", reversed.getFromFileName());
+        Assert.assertEquals("a/file.txt", reversed.getToFileName());
+        Assert.assertEquals(Diff.ChangeType.DELETED, reversed.getChangeType());
+        List<Line> lines = reversed.getLatestHunk().getLines();
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals(Line.LineType.FROM, lines.get(1).getLineType());
+        Assert.assertEquals("2", lines.get(1).getContent());
+        Assert.assertEquals(Line.LineType.TO, lines.get(2).getLineType());
+        Assert.assertEquals("two", lines.get(2).getContent());
+    }
+
+    @Test
+    public void testCompose_AddedLinesRemovedAgainCancelOut() throws Exception {
+        // given
+        Diff first = parse(""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,2 +1,3 @@\n"
+                + " one\n"
+                + "+temporary\n"
+                + " two\n");
+        Diff second = parse(""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -2,2 +2,2 @@\n"
+                + "-temporary\n"
+                + " two\n"
+                + "+three\n");
+
+        // when
+        Diff composed = DiffTransforms.compose(first, second);
+
+        // then
+        Assert.assertEquals(1, composed.getHunks().size());
+        Hunk hunk = composed.getLatestHunk();
+        Assert.assertEquals(1, hunk.getFromFileRange().getLineStart());
+        Assert.assertEquals(2, hunk.getFromFileRange().getLineCount());
+        Assert.assertEquals(3, hunk.getToFileRange().getLineCount());
+        Assert.assertEquals(3, hunk.getLines().size());
+        Assert.assertEquals(Line.LineType.TO, hunk.getLines().get(2).getLineType());
+        Assert.assertEquals("three", hunk.getLines().get(2).getContent());
+    }
+
+    @Test
+    public void testReverse_RandomEdits() throws Exception {
+        for (int seed = 0; seed < 200; seed++) {
+            // given
+            Random random = new Random(seed);
+            List<String> from = SyntheticPatches.randomFile(1 + random.nextInt(60), random);
+            List<String> to = SyntheticPatches.randomEdit(from, 1 + random.nextInt(5), random);
+            Diff diff = diff(from, to, random.nextInt(4));
+
+            // when
+            Diff reversed = DiffTransforms.reverse(diff);
+
+            // then
+            Assert.assertEquals(to, SyntheticPatches.apply(from, diff));
+            Assert.assertEquals(from, SyntheticPatches.apply(to, reversed));
+        }
+    }
+
+    @Test
+    public void testCompose_RandomEdits() throws Exception {
+        for (int seed = 0; seed < 500; seed++) {
+            // given
+            Random random = new Random(seed);
+            List<String> first = SyntheticPatches.randomFile(1 + random.nextInt(60), random);
+            List<String> second = SyntheticPatches.randomEdit(first, 1 + random.nextInt(5), random);
+            List<String> third = SyntheticPatches.randomEdit(second, 1 + random.nextInt(5), random);
+
+            // when
+            Diff composed = DiffTransforms.compose(diff(first, second, random.nextInt(4)),
+                    diff(second, third, random.nextInt(4)));
+
+            // then
+            Assert.assertEquals("seed " + seed, third, SyntheticPatches.apply(first, composed));
+        }
+    }
+
+    @Test
+    public void testCompose_PatchSeries() throws Exception {
+        // given
+        Random random = new Random(42);
+        List<String> original = SyntheticPatches.randomFile(300, random);
+        List<String> version = original;
+        List<Diff> series = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            List<String> next = SyntheticPatches.randomEdit(version, 1 + random.nextInt(5), random);
+            series.add(diff(version, next, 3));
+            version = next;
+        }
+
+        // when
+        Diff folded = series.get(0);
+        for (int i = 1; i < series.size(); i++) {
+            folded = DiffTransforms.compose(folded, series.get(i));
+        }
+        Diff pairwise = DiffTransforms.compose(series);
+
+        // then
+        Assert.assertEquals(version, SyntheticPatches.apply(original, folded));
+        Assert.assertEquals(version, SyntheticPatches.apply(original, pairwise));
+        Assert.assertEquals(original, SyntheticPatches.apply(version, DiffTransforms.reverse(pairwise)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCompose_SkippedHunksAreRejected() throws Exception {
+        Diff diff = parse(""
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,1 +1,1 @@\n"
+                + "-a\n"
+                + "+b\n");
+        diff.getLatestHunk().setSkipped(true);
+
+        DiffTransforms.compose(diff, diff);
+    }
+
+    private Diff diff(List<String> from, List<String> to, int context) {
+        if (from.equals(to)) {
+            // a diff without hunks cannot be parsed
+            return new Diff();
+        }
+        return parse(SyntheticPatches.unifiedDiff("file.txt", from, to, context));
+    }
+
+    private Diff parse(String diff) {
+        return new UnifiedDiffParser().parse(diff.getBytes(StandardCharsets.UTF_8)).get(0);
+    }
+
+}
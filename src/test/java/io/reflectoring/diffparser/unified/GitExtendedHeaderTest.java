@@ -0,0 +1,124 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.DiffParser;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Tests parsing the extended header lines of a diff created by the "git diff" command.
+ */
+public class GitExtendedHeaderTest {
+
+    @Test
+    public void testParse() throws Exception {
+        // given
+        DiffParser parser = new UnifiedDiffParser();
+        InputStream in = getClass().getResourceAsStream("git-extended-headers.diff");
+
+        // when
+        List<Diff> diffs = parser.parse(in);
+
+        // then
+        Assert.assertEquals(8, diffs.size());
+
+        Diff modified = diffs.get(0);
+        Assert.assertEquals(Diff.ChangeType.MODIFIED, modified.getChangeType());
+        Assert.assertEquals("5809534", modified.getFromBlobId());
+        Assert.assertEquals("4f4147a", modified.getToBlobId());
+        Assert.assertEquals(Integer.valueOf(0100644), modified.getFromFileMode());
+        Assert.assertEquals(Integer.valueOf(0100644), modified.getToFileMode());
+        Assert.assertEquals(4, modified.getHunks().get(0).getLines().size());
+
+        Diff added = diffs.get(1);
+        Assert.assertEquals(Diff.ChangeType.ADDED, added.getChangeType());
+        Assert.assertEquals("diff --git a/docs/new.txt b/docs/new.txt", added.getHeaderLines().get(0));
+        Assert.assertNull(added.getFromFileMode());
+        Assert.assertEquals(Integer.valueOf(0100644), added.getToFileMode());
+        Assert.assertEquals("0000000", added.getFromBlobId());
+        Assert.assertEquals("/dev/null", added.getFromFileName());
+        Assert.assertEquals(2, added.getHunks().get(0).getLines().size());
+
+        Diff deleted = diffs.get(2);
+        Assert.assertEquals(Diff.ChangeType.DELETED, deleted.getChangeType());
+        Assert.assertEquals(Integer.valueOf(0100755), deleted.getFromFileMode());
+        Assert.assertNull(deleted.getToFileMode());
+
+        Diff renamedWithChanges = diffs.get(3);
+        Assert.assertEquals(Diff.ChangeType.RENAMED, renamedWithChanges.getChangeType());
+        Assert.assertEquals(Integer.valueOf(92), renamedWithChanges.getSimilarityIndex());
+        Assert.assertEquals("src/Old Name.java", renamedWithChanges.getSourcePath());
+        Assert.assertEquals("src/New Name.java", renamedWithChanges.getTargetPath());
+        Assert.assertEquals("a/src/Old Name.java", renamedWithChanges.getFromFileName());
+        Assert.assertEquals(1, renamedWithChanges.getHunks().size());
+
+        Diff renamed = diffs.get(4);
+        Assert.assertEquals(Diff.ChangeType.RENAMED, renamed.getChangeType());
+        Assert.assertEquals(Integer.valueOf(100), renamed.getSimilarityIndex());
+        Assert.assertEquals("a/moved.txt", renamed.getFromFileName());
+        Assert.assertEquals("b/renamed.txt", renamed.getToFileName());
+        Assert.assertEquals(0, renamed.getHunks().size());
+        Assert.assertEquals(4, renamed.getHeaderLines().size());
+
+        Diff modeChange = diffs.get(5);
+        Assert.assertEquals(Diff.ChangeType.MODIFIED, modeChange.getChangeType());
+        Assert.assertEquals(Integer.valueOf(0100644), modeChange.getFromFileMode());
+        Assert.assertEquals(Integer.valueOf(0100755), modeChange.getToFileMode());
+
+        Diff binary = diffs.get(6);
+        Assert.assertTrue(binary.isBinary());
+        Assert.assertEquals("a/image.png", binary.getFromFileName());
+        Assert.assertEquals(0, binary.getHunks().size());
+
+        Diff last = diffs.get(7);
+        Assert.assertFalse(last.isBinary());
+        Assert.assertEquals("a/last file.txt", last.getFromFileName());
+        Assert.assertEquals(2, last.getHunks().get(0).getLines().size());
+    }
+
+    @Test
+    public void testParse_DiffWithoutHunksAtEndOfStream() throws Exception {
+        // given
+        DiffParser parser = new UnifiedDiffParser();
+        String in = ""
+                + "diff --git a/file.txt b/file.txt\n"
+                + "index 1111111..2222222 100644\n"
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1 +1 @@\n"
+                + "-a\n"
+                + "+b\n"
+                + "diff --git a/image.png b/image.png\n"
+                + "new file mode 100644\n"
+                + "index 0000000..7d8e9f0\n"
+                + "Binary files /dev/null and b/image.png differ\n";
+
+        // when
+        List<Diff> diffs = parser.parse(in.getBytes());
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        Assert.assertEquals(2, diffs.get(0).getHeaderLines().size());
+        Assert.assertEquals(4, diffs.get(1).getHeaderLines().size());
+        Assert.assertEquals(Diff.ChangeType.ADDED, diffs.get(1).getChangeType());
+        Assert.assertTrue(diffs.get(1).isBinary());
+    }
+
+    @Test
+    public void testParse_FirstLineAfterDelimiterBelongsToNextDiff() throws Exception {
+        // given
+        DiffParser parser = new UnifiedDiffParser();
+        InputStream in = getClass().getResourceAsStream("svn.diff");
+
+        // when
+        List<Diff> diffs = parser.parse(in);
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        Assert.assertEquals("Index: UnifiedDiffParserTest.java", diffs.get(1).getHeaderLines().get(0));
+    }
+}
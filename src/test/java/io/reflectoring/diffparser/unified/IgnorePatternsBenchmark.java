@@ -0,0 +1,81 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Measures matching the lines of a large patch against 1, 10 and 100 ignore patterns, with the combined
+ * {@link IgnorePatterns} against running each pattern with a new Matcher, and the effect on parsing.
+ */
+@Test(groups = "benchmark")
+public class IgnorePatternsBenchmark {
+
+    private final String patch = SyntheticPatches.gitPatch(20000, 5, 42);
+
+    private final byte[] bytes = patch.getBytes(StandardCharsets.UTF_8);
+
+    private final String[] lines = patch.split("\n");
+
+    public void benchmarkIgnorePatterns() throws Exception {
+        for (int count : new int[]{1, 10, 100}) {
+            final List<String> regexes = regexes(count);
+            final List<Pattern> patterns = new ArrayList<>();
+            for (String regex : regexes) {
+                patterns.add(Pattern.compile(regex));
+            }
+            Benchmarks.measureThroughput(count + " patterns, separate matchers", bytes.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    for (String line : lines) {
+                        for (Pattern pattern : patterns) {
+                            if (pattern.matcher(line).matches()) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            });
+            final IgnorePatterns.LineMatcher matcher = new IgnorePatterns(regexes).matcher();
+            Benchmarks.measureThroughput(count + " patterns, combined", bytes.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    for (String line : lines) {
+                        matcher.matches(line);
+                    }
+                }
+            });
+            final UnifiedDiffParser parser = new UnifiedDiffParser();
+            for (String regex : regexes) {
+                parser.addIgnorePattern(regex);
+            }
+            Benchmarks.measureThroughput(count + " patterns, parse", bytes.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    parser.parse(bytes);
+                }
+            });
+        }
+    }
+
+    /**
+     * Noise lines of build tools: most start with a fixed word, some with a time stamp.
+     */
+    private List<String> regexes(int count) {
+        String[] words = {"Generated", "Building", "Warning", "Note", "Index", "Created", "Tool", "Report", "Using"};
+        List<String> regexes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 5 == 4) {
+                regexes.add("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2} step " + i + ".*");
+            } else {
+                regexes.add(words[i % words.length] + " \\w+ " + i + " .*");
+            }
+        }
+        return regexes;
+    }
+
+}
@@ -0,0 +1,125 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Tests skipping input lines matching {@link IgnorePatterns}.
+ */
+public class IgnorePatternsTest {
+
+    private static final List<String> REGEXES = Arrays.asList(
+            "Generated at \\d{2}:\\d{2}",
+            "\\d{2}:\\d{2}",
+            "\\d?:x",
+            "Generated by .*",
+            "\\[build \\d+\\]",
+            "(?i)warning: .*",
+            "x*y+",
+            "(a|b)c",
+            "^#+ .*",
+            "(\\w)\\1+",
+            "(?<word>\\w+)=\\k<word>",
+            "\u00e4\u00f6\u00fc",
+            "");
+
+    @Test
+    public void testParse_IgnoredLines() throws Exception {
+        // given
+        String diff = ""
+                + "Generated at 12:30\n"
+                + "--- a/file.txt\n"
+                + "[build 42]\n"
+                + "+++ b/file.txt\n"
+                + "@@ -1,1 +1,1 @@\n"
+                + "-a\n"
+                + "WARNING: something\n"
+                + "+b\n";
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        for (String regex : REGEXES) {
+            parser.addIgnorePattern(regex);
+        }
+
+        // when
+        List<Diff> diffs = parser.parse(diff.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        Assert.assertEquals("a/file.txt", diffs.get(0).getFromFileName());
+        Assert.assertEquals(2, diffs.get(0).getLatestHunk().getLines().size());
+    }
+
+    @Test
+    public void testWindow_AddsToPrecompiledPatterns() throws Exception {
+        // given
+        String input = "a\nset\nadded\nb\n";
+        ResizingParseWindow window = new ResizingParseWindow(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        window.setIgnorePatterns(new IgnorePatterns(Arrays.asList("set")));
+        window.addIgnorePattern("added");
+
+        // when
+        String first = window.slideForward();
+        String second = window.slideForward();
+
+        // then
+        Assert.assertEquals("a", first);
+        Assert.assertEquals("b", second);
+    }
+
+    @Test
+    public void testFirstChars() {
+        Assert.assertEquals("G", IgnorePatterns.firstChars("Generated by .*"));
+        Assert.assertEquals("G", IgnorePatterns.firstChars("^Generated by .*"));
+        Assert.assertEquals("[", IgnorePatterns.firstChars("\\[build \\d+\\]"));
+        Assert.assertEquals("0123456789", IgnorePatterns.firstChars("\\d{2}:\\d{2}"));
+        Assert.assertEquals("y", IgnorePatterns.firstChars("y+"));
+        Assert.assertNull(IgnorePatterns.firstChars("x*y+"));
+        Assert.assertNull(IgnorePatterns.firstChars("x?y"));
+        Assert.assertNull(IgnorePatterns.firstChars("x{0,2}y"));
+        Assert.assertNull(IgnorePatterns.firstChars("(?i)warning"));
+        Assert.assertNull(IgnorePatterns.firstChars("a|b"));
+        Assert.assertNull(IgnorePatterns.firstChars("\\w+"));
+        Assert.assertNull(IgnorePatterns.firstChars(""));
+    }
+
+    @Test
+    public void testMatches_SameAsSeparatePatterns() {
+        // given
+        IgnorePatterns.LineMatcher matcher = new IgnorePatterns(REGEXES).matcher();
+        Pattern[] patterns = new Pattern[REGEXES.size()];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = Pattern.compile(REGEXES.get(i));
+        }
+        String[] parts = {"Generated", " at ", "by", "12:30", "[build 7]", "warning: ", "WARNING: ", "x", "y", "a",
+                "b", "c", "# ", "##", "aa", "k", "=", ":", "\u00e4\u00f6\u00fc", " "};
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                line.append(parts[random.nextInt(parts.length)]);
+            }
+
+            // when
+            boolean matches = matcher.matches(line.toString());
+
+            // then
+            boolean expected = false;
+            for (Pattern pattern : patterns) {
+                expected |= pattern.matcher(line).matches();
+            }
+            Assert.assertEquals(line.toString(), expected, matches);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.IntralineDiff;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures computing the changed spans of all modified lines of a large patch, by words and by characters, on one
+ * thread and on a thread pool.
+ */
+@Test(groups = "benchmark")
+public class IntralineDiffBenchmark {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(20000, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    private final List<Diff> diffs = new UnifiedDiffParser().parse(patch);
+
+    public void benchmarkCompute() throws Exception {
+        Benchmarks.measureThroughput("parse only", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() {
+                new UnifiedDiffParser().parse(patch);
+            }
+        });
+        for (IntralineDiff.Granularity granularity : IntralineDiff.Granularity.values()) {
+            final IntralineDiff intralineDiff = new IntralineDiff();
+            intralineDiff.setGranularity(granularity);
+            Benchmarks.measureThroughput("changed spans by " + granularity, patch.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    intralineDiff.compute(diffs);
+                }
+            });
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final IntralineDiff intralineDiff = new IntralineDiff();
+            intralineDiff.setExecutor(executor);
+            Benchmarks.measureThroughput("changed spans by WORD, " + threads + " threads", patch.length,
+                    new Benchmarks.Task() {
+                        @Override
+                        public void run() {
+                            intralineDiff.compute(diffs);
+                        }
+                    });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.IntralineDiff;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests computing the changed parts of modified lines with the {@link IntralineDiff}.
+ */
+public class IntralineDiffTest {
+
+    private static final String DIFF = ""
+            + "--- a/Counter.java\n"
+            + "+++ b/Counter.java\n"
+            + "@@ -1,5 +1,4 @@\n"
+            + " class Counter {\n"
+            + "-    int count = 1;\n"
+            + "-    int step = 1;\n"
+            + "+    int total = 1;\n"
+            + "     String color;\n"
+            + "-}\n"
+            + "\\ No newline at end of file\n"
+            + "+}\n";
+
+    @Test
+    public void testCompute_Words() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setIntralineDiff(new IntralineDiff());
+
+        // when
+        List<Line> lines = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8)).get(0).getLatestHunk().getLines();
+
+        // then
+        Assert.assertNull(lines.get(0).getChangedSpans());
+        Assert.assertTrue(Arrays.equals(new int[]{8, 13}, lines.get(1).getChangedSpans()));
+        Assert.assertTrue(Arrays.equals(new int[]{8, 13}, lines.get(3).getChangedSpans()));
+        // the second removed line has no counterpart
+        Assert.assertNull(lines.get(2).getChangedSpans());
+        // the marker does not separate the removed from the added line
+        Assert.assertEquals(0, lines.get(5).getChangedSpans().length);
+        Assert.assertEquals(0, lines.get(7).getChangedSpans().length);
+    }
+
+    @Test
+    public void testCompute_Characters() throws Exception {
+        // given
+        Hunk hunk = new Hunk();
+        hunk.getLines().add(new Line(Line.LineType.FROM, "String color;"));
+        hunk.getLines().add(new Line(Line.LineType.TO, "String colour;"));
+        IntralineDiff intralineDiff = new IntralineDiff();
+        intralineDiff.setGranularity(IntralineDiff.Granularity.CHARACTER);
+
+        // when
+        intralineDiff.compute(hunk);
+
+        // then
+        Assert.assertEquals(0, hunk.getLines().get(0).getChangedSpans().length);
+        Assert.assertTrue(Arrays.equals(new int[]{11, 12}, hunk.getLines().get(1).getChangedSpans()));
+    }
+
+    @Test
+    public void testCompute_UnchangedPartsAreEqual() throws Exception {
+        Random random = new Random(42);
+        String[] words = {"a", "b", "foo", " ", "  ", "(", ")", ".", "x1", "_y"};
+        for (IntralineDiff.Granularity granularity : IntralineDiff.Granularity.values()) {
+            IntralineDiff intralineDiff = new IntralineDiff();
+            intralineDiff.setGranularity(granularity);
+            for (int i = 0; i < 500; i++) {
+                // given
+                Hunk hunk = new Hunk();
+                hunk.getLines().add(new Line(Line.LineType.FROM, randomLine(words, random)));
+                hunk.getLines().add(new Line(Line.LineType.TO, randomLine(words, random)));
+
+                // when
+                intralineDiff.compute(hunk);
+
+                // then
+                Line from = hunk.getLines().get(0);
+                Line to = hunk.getLines().get(1);
+                Assert.assertEquals(unchangedParts(from), unchangedParts(to));
+            }
+        }
+    }
+
+    @Test
+    public void testCompute_Parallel() throws Exception {
+        // given
+        byte[] patch = SyntheticPatches.gitPatch(500, 5, 42).getBytes(StandardCharsets.UTF_8);
+        List<Diff> sequential = new UnifiedDiffParser().parse(patch);
+        List<Diff> parallel = new UnifiedDiffParser().parse(patch);
+        IntralineDiff intralineDiff = new IntralineDiff();
+        new IntralineDiff().compute(sequential);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        try {
+            intralineDiff.setExecutor(executor);
+            intralineDiff.compute(parallel);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        int compared = 0;
+        for (int d = 0; d < sequential.size(); d++) {
+            for (int h = 0; h < sequential.get(d).getHunks().size(); h++) {
+                List<Line> expected = sequential.get(d).getHunks().get(h).getLines();
+                List<Line> actual = parallel.get(d).getHunks().get(h).getLines();
+                for (int l = 0; l < expected.size(); l++) {
+                    Assert.assertTrue(Arrays.equals(expected.get(l).getChangedSpans(), actual.get(l).getChangedSpans()));
+                    compared += expected.get(l).getChangedSpans() != null ? 1 : 0;
+                }
+            }
+        }
+        Assert.assertTrue(compared > 0);
+    }
+
+    private String randomLine(String[] words, Random random) {
+        StringBuilder line = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            line.append(words[random.nextInt(words.length)]);
+        }
+        return line.toString();
+    }
+
+    private String unchangedParts(Line line) {
+        String content = line.getContent();
+        int[] spans = line.getChangedSpans();
+        StringBuilder unchanged = new StringBuilder();
+        int position = 0;
+        for (int i = 0; i < spans.length; i += 2) {
+            Assert.assertTrue(spans[i] >= position && spans[i] < spans[i + 1]);
+            unchanged.append(content, position, spans[i]);
+            position = spans[i + 1];
+        }
+        return unchanged.append(content.substring(position)).toString();
+    }
+
+}
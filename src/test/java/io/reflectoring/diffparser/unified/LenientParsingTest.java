@@ -0,0 +1,81 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.ParseDiagnostic;
+import io.reflectoring.diffparser.api.ParseDiagnosticListener;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests skipping malformed parts of the input in lenient mode.
+ */
+public class LenientParsingTest {
+
+    private static final String DIFF = ""
+            + "--- a/one.txt\n"
+            + "+++ b/one.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-a\n"
+            + "+b\n"
+            + "\n"
+            + "--- a/broken.txt\n"
+            + "--- a/two.txt\n"
+            + "+++ b/two.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-c\n"
+            + "+d\n"
+            + "\n"
+            + "--- a/three.txt\n"
+            + "+++ b/three.txt\n"
+            + "garbage\n"
+            + "more garbage\n"
+            + "\n"
+            + "--- a/four.txt\n"
+            + "+++ b/four.txt\n"
+            + "@@ -1 +1 @@\n"
+            + "-e\n"
+            + "+f\n";
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testParse_StrictModeFails() throws Exception {
+        new UnifiedDiffParser().parse(DIFF.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testParse_LenientModeResynchronizes() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setLenient(true);
+        final List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        parser.setDiagnosticListener(new ParseDiagnosticListener() {
+            @Override
+            public void onDiagnostic(ParseDiagnostic diagnostic) {
+                diagnostics.add(diagnostic);
+            }
+        });
+
+        // when
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(3, diffs.size());
+        Assert.assertEquals("a/one.txt", diffs.get(0).getFromFileName());
+        Assert.assertEquals("a/two.txt", diffs.get(1).getFromFileName());
+        Assert.assertEquals(2, diffs.get(1).getLatestHunk().getLines().size());
+        Assert.assertEquals("a/four.txt", diffs.get(2).getFromFileName());
+        Assert.assertEquals(2, diffs.get(2).getLatestHunk().getLines().size());
+
+        Assert.assertEquals(2, diagnostics.size());
+        Assert.assertEquals(8, diagnostics.get(0).getLineNumber());
+        Assert.assertEquals("a TO_FILE line ('+++')", diagnostics.get(0).getExpected());
+        Assert.assertEquals("--- a/two.txt", diagnostics.get(0).getFound());
+        Assert.assertEquals(16, diagnostics.get(1).getLineNumber());
+        Assert.assertEquals("garbage", diagnostics.get(1).getFound());
+    }
+
+}
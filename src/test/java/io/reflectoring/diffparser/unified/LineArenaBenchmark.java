@@ -0,0 +1,46 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.LineArena;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Compares the heap footprint and the full GC pause of a parsed patch with the line content stored in Strings and in
+ * a {@link LineArena}.
+ */
+@Test(groups = "benchmark")
+public class LineArenaBenchmark {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(20000, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    public void benchmarkFootprint() throws Exception {
+        measure("heap", null);
+        measure("direct arena", LineArena.direct());
+    }
+
+    private void measure(String name, LineArena arena) throws Exception {
+        long before = Benchmarks.usedHeapAfterGc();
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(StandardCharsets.UTF_8);
+        parser.setLineArena(arena);
+        List<Diff> diffs = parser.parse(patch);
+        long retained = Benchmarks.usedHeapAfterGc() - before;
+
+        Benchmarks.report("retained heap (" + name + ")", retained / (1024.0 * 1024), "MB");
+        if (arena != null) {
+            Benchmarks.report("off-heap size (" + name + ")", arena.getSize() / (1024.0 * 1024), "MB");
+        }
+        long gcMillis = 0;
+        for (int i = 0; i < 5; i++) {
+            gcMillis += Benchmarks.fullGcMillis();
+        }
+        Benchmarks.report("full GC pause (" + name + ")", gcMillis / 5.0, "ms");
+        // keep the model alive until all collections are done
+        Benchmarks.report("parsed diffs (" + name + ")", diffs.size(), "");
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.LineArena;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests storing the content of parsed lines outside of the heap.
+ */
+public class LineArenaTest {
+
+    private static final String DIFF = ""
+            + "--- from\n"
+            + "+++ to\n"
+            + "@@ -1,3 +1,3 @@\n"
+            + " a neutral line that is longer than a chunk\n"
+            + "-gr\u00fc\u00dfe\n"
+            + "+\u20ac 100\n"
+            + "+\n";
+
+    @Test
+    public void testParse_DirectArena() throws Exception {
+        // given
+        LineArena arena = LineArena.direct(16);
+
+        // when
+        List<Line> lines = parse(arena);
+
+        // then
+        assertLines(lines);
+        Assert.assertEquals(43 + 5 + 2 * 5, arena.getSize());
+    }
+
+    @Test
+    public void testParse_MappedArena() throws Exception {
+        // given
+        File scratchFile = File.createTempFile("diffparser", ".arena");
+        scratchFile.deleteOnExit();
+        LineArena arena = LineArena.mapped(scratchFile, 16);
+
+        // when
+        List<Line> lines = parse(arena);
+        arena.close();
+
+        // then
+        assertLines(lines);
+    }
+
+    @Test
+    public void testContentSequence() throws Exception {
+        // given
+        LineArena arena = LineArena.direct();
+
+        // when
+        CharSequence ascii = arena.store("-return result;", 1);
+        CharSequence wide = arena.store("+\u20ac 100", 1);
+
+        // then
+        Assert.assertEquals('r', ascii.charAt(0));
+        Assert.assertEquals("result", ascii.subSequence(7, 13).toString());
+        Assert.assertEquals("return result;".hashCode(), ascii.hashCode());
+        Assert.assertEquals(ascii, arena.store("return result;", 0));
+        Assert.assertEquals('\u20ac', wide.charAt(0));
+        Assert.assertEquals("100", wide.subSequence(2, 5).toString());
+        Assert.assertEquals("\u20ac 100".hashCode(), wide.hashCode());
+    }
+
+    private List<Line> parse(LineArena arena) {
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(StandardCharsets.UTF_8);
+        parser.setLineArena(arena);
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+        return diffs.get(0).getLatestHunk().getLines();
+    }
+
+    private void assertLines(List<Line> lines) {
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals(" a neutral line that is longer than a chunk", lines.get(0).getContent());
+        Assert.assertEquals("gr\u00fc\u00dfe", lines.get(1).getContent());
+        Assert.assertEquals("\u20ac 100", lines.get(2).getContent());
+        Assert.assertEquals("", lines.get(3).getContent());
+        Assert.assertEquals(Line.LineType.TO, lines.get(3).getLineType());
+    }
+
+}
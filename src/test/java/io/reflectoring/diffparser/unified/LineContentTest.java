@@ -0,0 +1,71 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.DiffParser;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.StringView;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * Tests that the content of changed lines is exposed as a view without copying it.
+ */
+public class LineContentTest {
+
+    @Test
+    public void testParse_ChangedLinesAreViewsOnTheInputLine() throws Exception {
+        // given
+        DiffParser parser = new UnifiedDiffParser();
+        String in = ""
+                + "--- from\n"
+                + "+++ to\n"
+                + "@@ -1,2 +1,2 @@\n"
+                + " neutral\n"
+                + "-from\n"
+                + "+to\n";
+
+        // when
+        List<Diff> diffs = parser.parse(in.getBytes());
+
+        // then
+        List<Line> lines = diffs.get(0).getHunks().get(0).getLines();
+        Assert.assertEquals(3, lines.size());
+
+        Line fromLine = lines.get(1);
+        Assert.assertTrue(fromLine.getContentSequence() instanceof StringView);
+        Assert.assertEquals("from", fromLine.getContent());
+        Assert.assertEquals("from".hashCode(), fromLine.getContentSequence().hashCode());
+
+        Line toLine = lines.get(2);
+        Assert.assertTrue(((StringView) toLine.getContentSequence()).contentEquals("to"));
+        Assert.assertEquals("to", toLine.getContent());
+    }
+
+    @Test
+    public void testStringView_SubSequenceAndEquality() throws Exception {
+        // given
+        StringView view = new StringView("+content", 1);
+
+        // when
+        CharSequence subSequence = view.subSequence(1, 4);
+
+        // then
+        Assert.assertEquals(7, view.length());
+        Assert.assertEquals('c', view.charAt(0));
+        Assert.assertEquals("ont", subSequence.toString());
+        Assert.assertEquals(new StringView("content", 0), view);
+        Assert.assertFalse(view.contentEquals("contents"));
+    }
+
+    @Test
+    public void testLine_NoNewlineMarker() throws Exception {
+        Assert.assertTrue(new Line(Line.LineType.NEUTRAL, "\\ No newline at end of file").isNoNewlineMarker());
+        Assert.assertFalse(new Line(Line.LineType.NEUTRAL, " context").isNoNewlineMarker());
+        Assert.assertFalse(new Line(Line.LineType.NEUTRAL, "").isNoNewlineMarker());
+        Assert.assertFalse(new Line(Line.LineType.TO, "\\escaped").isNoNewlineMarker());
+        Assert.assertFalse(new Line(Line.LineType.FROM, new StringView("-\\escaped", 1)).isNoNewlineMarker());
+    }
+}
@@ -0,0 +1,136 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.LineRuns;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the footprint of the line types stored per line and as {@link LineRuns}, and the time to count the changed
+ * lines and blocks of a parsed patch by visiting each line and by iterating the runs.
+ */
+@Test(groups = "benchmark")
+public class LineRunsBenchmark {
+
+    private final List<Hunk> hunks = new ArrayList<>();
+
+    /**
+     * Hunks with two blocks of 40 removed and 40 added lines each, like those of a refactoring.
+     */
+    private final List<Hunk> largeHunks = new ArrayList<>();
+
+    public LineRunsBenchmark() {
+        byte[] patch = SyntheticPatches.gitPatch(20000, 5, 42).getBytes(StandardCharsets.UTF_8);
+        for (Diff diff : new UnifiedDiffParser().parse(patch)) {
+            hunks.addAll(diff.getHunks());
+        }
+        for (int i = 0; i < 10000; i++) {
+            Hunk hunk = new Hunk();
+            for (int block = 0; block < 2; block++) {
+                addLines(hunk, Line.LineType.NEUTRAL, 3);
+                addLines(hunk, Line.LineType.FROM, 40);
+                addLines(hunk, Line.LineType.TO, 40);
+            }
+            addLines(hunk, Line.LineType.NEUTRAL, 3);
+            largeHunks.add(hunk);
+        }
+    }
+
+    public void benchmarkFootprint() throws Exception {
+        measureFootprint("small hunks", hunks);
+        measureFootprint("large hunks", largeHunks);
+    }
+
+    private void measureFootprint(String name, List<Hunk> hunks) {
+        // the first collection does not always release everything left over from the previous measurement
+        Benchmarks.usedHeapAfterGc();
+        long before = Benchmarks.usedHeapAfterGc();
+        List<Line.LineType[]> perLine = new ArrayList<>(hunks.size());
+        for (Hunk hunk : hunks) {
+            Line.LineType[] types = new Line.LineType[hunk.getLines().size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = hunk.getLines().get(i).getLineType();
+            }
+            perLine.add(types);
+        }
+        long perLineBytes = Benchmarks.usedHeapAfterGc() - before;
+
+        before = Benchmarks.usedHeapAfterGc();
+        List<LineRuns> runs = new ArrayList<>(hunks.size());
+        for (Hunk hunk : hunks) {
+            runs.add(LineRuns.of(hunk.getLines()));
+        }
+        long runBytes = Benchmarks.usedHeapAfterGc() - before;
+
+        Benchmarks.report("line types per line (" + name + ")", perLineBytes / 1024.0, "KB");
+        Benchmarks.report("line runs (" + name + ")", runBytes / 1024.0, "KB");
+        // keep both representations alive until they have been measured
+        Benchmarks.report("hunks", perLine.size() + runs.size() - hunks.size(), "");
+    }
+
+    public void benchmarkIteration() throws Exception {
+        final long[] counts = new long[3];
+        for (Hunk hunk : hunks) {
+            hunk.getLineRuns();
+        }
+        Benchmarks.measureTime("count changes per line", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                for (Hunk hunk : hunks) {
+                    Line.LineType previous = Line.LineType.NEUTRAL;
+                    for (Line line : hunk.getLines()) {
+                        Line.LineType type = line.getLineType();
+                        if (type == Line.LineType.FROM) {
+                            counts[0]++;
+                        } else if (type == Line.LineType.TO) {
+                            counts[1]++;
+                        }
+                        if (type != Line.LineType.NEUTRAL && previous == Line.LineType.NEUTRAL) {
+                            counts[2]++;
+                        }
+                        previous = type;
+                    }
+                }
+            }
+        });
+        Benchmarks.measureTime("count changes per run", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                for (Hunk hunk : hunks) {
+                    LineRuns runs = hunk.getLineRuns();
+                    counts[0] += runs.getRemovedLineCount();
+                    counts[1] += runs.getAddedLineCount();
+                    counts[2] += runs.getChangedBlockCount();
+                }
+            }
+        });
+        Benchmarks.measureTime("visit changed lines per run", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                for (Hunk hunk : hunks) {
+                    LineRuns runs = hunk.getLineRuns();
+                    List<Line> lines = hunk.getLines();
+                    for (int block = 0; block < runs.getChangedBlockCount(); block++) {
+                        for (int i = runs.getChangedBlockStart(block); i < runs.getChangedBlockEnd(block); i++) {
+                            counts[0] += lines.get(i).getContentSequence().length();
+                        }
+                    }
+                }
+            }
+        });
+        Benchmarks.report("checksum", counts[0] + counts[1] + counts[2], "");
+    }
+
+    private static void addLines(Hunk hunk, Line.LineType type, int count) {
+        for (int i = 0; i < count; i++) {
+            hunk.getLines().add(new Line(type, "line"));
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.LineRuns;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the run-length encoded line types of a Hunk.
+ */
+public class LineRunsTest {
+
+    private static final String DIFF = ""
+            + "--- a/file.txt\n"
+            + "+++ b/file.txt\n"
+            + "@@ -1,8 +1,8 @@\n"
+            + " one\n"
+            + "-two\n"
+            + "-three\n"
+            + "+2\n"
+            + "+3\n"
+            + " four\n"
+            + " five\n"
+            + "+5.5\n"
+            + " six\n"
+            + "-seven\n"
+            + "\\ No newline at end of file\n"
+            + "+7\n"
+            + "\\ No newline at end of file\n";
+
+    @Test
+    public void testLineRuns() throws Exception {
+        // given
+        Hunk hunk = new UnifiedDiffParser().parse(DIFF.getBytes(StandardCharsets.UTF_8)).get(0).getLatestHunk();
+
+        // when
+        LineRuns runs = hunk.getLineRuns();
+
+        // then
+        Assert.assertEquals(10, runs.getRunCount());
+        Assert.assertEquals(13, runs.getLineCount());
+        Assert.assertEquals(Line.LineType.FROM, runs.getType(1));
+        Assert.assertEquals(1, runs.getStart(1));
+        Assert.assertEquals(2, runs.getLength(1));
+        Assert.assertEquals(Line.LineType.TO, runs.getType(2));
+        Assert.assertEquals(3, runs.getStart(2));
+        Assert.assertEquals(Line.LineType.NEUTRAL, runs.getType(9));
+        Assert.assertEquals(1, runs.getLength(9));
+        Assert.assertEquals(1, runs.findRun(2));
+        Assert.assertEquals(2, runs.findRun(4));
+        Assert.assertEquals(9, runs.findRun(12));
+
+        Assert.assertEquals(3, runs.getRemovedLineCount());
+        Assert.assertEquals(4, runs.getAddedLineCount());
+
+        // the markers between the last "from" and "to" lines do not end the changed block
+        Assert.assertEquals(3, runs.getChangedBlockCount());
+        Assert.assertEquals(1, runs.getChangedBlockStart(0));
+        Assert.assertEquals(5, runs.getChangedBlockEnd(0));
+        Assert.assertEquals(7, runs.getChangedBlockStart(1));
+        Assert.assertEquals(8, runs.getChangedBlockEnd(1));
+        Assert.assertEquals(6, runs.getChangedBlockStartRun(2));
+        Assert.assertEquals(9, runs.getChangedBlockEndRun(2));
+        Assert.assertEquals(9, runs.getChangedBlockStart(2));
+        Assert.assertEquals(12, runs.getChangedBlockEnd(2));
+        Assert.assertEquals(-1, runs.findChangedBlock(0));
+        Assert.assertEquals(0, runs.findChangedBlock(2));
+        Assert.assertEquals(1, runs.findChangedBlock(4));
+        Assert.assertEquals(2, runs.findChangedBlock(7));
+        Assert.assertEquals(-1, runs.findChangedBlock(9));
+    }
+
+    @Test
+    public void testLineRuns_RebuiltAfterChange() throws Exception {
+        // given
+        Hunk hunk = new UnifiedDiffParser().parse(DIFF.getBytes(StandardCharsets.UTF_8)).get(0).getLatestHunk();
+        LineRuns before = hunk.getLineRuns();
+
+        // when
+        hunk.getLines().add(new Line(Line.LineType.NEUTRAL, " eight"));
+        hunk.getLines().add(new Line(Line.LineType.TO, "9"));
+        LineRuns cached = hunk.getLineRuns();
+        hunk.invalidateLineRuns();
+
+        // then
+        Assert.assertSame(before, cached);
+        Assert.assertSame(hunk.getLineRuns(), hunk.getLineRuns());
+        Assert.assertNotSame(before, hunk.getLineRuns());
+        Assert.assertEquals(5, hunk.getLineRuns().getAddedLineCount());
+        Assert.assertEquals(4, hunk.getLineRuns().getChangedBlockCount());
+    }
+
+    @Test
+    public void testLineRuns_RebuiltAfterLineReplaced() throws Exception {
+        // given
+        Hunk hunk = new UnifiedDiffParser().parse(DIFF.getBytes(StandardCharsets.UTF_8)).get(0).getLatestHunk();
+        Assert.assertEquals(4, hunk.getLineRuns().getAddedLineCount());
+
+        // when
+        hunk.getLines().set(0, new Line(Line.LineType.TO, "1"));
+        hunk.invalidateLineRuns();
+
+        // then
+        Assert.assertEquals(5, hunk.getLineRuns().getAddedLineCount());
+        Assert.assertEquals(0, hunk.getLineRuns().getStart(0));
+        Assert.assertEquals(Line.LineType.TO, hunk.getLineRuns().getType(0));
+    }
+
+    @Test
+    public void testLineRuns_MatchLines() throws Exception {
+        // given
+        String patch = SyntheticPatches.gitPatch(50, 4, 7);
+        List<Diff> diffs = new UnifiedDiffParser().parse(patch.getBytes(StandardCharsets.UTF_8));
+        Random random = new Random(42);
+
+        for (Diff diff : diffs) {
+            for (Hunk hunk : diff.getHunks()) {
+                // when
+                LineRuns runs = hunk.getLineRuns();
+
+                // then
+                List<Line> lines = hunk.getLines();
+                int removed = 0;
+                int added = 0;
+                int covered = 0;
+                for (int run = 0; run < runs.getRunCount(); run++) {
+                    Assert.assertEquals(covered, runs.getStart(run));
+                    if (run > 0) {
+                        Assert.assertTrue(runs.getType(run) != runs.getType(run - 1));
+                    }
+                    for (int i = runs.getStart(run); i < runs.getStart(run) + runs.getLength(run); i++) {
+                        Assert.assertEquals(runs.getType(run), lines.get(i).getLineType());
+                        Assert.assertEquals(run, runs.findRun(i));
+                    }
+                    if (runs.getType(run) == Line.LineType.FROM) {
+                        removed += runs.getLength(run);
+                    } else if (runs.getType(run) == Line.LineType.TO) {
+                        added += runs.getLength(run);
+                    }
+                    covered += runs.getLength(run);
+                }
+                Assert.assertEquals(lines.size(), covered);
+                Assert.assertEquals(removed, runs.getRemovedLineCount());
+                Assert.assertEquals(added, runs.getAddedLineCount());
+                if (!lines.isEmpty()) {
+                    int run = runs.findRun(random.nextInt(lines.size()));
+                    int block = runs.findChangedBlock(run);
+                    Assert.assertEquals(runs.getType(run) != Line.LineType.NEUTRAL, block >= 0);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.MovedCodeDetector;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares detecting moved code with the hash index against comparing the content of all removed and added lines
+ * with each other.
+ */
+@Test(groups = "benchmark")
+public class MovedCodeDetectorBenchmark {
+
+    public void benchmarkDetect() throws Exception {
+        final List<Diff> small = parse(SyntheticPatches.movedCodePatch(500, 10, 42));
+        final List<Diff> large = parse(SyntheticPatches.movedCodePatch(20000, 10, 42));
+        final MovedCodeDetector detector = new MovedCodeDetector();
+
+        Benchmarks.measureTime("pairwise comparison (5000 lines)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                comparePairwise(small);
+            }
+        });
+        Benchmarks.measureTime("MovedCodeDetector (5000 lines)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                detector.detect(small);
+            }
+        });
+        Benchmarks.measureTime("MovedCodeDetector (200000 lines)", new Benchmarks.Task() {
+            @Override
+            public void run() {
+                detector.detect(large);
+            }
+        });
+    }
+
+    private List<Diff> parse(String patch) {
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setComputeLineHashes(true);
+        return parser.parse(patch.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The approach without an index: compares each added line with each removed line.
+     */
+    private int comparePairwise(List<Diff> diffs) {
+        List<String> removed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (Diff diff : diffs) {
+            for (Hunk hunk : diff.getHunks()) {
+                for (Line line : hunk.getLines()) {
+                    if (line.getLineType() == Line.LineType.FROM) {
+                        removed.add(line.getContent().trim());
+                    } else if (line.getLineType() == Line.LineType.TO) {
+                        added.add(line.getContent().trim());
+                    }
+                }
+            }
+        }
+        int matches = 0;
+        for (String addedLine : added) {
+            for (String removedLine : removed) {
+                if (addedLine.equals(removedLine)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.MovedBlock;
+import io.reflectoring.diffparser.api.analysis.MovedCodeDetector;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests detecting blocks of code that have been moved between hunks.
+ */
+public class MovedCodeDetectorTest {
+
+    private static final String DIFF = ""
+            + "--- a/A.java\n"
+            + "+++ b/A.java\n"
+            + "@@ -1,6 +1,3 @@\n"
+            + " class A {\n"
+            + "-    int x = 1;\n"
+            + "-    int y = 2;\n"
+            + "-    int z = x + y;\n"
+            + "-}\n"
+            + "+}\n"
+            + "\n"
+            + "--- a/B.java\n"
+            + "+++ b/B.java\n"
+            + "@@ -1,2 +1,6 @@\n"
+            + " class B {\n"
+            + "+    void run() {\n"
+            + "+        int x = 1;\n"
+            + "+        int y = 2;\n"
+            + "+        int z = x + y;\n"
+            + "+    }\n"
+            + " }\n";
+
+    @Test
+    public void testDetect() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setComputeLineHashes(true);
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        List<MovedBlock> blocks = new MovedCodeDetector().detect(diffs);
+
+        // then
+        Assert.assertEquals(1, blocks.size());
+        MovedBlock block = blocks.get(0);
+        // the closing brace is part of the block, since indentation is ignored
+        Assert.assertEquals(4, block.getLineCount());
+        Assert.assertSame(diffs.get(0), block.getFromDiff());
+        Assert.assertEquals(1, block.getFromLineIndex());
+        Assert.assertSame(diffs.get(1), block.getToDiff());
+        Assert.assertEquals(2, block.getToLineIndex());
+        Assert.assertEquals("int z = x + y;", block.getToHunk().getLines().get(4).getContent().trim());
+    }
+
+    @Test
+    public void testDetect_SyntheticRefactoring() throws Exception {
+        // given
+        List<Diff> diffs = new UnifiedDiffParser().parse(
+                SyntheticPatches.movedCodePatch(50, 5, 42).getBytes(StandardCharsets.UTF_8));
+
+        // when
+        List<MovedBlock> blocks = new MovedCodeDetector().detect(diffs);
+
+        // then
+        Assert.assertEquals(50, blocks.size());
+        for (int i = 0; i < 50; i++) {
+            Assert.assertSame(diffs.get(i), blocks.get(i).getToDiff());
+            Assert.assertSame(diffs.get((i + 49) % 50), blocks.get(i).getFromDiff());
+            Assert.assertEquals(5, blocks.get(i).getLineCount());
+        }
+    }
+
+    @Test
+    public void testContentHash_IgnoresIndentation() throws Exception {
+        Assert.assertEquals(new Line(Line.LineType.FROM, "  foo();").getContentHash(),
+                new Line(Line.LineType.TO, "\tfoo();  ").getContentHash());
+        Assert.assertFalse(new Line(Line.LineType.FROM, "foo();").getContentHash()
+                == new Line(Line.LineType.FROM, "fo();").getContentHash());
+    }
+
+}
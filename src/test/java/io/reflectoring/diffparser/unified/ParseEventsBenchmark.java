@@ -0,0 +1,39 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import jdk.jfr.Recording;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures the parse throughput while no Flight Recorder recording is running and while the events of the parser are
+ * recorded.
+ */
+@Test(groups = "benchmark")
+public class ParseEventsBenchmark {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(20000, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    public void benchmarkParse() throws Exception {
+        final UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(StandardCharsets.UTF_8);
+        Benchmarks.Task parse = new Benchmarks.Task() {
+            @Override
+            public void run() {
+                parser.parse(patch);
+            }
+        };
+        Benchmarks.measureThroughput("parse without recording", patch.length, parse);
+        try (Recording recording = new Recording()) {
+            recording.enable("io.reflectoring.diffparser.Parse");
+            recording.enable("io.reflectoring.diffparser.DiffParsed");
+            recording.enable("io.reflectoring.diffparser.Lookahead");
+            recording.enable("io.reflectoring.diffparser.VirtualBlankLine");
+            recording.start();
+            Benchmarks.measureThroughput("parse with recording", patch.length, parse);
+        }
+        Benchmarks.measureThroughput("parse after recording", patch.length, parse);
+    }
+
+}
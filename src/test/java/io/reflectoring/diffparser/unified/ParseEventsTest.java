@@ -0,0 +1,108 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the Flight Recorder events emitted by the parser.
+ */
+public class ParseEventsTest {
+
+    private static final String[] EVENTS = {
+            "io.reflectoring.diffparser.Parse",
+            "io.reflectoring.diffparser.DiffParsed",
+            "io.reflectoring.diffparser.Lookahead",
+            "io.reflectoring.diffparser.VirtualBlankLine"
+    };
+
+    @Test
+    public void testParse_EmitsEvents() throws Exception {
+        // given
+        StringBuilder diff = new StringBuilder()
+                .append("--- a.txt\n")
+                .append("+++ a.txt\n")
+                .append("@@ -1,2 +1,2 @@\n")
+                .append("-a\n")
+                .append("+b\n")
+                .append(" c\n")
+                .append("Index: b.txt\n")
+                .append("===================================================================\n")
+                .append("--- b.txt\n")
+                .append("+++ b.txt\n")
+                .append("@@ -1,2 +1,42 @@\n")
+                .append(" x\n")
+                .append("\n");
+        for (int i = 0; i < 40; i++) {
+            diff.append("+line ").append(i).append('\n');
+        }
+        diff.append('\n');
+        byte[] bytes = diff.toString().getBytes(StandardCharsets.UTF_8);
+
+        // when
+        List<Diff> diffs;
+        List<RecordedEvent> events;
+        Path file = Files.createTempFile("diffparser", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : EVENTS) {
+                recording.enable(event);
+            }
+            recording.start();
+            diffs = new UnifiedDiffParser().parse(bytes);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        RecordedEvent parse = single(events, "io.reflectoring.diffparser.Parse");
+        Assert.assertEquals(bytes.length, parse.getLong("bytesRead"));
+        Assert.assertEquals(54, parse.getLong("linesRead"));
+        Assert.assertEquals(2, parse.getInt("diffCount"));
+
+        List<RecordedEvent> parsed = ofType(events, "io.reflectoring.diffparser.DiffParsed");
+        Assert.assertEquals(2, parsed.size());
+        Assert.assertEquals("a.txt", parsed.get(0).getString("fromFileName"));
+        Assert.assertEquals(1, parsed.get(0).getInt("hunkCount"));
+        Assert.assertEquals(3, parsed.get(0).getInt("lineCount"));
+        Assert.assertEquals("b.txt", parsed.get(1).getString("toFileName"));
+        Assert.assertEquals(43, parsed.get(1).getInt("lineCount"));
+
+        RecordedEvent lookahead = single(events, "io.reflectoring.diffparser.Lookahead");
+        Assert.assertEquals(14, lookahead.getInt("lineNumber"));
+        Assert.assertEquals(41, lookahead.getInt("linesAhead"));
+
+        RecordedEvent blankLine = single(events, "io.reflectoring.diffparser.VirtualBlankLine");
+        Assert.assertEquals(7, blankLine.getInt("lineNumber"));
+    }
+
+    private RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = ofType(events, name);
+        Assert.assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+
+    private List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
+}
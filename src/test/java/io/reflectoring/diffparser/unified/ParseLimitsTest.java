@@ -0,0 +1,215 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.ParseLimitExceededException;
+import io.reflectoring.diffparser.api.ParseLimits;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests enforcing the {@link ParseLimits} of the DiffParser.
+ */
+public class ParseLimitsTest {
+
+    private static final String DIFF = ""
+            + "--- a/file.txt\n"
+            + "+++ b/file.txt\n"
+            + "@@ -1,1 +1,1 @@\n"
+            + "-a\n"
+            + "+b\n";
+
+    @Test
+    public void testParse_WithinLimits() throws Exception {
+        // given
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxLineLength(20);
+        limits.setMaxLookaheadLines(10);
+        limits.setMaxTotalLines(6);
+        limits.setMaxTotalBytes(DIFF.length());
+        limits.setMaxFiles(1);
+        limits.setMaxParseTimeMillis(60000);
+        UnifiedDiffParser parser = parser(limits, StandardCharsets.UTF_8);
+
+        // when
+        List<Diff> diffs = parser.parse(DIFF.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        Assert.assertEquals(2, diffs.get(0).getLatestHunk().getLines().size());
+    }
+
+    @Test
+    public void testParse_LineLength() throws Exception {
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxLineLength(10);
+
+        assertLimitExceeded(ParseLimitExceededException.Limit.LINE_LENGTH, 1, limits, StandardCharsets.UTF_8, DIFF);
+        assertLimitExceeded(ParseLimitExceededException.Limit.LINE_LENGTH, 1, limits, StandardCharsets.UTF_16, DIFF);
+    }
+
+    @Test
+    public void testParse_LookaheadLines() throws Exception {
+        // a blank line is followed by lines that are neither blank nor the start of a new diff
+        StringBuilder diff = new StringBuilder(DIFF).append('\n');
+        for (int i = 0; i < 100; i++) {
+            diff.append("garbage\n");
+        }
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxLookaheadLines(10);
+
+        assertLimitExceeded(ParseLimitExceededException.Limit.LOOKAHEAD_LINES, 17, limits, StandardCharsets.UTF_8,
+                diff.toString());
+    }
+
+    @Test
+    public void testParse_TotalLinesAndBytes() throws Exception {
+        ParseLimits lineLimits = new ParseLimits();
+        lineLimits.setMaxTotalLines(4);
+        ParseLimits byteLimits = new ParseLimits();
+        byteLimits.setMaxTotalBytes(40);
+
+        assertLimitExceeded(ParseLimitExceededException.Limit.TOTAL_LINES, 5, lineLimits, StandardCharsets.UTF_8, DIFF);
+        assertLimitExceeded(ParseLimitExceededException.Limit.TOTAL_BYTES, 3, byteLimits, StandardCharsets.UTF_8, DIFF);
+    }
+
+    @Test
+    public void testParse_TotalBytesOfEncodedInput() throws Exception {
+        // three bytes per character in UTF-8 and "\r\n" line terminators
+        String diff = DIFF.replace("\n", "\r\n").replace("+b", "+\u20ac\u20ac\u20ac");
+        int size = diff.getBytes(StandardCharsets.UTF_8).length;
+        ParseLimits withinLimits = new ParseLimits();
+        withinLimits.setMaxTotalBytes(size);
+        ParseLimits exceeded = new ParseLimits();
+        exceeded.setMaxTotalBytes(size - 1);
+
+        Assert.assertEquals(1, parser(withinLimits, StandardCharsets.UTF_8)
+                .parse(diff.getBytes(StandardCharsets.UTF_8)).size());
+        assertLimitExceeded(ParseLimitExceededException.Limit.TOTAL_BYTES, 5, exceeded, StandardCharsets.UTF_8, diff);
+    }
+
+    @Test
+    public void testParse_Files() throws Exception {
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxFiles(1);
+
+        assertLimitExceeded(ParseLimitExceededException.Limit.FILES, 12, limits, StandardCharsets.UTF_8,
+                DIFF + "\n" + DIFF);
+    }
+
+    @Test
+    public void testParse_ParseTime() throws Exception {
+        // given
+        ParseLimits limits = new ParseLimits();
+        limits.setMaxParseTimeMillis(1);
+        byte[] diff = SyntheticPatches.gitPatch(100, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        try {
+            parser(limits, StandardCharsets.UTF_8).parse(new SlowInputStream(diff));
+            Assert.fail("expected limit " + ParseLimitExceededException.Limit.PARSE_TIME + " to be exceeded");
+        } catch (ParseLimitExceededException e) {
+            // then
+            Assert.assertEquals(ParseLimitExceededException.Limit.PARSE_TIME, e.getLimit());
+            Assert.assertEquals(1024, e.getLineNumber());
+        }
+    }
+
+    @Test
+    public void testSetLimits_RejectsNonPositiveValues() {
+        ParseLimits limits = new ParseLimits();
+
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxLineLength(0);
+            }
+        });
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxLookaheadLines(-1);
+            }
+        });
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxTotalLines(0);
+            }
+        });
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxTotalBytes(-1);
+            }
+        });
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxFiles(0);
+            }
+        });
+        assertRejected(new Runnable() {
+            @Override
+            public void run() {
+                limits.setMaxParseTimeMillis(0);
+            }
+        });
+        Assert.assertEquals(Integer.MAX_VALUE, limits.getMaxLineLength());
+        Assert.assertEquals(Long.MAX_VALUE, limits.getMaxParseTimeMillis());
+    }
+
+    private void assertRejected(Runnable setter) {
+        try {
+            setter.run();
+            Assert.fail("expected the limit to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private void assertLimitExceeded(ParseLimitExceededException.Limit limit, long lineNumber, ParseLimits limits,
+                                     Charset charset, String diff) {
+        try {
+            parser(limits, charset).parse(diff.getBytes(charset));
+            Assert.fail("expected limit " + limit + " to be exceeded");
+        } catch (ParseLimitExceededException e) {
+            Assert.assertEquals(limit, e.getLimit());
+            Assert.assertEquals(lineNumber, e.getLineNumber());
+        }
+    }
+
+    private UnifiedDiffParser parser(ParseLimits limits, Charset charset) {
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(charset);
+        parser.setLimits(limits);
+        return parser;
+    }
+
+    /**
+     * Returns at most 1 KB per read and takes longer than the parse time limit for each read.
+     */
+    private static class SlowInputStream extends ByteArrayInputStream {
+
+        SlowInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.read(b, off, Math.min(len, 1024));
+        }
+
+    }
+
+}
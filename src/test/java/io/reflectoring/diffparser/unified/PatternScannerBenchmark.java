@@ -0,0 +1,104 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.PatternScanner;
+import io.reflectoring.diffparser.api.analysis.ScanListener;
+import io.reflectoring.diffparser.api.analysis.ScanMatch;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Compares scanning the added lines with a {@link PatternScanner} while parsing against running each expression on
+ * the parsed lines.
+ */
+@Test(groups = "benchmark")
+public class PatternScannerBenchmark {
+
+    private static final int LITERALS = 50;
+
+    private final byte[] patch = SyntheticPatches.gitPatch(5000, 10, 42).getBytes(StandardCharsets.UTF_8);
+
+    public void benchmarkScan() throws Exception {
+        final List<Pattern> patterns = new ArrayList<>();
+        PatternScanner.Builder builder = new PatternScanner.Builder();
+        for (int i = 0; i < LITERALS; i++) {
+            String literal = "secret" + i + "_";
+            patterns.add(Pattern.compile(Pattern.quote(literal)));
+            builder.addLiteral("literal" + i, literal);
+        }
+        patterns.add(Pattern.compile("AKIA[0-9A-Z]{16}"));
+        builder.addPattern("aws-key", Pattern.compile("AKIA[0-9A-Z]{16}"));
+        patterns.add(Pattern.compile("\\bpass(word)?\\s*="));
+        builder.addPattern("password", Pattern.compile("\\bpass(word)?\\s*="));
+        final PatternScanner scanner = builder.build();
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Benchmarks.measureThroughput("parse without scanning", patch.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    new UnifiedDiffParser().parse(patch);
+                }
+            });
+            Benchmarks.measureThroughput("parse, then run each expression", patch.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    scanSeparately(new UnifiedDiffParser().parse(patch), patterns);
+                }
+            });
+            Benchmarks.measureThroughput("parse with inline scanner", patch.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    parse(scanner, null);
+                }
+            });
+            Benchmarks.measureThroughput("parse with parallel scanner", patch.length, new Benchmarks.Task() {
+                @Override
+                public void run() {
+                    parse(scanner, executor);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int scanSeparately(List<Diff> diffs, List<Pattern> patterns) {
+        int matches = 0;
+        for (Diff diff : diffs) {
+            for (Hunk hunk : diff.getHunks()) {
+                for (Line line : hunk.getLines()) {
+                    if (line.getLineType() == Line.LineType.TO) {
+                        for (Pattern pattern : patterns) {
+                            if (pattern.matcher(line.getContentSequence()).find()) {
+                                matches++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void parse(PatternScanner scanner, ExecutorService executor) {
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setScanner(scanner, new ScanListener() {
+            @Override
+            public void onMatch(ScanMatch match) {
+                // only the scanning is measured
+            }
+        });
+        parser.setScanExecutor(executor);
+        parser.parse(patch);
+    }
+
+}
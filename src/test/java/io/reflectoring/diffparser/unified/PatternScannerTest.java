@@ -0,0 +1,242 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.analysis.PatternScanner;
+import io.reflectoring.diffparser.api.analysis.ScanListener;
+import io.reflectoring.diffparser.api.analysis.ScanMatch;
+import io.reflectoring.diffparser.api.model.Line;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Tests scanning lines with a {@link PatternScanner}, standalone and while parsing.
+ */
+public class PatternScannerTest {
+
+    private static final String DIFF = ""
+            + "--- a/config.properties\n"
+            + "+++ b/config.properties\n"
+            + "@@ -3,4 +3,5 @@\n"
+            + " host=localhost\n"
+            + "-password=secret\n"
+            + "+password=hunter2\n"
+            + "+token=AKIA1234567890\n"
+            + " port=8080\n"
+            + "-user=admin\n"
+            + "\\ No newline at end of file\n"
+            + "+user=root\n"
+            + "\\ No newline at end of file\n";
+
+    @Test
+    public void testScan_OverlappingLiterals() {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addLiteral("he", "he")
+                .addLiteral("she", "she")
+                .addLiteral("his", "his")
+                .addLiteral("hers", "hers")
+                .build();
+        List<ScanMatch> matches = new ArrayList<>();
+
+        // when
+        scanner.scan("ushers", "file.txt", Line.LineType.TO, 1, matches);
+
+        // then
+        Assert.assertEquals(3, matches.size());
+        assertMatch(matches.get(0), "she", 1, 4);
+        assertMatch(matches.get(1), "he", 2, 4);
+        assertMatch(matches.get(2), "hers", 2, 6);
+    }
+
+    @Test
+    public void testScan_NonAsciiLiterals() {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addLiteral("umlaut", "gr\u00fc\u00dfe")
+                .addLiteral("greek", "\u03b1\u03b2")
+                .build();
+        List<ScanMatch> matches = new ArrayList<>();
+
+        // when
+        scanner.scan("gr\u00fcgr\u00fc\u00dfe \u03b1\u03b1\u03b2", "file.txt", Line.LineType.TO, 1, matches);
+
+        // then
+        Assert.assertEquals(2, matches.size());
+        assertMatch(matches.get(0), "umlaut", 3, 8);
+        assertMatch(matches.get(1), "greek", 10, 12);
+    }
+
+    @Test
+    public void testScan_Patterns() {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addPattern("aws-key", Pattern.compile("AKIA[0-9A-Z]{10}"))
+                .addPattern("digits", Pattern.compile("\\d{4}"))
+                .build();
+        List<ScanMatch> matches = new ArrayList<>();
+
+        // when
+        scanner.scan("token=AKIA1234567890 pin=0000", "file.txt", Line.LineType.TO, 1, matches);
+        scanner.scan("no key here: AKIA", "file.txt", Line.LineType.TO, 2, matches);
+
+        // then
+        Assert.assertEquals(4, matches.size());
+        assertMatch(matches.get(0), "aws-key", 6, 20);
+        assertMatch(matches.get(1), "digits", 10, 14);
+        assertMatch(matches.get(2), "digits", 14, 18);
+        assertMatch(matches.get(3), "digits", 25, 29);
+    }
+
+    @Test
+    public void testScan_CaseInsensitiveLiteralPattern() {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addPattern("password", Pattern.compile("Password", Pattern.LITERAL | Pattern.CASE_INSENSITIVE))
+                .build();
+        List<ScanMatch> matches = new ArrayList<>();
+
+        // when
+        scanner.scan("password=hunter2", "file.txt", Line.LineType.TO, 1, matches);
+        scanner.scan("PASSWORD=hunter2", "file.txt", Line.LineType.TO, 2, matches);
+
+        // then
+        Assert.assertEquals(2, matches.size());
+        assertMatch(matches.get(0), "password", 0, 8);
+        assertMatch(matches.get(1), "password", 0, 8);
+    }
+
+    @Test
+    public void testScan_PatternsWithEscapeArguments() {
+        String[][] patternsAndLines = {
+                {"key\\x3dsecretvalue", "key=secretvalue"},
+                {"ab\\x{41}cdef", "abAcdef"},
+                {"zz\\u0041bcd", "zzAbcd"},
+                {"abc\\0101def", "abcAdef"},
+                {"abc\\07def", "abc\u0007def"},
+                {"abc\\cAdef", "abc\u0001def"},
+                {"(?<word>abc)-\\k<word>xyz", "abc-abcxyz"},
+                {"abc\\p{Lu}def", "abcXdef"},
+                {"abc\\pLdef", "abcxdef"},
+                {"\\Qa.b\\E+xyz", "a.bbxyz"},
+                {"[\\Q]\\E]abc", "]abc"},
+                {"[a-z&&[^x]]yz", "ayz"},
+        };
+        for (String[] patternAndLine : patternsAndLines) {
+            // given
+            Pattern pattern = Pattern.compile(patternAndLine[0]);
+            PatternScanner scanner = new PatternScanner.Builder()
+                    .addPattern("pattern", pattern)
+                    .build();
+            List<ScanMatch> matches = new ArrayList<>();
+
+            // when
+            scanner.scan(patternAndLine[1], "file.txt", Line.LineType.TO, 1, matches);
+
+            // then
+            Assert.assertTrue(pattern.matcher(patternAndLine[1]).find());
+            Assert.assertEquals(patternAndLine[0], 1, matches.size());
+        }
+    }
+
+    @Test
+    public void testParse_ReportsAddedLines() throws Exception {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addLiteral("password", "password=")
+                .addLiteral("user", "user=")
+                .addPattern("aws-key", Pattern.compile("AKIA[0-9]+"))
+                .build();
+
+        // when
+        List<ScanMatch> matches = parse(scanner, null, DIFF);
+
+        // then
+        Assert.assertEquals(3, matches.size());
+        Assert.assertEquals("password", matches.get(0).getPatternId());
+        Assert.assertEquals("b/config.properties", matches.get(0).getFileName());
+        Assert.assertEquals(4, matches.get(0).getLineNumber());
+        Assert.assertEquals("aws-key", matches.get(1).getPatternId());
+        Assert.assertEquals(5, matches.get(1).getLineNumber());
+        Assert.assertEquals("AKIA1234567890", matches.get(1).getMatchedText());
+        Assert.assertEquals("user", matches.get(2).getPatternId());
+        Assert.assertEquals(7, matches.get(2).getLineNumber());
+    }
+
+    @Test
+    public void testParse_ReportsRemovedLines() throws Exception {
+        // given
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addLiteral("user", "user=")
+                .setScanRemovedLines(true)
+                .build();
+
+        // when
+        List<ScanMatch> matches = parse(scanner, null, DIFF);
+
+        // then
+        Assert.assertEquals(2, matches.size());
+        Assert.assertEquals(Line.LineType.FROM, matches.get(0).getLineType());
+        Assert.assertEquals("a/config.properties", matches.get(0).getFileName());
+        Assert.assertEquals(6, matches.get(0).getLineNumber());
+        Assert.assertEquals(Line.LineType.TO, matches.get(1).getLineType());
+        Assert.assertEquals(7, matches.get(1).getLineNumber());
+    }
+
+    @Test
+    public void testParse_ParallelScanDeliversMatchesInOrder() throws Exception {
+        // given
+        String patch = SyntheticPatches.gitPatch(500, 5, 42);
+        PatternScanner scanner = new PatternScanner.Builder()
+                .addLiteral("null", "null")
+                .addLiteral("name", "name")
+                .addPattern("loop", Pattern.compile("i < \\w+"))
+                .setScanRemovedLines(true)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        List<ScanMatch> inline = parse(scanner, null, patch);
+        List<ScanMatch> parallel;
+        try {
+            parallel = parse(scanner, executor, patch);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        Assert.assertTrue(inline.size() > 1000);
+        Assert.assertEquals(inline.size(), parallel.size());
+        for (int i = 0; i < inline.size(); i++) {
+            Assert.assertEquals(inline.get(i).toString(), parallel.get(i).toString());
+            Assert.assertEquals(inline.get(i).getLineType(), parallel.get(i).getLineType());
+        }
+    }
+
+    private List<ScanMatch> parse(PatternScanner scanner, ExecutorService executor, String diff) {
+        final List<ScanMatch> matches = new ArrayList<>();
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setScanner(scanner, new ScanListener() {
+            @Override
+            public void onMatch(ScanMatch match) {
+                matches.add(match);
+            }
+        });
+        parser.setScanExecutor(executor);
+        parser.parse(diff.getBytes(StandardCharsets.UTF_8));
+        return matches;
+    }
+
+    private void assertMatch(ScanMatch match, String patternId, int start, int end) {
+        Assert.assertEquals(patternId, match.getPatternId());
+        Assert.assertEquals(start, match.getStart());
+        Assert.assertEquals(end, match.getEnd());
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.CancellationToken;
+import io.reflectoring.diffparser.api.ParseCancelledException;
+import io.reflectoring.diffparser.api.ParseProgress;
+import io.reflectoring.diffparser.api.ParseProgressListener;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests reporting the progress of a parse and cancelling it.
+ */
+public class ProgressAndCancellationTest {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(200, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testParse_ReportsProgress() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setProgressInterval(10000);
+        final List<ParseProgress> reports = new ArrayList<>();
+        parser.setProgressListener(new ParseProgressListener() {
+            @Override
+            public void onProgress(ParseProgress progress) {
+                reports.add(progress);
+            }
+        });
+
+        // when
+        List<Diff> diffs = parser.parse(patch);
+
+        // then
+        Assert.assertEquals(200, diffs.size());
+        Assert.assertTrue(reports.size() > 2);
+        for (int i = 1; i < reports.size(); i++) {
+            Assert.assertTrue(reports.get(i).getBytesRead() >= reports.get(i - 1).getBytesRead());
+            Assert.assertTrue(reports.get(i).getDiffsCompleted() >= reports.get(i - 1).getDiffsCompleted());
+        }
+        ParseProgress last = reports.get(reports.size() - 1);
+        Assert.assertEquals(patch.length, last.getBytesRead());
+        Assert.assertEquals(200, last.getDiffsCompleted());
+        Assert.assertTrue(last.getBytesPerSecond() > 0);
+    }
+
+    @Test
+    public void testParse_ReportsCompressedBytes() throws Exception {
+        // given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(compressed);
+        out.write(patch);
+        out.close();
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        final List<ParseProgress> reports = new ArrayList<>();
+        parser.setProgressListener(new ParseProgressListener() {
+            @Override
+            public void onProgress(ParseProgress progress) {
+                reports.add(progress);
+            }
+        });
+
+        // when
+        parser.parse(compressed.toByteArray());
+
+        // then
+        Assert.assertEquals(compressed.size(), reports.get(reports.size() - 1).getBytesRead());
+    }
+
+    @Test
+    public void testParse_Cancelled() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setProgressInterval(10000);
+        final CancellationToken token = new CancellationToken();
+        parser.setCancellationToken(token);
+        parser.setProgressListener(new ParseProgressListener() {
+            @Override
+            public void onProgress(ParseProgress progress) {
+                // cancels like a scheduler would do from another thread
+                token.cancel();
+            }
+        });
+
+        // when
+        try {
+            parser.parse(patch);
+            Assert.fail("expected the parse to be cancelled");
+        } catch (ParseCancelledException e) {
+            // then
+            Assert.assertTrue(e.getLineNumber() > 1);
+            Assert.assertTrue(e.getLineNumber() < 3000);
+        }
+    }
+
+}
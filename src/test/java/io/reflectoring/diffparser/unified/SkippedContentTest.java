@@ -0,0 +1,156 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests skipping binary patch data and hunks exceeding the configured limits.
+ */
+public class SkippedContentTest {
+
+    private static final String BINARY_PATCH = ""
+            + "diff --git a/image.png b/image.png\n"
+            + "index 6a2b3c4..7d8e9f0 100644\n"
+            + "GIT binary patch\n"
+            + "literal 12\n"
+            + "TcmZ?wbhEHbRA5kGFm3w+\n"
+            + "\n"
+            + "literal 8\n"
+            + "PcmZ?wbh5Al\n"
+            + "\n"
+            + "diff --git a/README.md b/README.md\n"
+            + "index 5809534..4f4147a 100644\n"
+            + "--- a/README.md\n"
+            + "+++ b/README.md\n"
+            + "@@ -1,2 +1,2 @@\n"
+            + " # title\n"
+            + "-old\n"
+            + "+new\n";
+
+    private static final String BINARY_PATCH_IN_LOG = ""
+            + "commit 2f4e6a8\n"
+            + "\n"
+            + "    add image\n"
+            + "\n"
+            + "diff --git a/image.png b/image.png\n"
+            + "new file mode 100644\n"
+            + "index 0000000..7d8e9f0\n"
+            + "GIT binary patch\n"
+            + "literal 12\n"
+            + "TcmZ?wbhEHbRA5kGFm3w+\n"
+            + "\n"
+            + "literal 0\n"
+            + "HcmV?d00001\n"
+            + "\n"
+            + "commit 9c1b3d5\n"
+            + "\n"
+            + "    fix readme\n"
+            + "\n"
+            + "--- a/README.md\n"
+            + "+++ b/README.md\n"
+            + "@@ -1,1 +1,1 @@\n"
+            + "-old\n"
+            + "+new\n";
+
+    private static final String TWO_HUNKS = ""
+            + "--- a/file.txt\n"
+            + "+++ b/file.txt\n"
+            + "@@ -1,4 +1,4 @@\n"
+            + " first\n"
+            + "-second\n"
+            + "+2nd\n"
+            + " third\n"
+            + " fourth\n"
+            + "@@ -10,1 +10,1 @@\n"
+            + "-a\n"
+            + "+b\n";
+
+    @Test
+    public void testParse_BinaryPatchIsSkipped() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+
+        // when
+        List<Diff> diffs = parser.parse(BINARY_PATCH.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        Diff binary = diffs.get(0);
+        Assert.assertTrue(binary.isBinary());
+        Assert.assertEquals(3, binary.getHeaderLines().size());
+        Assert.assertEquals("a/image.png", binary.getFromFileName());
+        Assert.assertTrue(binary.getHunks().isEmpty());
+        Assert.assertEquals(11 + 22 + 1 + 10 + 12, binary.getSkippedByteCount());
+
+        Diff text = diffs.get(1);
+        Assert.assertEquals("a/README.md", text.getFromFileName());
+        Assert.assertEquals(3, text.getLatestHunk().getLines().size());
+    }
+
+    @Test
+    public void testParse_BinaryPatchFollowedByCommitMessage() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+
+        // when
+        List<Diff> diffs = parser.parse(BINARY_PATCH_IN_LOG.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(2, diffs.size());
+        Diff binary = diffs.get(0);
+        Assert.assertTrue(binary.isBinary());
+        Assert.assertEquals("GIT binary patch", binary.getHeaderLines().get(binary.getHeaderLines().size() - 1));
+        Assert.assertEquals(11 + 22 + 1 + 10 + 12, binary.getSkippedByteCount());
+
+        Diff text = diffs.get(1);
+        Assert.assertEquals("commit 9c1b3d5", text.getHeaderLines().get(0));
+        Assert.assertEquals("a/README.md", text.getFromFileName());
+        Assert.assertEquals(2, text.getLatestHunk().getLines().size());
+    }
+
+    @Test
+    public void testParse_HunkExceedingLineLimitIsSkipped() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setMaxHunkLines(3);
+
+        // when
+        List<Diff> diffs = parser.parse(TWO_HUNKS.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals(1, diffs.size());
+        List<Hunk> hunks = diffs.get(0).getHunks();
+        Assert.assertEquals(2, hunks.size());
+        Assert.assertTrue(hunks.get(0).isSkipped());
+        Assert.assertTrue(hunks.get(0).getLines().isEmpty());
+        Assert.assertEquals(7 + 8 + 5 + 7 + 8, hunks.get(0).getSkippedByteCount());
+        Assert.assertFalse(hunks.get(1).isSkipped());
+        Assert.assertEquals(2, hunks.get(1).getLines().size());
+    }
+
+    @Test
+    public void testParse_HunkExceedingByteLimitIsSkipped() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setMaxHunkBytes(10);
+
+        // when
+        List<Diff> diffs = parser.parse(TWO_HUNKS.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        List<Hunk> hunks = diffs.get(0).getHunks();
+        Assert.assertEquals(2, hunks.size());
+        Assert.assertTrue(hunks.get(0).isSkipped());
+        Assert.assertTrue(hunks.get(0).getLines().isEmpty());
+        Assert.assertEquals(7 + 8 + 5 + 7 + 8, hunks.get(0).getSkippedByteCount());
+        Assert.assertFalse(hunks.get(1).isSkipped());
+        Assert.assertEquals(2, hunks.get(1).getLines().size());
+    }
+
+}
@@ -0,0 +1,48 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.StringPool;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the heap retained by the parsed patches of a commit history touching the same files over and over with
+ * and without a {@link StringPool}.
+ */
+@Test(groups = "benchmark")
+public class StringPoolBenchmark {
+
+    private static final int COMMITS = 300;
+
+    private final List<byte[]> history = new ArrayList<>();
+
+    public StringPoolBenchmark() {
+        for (int commit = 0; commit < COMMITS; commit++) {
+            history.add(SyntheticPatches.gitPatch(200, 1, commit).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public void benchmarkFootprint() throws Exception {
+        measure("without pool", null);
+        measure("with pool", new StringPool());
+    }
+
+    private void measure(String name, StringPool pool) throws Exception {
+        long before = Benchmarks.usedHeapAfterGc();
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setStringPool(pool);
+        List<List<Diff>> parsedHistory = new ArrayList<>();
+        for (byte[] patch : history) {
+            parsedHistory.add(parser.parse(patch));
+        }
+        long retained = Benchmarks.usedHeapAfterGc() - before;
+        Benchmarks.report("retained heap (" + name + ")", retained / (1024.0 * 1024), "MB");
+        // keep the history alive until it has been measured
+        Benchmarks.report("parsed patches (" + name + ")", parsedHistory.size(), "");
+    }
+
+}
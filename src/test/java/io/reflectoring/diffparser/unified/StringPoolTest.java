@@ -0,0 +1,99 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.StringPool;
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.model.Diff;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests deduplicating the Strings of parsed Diffs with a {@link StringPool}.
+ */
+public class StringPoolTest {
+
+    @Test
+    public void testParse_DeduplicatesAcrossParsers() throws Exception {
+        // given
+        StringPool pool = new StringPool();
+        UnifiedDiffParser firstParser = new UnifiedDiffParser();
+        firstParser.setStringPool(pool);
+        UnifiedDiffParser secondParser = new UnifiedDiffParser();
+        secondParser.setStringPool(pool);
+
+        // when
+        List<Diff> first = firstParser.parse(SyntheticPatches.gitPatch(10, 1, 1).getBytes(StandardCharsets.UTF_8));
+        List<Diff> second = secondParser.parse(SyntheticPatches.gitPatch(10, 1, 2).getBytes(StandardCharsets.UTF_8));
+
+        // then
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(first.get(i).getFromFileName(), second.get(i).getFromFileName());
+            Assert.assertSame(first.get(i).getFromFileName(), second.get(i).getFromFileName());
+            Assert.assertSame(first.get(i).getToFileName(), second.get(i).getToFileName());
+            Assert.assertSame(first.get(i).getHeaderLines().get(0), second.get(i).getHeaderLines().get(0));
+        }
+    }
+
+    @Test
+    public void testParse_SkipsIndexLines() throws Exception {
+        // given
+        StringPool pool = new StringPool();
+        UnifiedDiffParser firstParser = new UnifiedDiffParser();
+        firstParser.setStringPool(pool);
+        UnifiedDiffParser secondParser = new UnifiedDiffParser();
+        secondParser.setStringPool(pool);
+        byte[] patch = SyntheticPatches.gitPatch(1, 1, 1).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        Diff first = firstParser.parse(patch).get(0);
+        Diff second = secondParser.parse(patch).get(0);
+
+        // then
+        String index = first.getHeaderLines().get(1);
+        Assert.assertTrue(index.startsWith("index "));
+        Assert.assertEquals(index, second.getHeaderLines().get(1));
+        Assert.assertNotSame(index, second.getHeaderLines().get(1));
+        Assert.assertSame(first.getFromBlobId(), second.getFromBlobId());
+        Assert.assertEquals(Integer.valueOf(0100644), first.getToFileMode());
+        Assert.assertSame(first.getToFileMode(), second.getToFileMode());
+    }
+
+    @Test
+    public void testParse_KeepsTimestampCutOff() throws Exception {
+        // given
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setStringPool(new StringPool());
+        String diff = "--- a/file.txt\t2013-10-23 19:41:56 UTC (rev 46)\n"
+                + "+++ b/file.txt\t2013-10-23 19:44:39 UTC (rev 47)\n"
+                + "@@ -1 +1 @@\n"
+                + "-a\n"
+                + "+b\n";
+
+        // when
+        List<Diff> diffs = parser.parse(diff.getBytes(StandardCharsets.UTF_8));
+
+        // then
+        Assert.assertEquals("a/file.txt", diffs.get(0).getFromFileName());
+        Assert.assertEquals("b/file.txt", diffs.get(0).getToFileName());
+    }
+
+    @Test
+    public void testCanonicalize_Bounded() throws Exception {
+        // given
+        StringPool pool = new StringPool(100);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            pool.canonicalize("path/" + i);
+        }
+        String pooled = pool.canonicalize(new String("path/999"));
+
+        // then
+        Assert.assertEquals(128, pool.getCapacity());
+        Assert.assertSame(pooled, pool.canonicalize(new String("path/999")));
+        Assert.assertNull(pool.canonicalize(null));
+    }
+
+}
@@ -0,0 +1,273 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates git-style patches of source code changes for tests and benchmarks.
+ */
+final class SyntheticPatches {
+
+    private static final String[] STATEMENTS = {
+            "int count = items.size();",
+            "return result;",
+            "if (value == null) {",
+            "}",
+            "logger.debug(\"processing {}\", item);",
+            "for (int i = 0; i < length; i++) {",
+            "builder.append(separator).append(name);",
+            "throw new IllegalStateException(\"unexpected state\");",
+            "private final Map<String, List<Item>> itemsByName = new HashMap<>();",
+            "// check the preconditions before changing anything",
+            "public void setName(String name) {",
+            "this.name = name;",
+    };
+
+    private SyntheticPatches() {
+    }
+
+    /**
+     * Creates a patch in the format of "git diff".
+     *
+     * @param files        the number of changed files.
+     * @param hunksPerFile the number of hunks per file.
+     * @param seed         the seed for the random content.
+     * @return the patch.
+     */
+    static String gitPatch(int files, int hunksPerFile, long seed) {
+        Random random = new Random(seed);
+        StringBuilder patch = new StringBuilder();
+        for (int file = 0; file < files; file++) {
+            String path = "src/main/java/com/example/module" + (file % 17) + "/Class" + file + ".java";
+            patch.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            patch.append("index ").append(Integer.toHexString(random.nextInt())).append("..")
+                    .append(Integer.toHexString(random.nextInt())).append(" 100644\n");
+            patch.append("--- a/").append(path).append('\n');
+            patch.append("+++ b/").append(path).append('\n');
+            int line = 1 + random.nextInt(20);
+            for (int hunk = 0; hunk < hunksPerFile; hunk++) {
+                int removed = 1 + random.nextInt(6);
+                int added = 1 + random.nextInt(8);
+                patch.append("@@ -").append(line).append(',').append(6 + removed)
+                        .append(" +").append(line).append(',').append(6 + added).append(" @@\n");
+                appendLines(patch, ' ', 3, random);
+                appendLines(patch, '-', removed, random);
+                appendLines(patch, '+', added, random);
+                appendLines(patch, ' ', 3, random);
+                line += 20 + random.nextInt(40);
+            }
+        }
+        return patch.toString();
+    }
+
+    /**
+     * Creates a patch in the format of "git diff" for a refactoring that moves a block of code from each file to the
+     * next file, re-indenting it.
+     *
+     * @param files      the number of changed files.
+     * @param blockLines the number of lines of each moved block.
+     * @param seed       the seed for the random content.
+     * @return the patch.
+     */
+    static String movedCodePatch(int files, int blockLines, long seed) {
+        Random random = new Random(seed);
+        String[][] blocks = new String[files][blockLines];
+        for (int file = 0; file < files; file++) {
+            for (int line = 0; line < blockLines; line++) {
+                blocks[file][line] = "result" + line + " = compute" + file + "(" + random.nextInt(1000) + ");";
+            }
+        }
+        StringBuilder patch = new StringBuilder();
+        for (int file = 0; file < files; file++) {
+            String path = "src/main/java/com/example/module" + (file % 17) + "/Class" + file + ".java";
+            patch.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            patch.append("--- a/").append(path).append('\n');
+            patch.append("+++ b/").append(path).append('\n');
+            patch.append("@@ -10,").append(blockLines + 2).append(" +10,").append(blockLines + 2).append(" @@\n");
+            patch.append(" class Class").append(file).append(" {\n");
+            for (String line : blocks[file]) {
+                patch.append("-    ").append(line).append('\n');
+            }
+            for (String line : blocks[(file + files - 1) % files]) {
+                patch.append("+        ").append(line).append('\n');
+            }
+            patch.append(" }\n");
+        }
+        return patch.toString();
+    }
+
+    /**
+     * Creates the lines of a file from a small set of statements, so that lines repeat like in source code.
+     */
+    static List<String> randomFile(int lines, Random random) {
+        List<String> file = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            file.add(STATEMENTS[random.nextInt(STATEMENTS.length)]);
+        }
+        return file;
+    }
+
+    /**
+     * Returns a copy of the file in which some lines have been replaced, inserted or removed.
+     */
+    static List<String> randomEdit(List<String> file, int edits, Random random) {
+        List<String> edited = new ArrayList<>(file);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(edited.size() + 1);
+            int length = 1 + random.nextInt(3);
+            switch (random.nextInt(3)) {
+                case 0:
+                    for (int j = position; j < Math.min(position + length, edited.size()); j++) {
+                        edited.set(j, "changed" + random.nextInt(1000));
+                    }
+                    break;
+                case 1:
+                    for (int j = 0; j < length; j++) {
+                        edited.add(position, "inserted" + random.nextInt(1000));
+                    }
+                    break;
+                default:
+                    for (int j = 0; j < length && position < edited.size(); j++) {
+                        edited.remove(position);
+                    }
+            }
+        }
+        return edited;
+    }
+
+    /**
+     * Creates a unified diff between two versions of a file from their longest common subsequence.
+     *
+     * @param path    the path of the file.
+     * @param from    the lines of the old version.
+     * @param to      the lines of the new version.
+     * @param context the number of unchanged lines around each change.
+     * @return the diff.
+     */
+    static String unifiedDiff(String path, List<String> from, List<String> to, int context) {
+        int n = from.size();
+        int m = to.size();
+        int[][] common = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = m - 1; j >= 0; j--) {
+                common[i][j] = from.get(i).equals(to.get(j))
+                        ? common[i + 1][j + 1] + 1 : Math.max(common[i + 1][j], common[i][j + 1]);
+            }
+        }
+        StringBuilder kinds = new StringBuilder();
+        List<String> texts = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && from.get(i).equals(to.get(j))) {
+                kinds.append(' ');
+                texts.add(from.get(i++));
+                j++;
+            } else if (j == m || (i < n && common[i + 1][j] >= common[i][j + 1])) {
+                kinds.append('-');
+                texts.add(from.get(i++));
+            } else {
+                kinds.append('+');
+                texts.add(to.get(j++));
+            }
+        }
+
+        // each operation within the context of a change belongs to a hunk
+        int size = kinds.length();
+        boolean[] inHunk = new boolean[size];
+        for (int k = 0; k < size; k++) {
+            if (kinds.charAt(k) != ' ') {
+                for (int c = Math.max(0, k - context); c <= Math.min(size - 1, k + context); c++) {
+                    inHunk[c] = true;
+                }
+            }
+        }
+        StringBuilder diff = new StringBuilder();
+        diff.append("--- a/").append(path).append('\n');
+        diff.append("+++ b/").append(path).append('\n');
+        int fromLine = 0;
+        int toLine = 0;
+        int k = 0;
+        while (k < size) {
+            if (!inHunk[k]) {
+                fromLine++;
+                toLine++;
+                k++;
+                continue;
+            }
+            int end = k;
+            int fromCount = 0;
+            int toCount = 0;
+            while (end < size && inHunk[end]) {
+                fromCount += kinds.charAt(end) != '+' ? 1 : 0;
+                toCount += kinds.charAt(end) != '-' ? 1 : 0;
+                end++;
+            }
+            diff.append("@@ -").append(fromCount == 0 ? fromLine : fromLine + 1).append(',').append(fromCount)
+                    .append(" +").append(toCount == 0 ? toLine : toLine + 1).append(',').append(toCount).append(" @@\n");
+            for (; k < end; k++) {
+                diff.append(kinds.charAt(k)).append(texts.get(k)).append('\n');
+            }
+            fromLine += fromCount;
+            toLine += toCount;
+        }
+        return diff.toString();
+    }
+
+    /**
+     * Applies a Diff to the lines of its "from" file and checks that the removed and unchanged lines match.
+     *
+     * @return the lines of the "to" file.
+     */
+    static List<String> apply(List<String> from, Diff diff) {
+        List<String> to = new ArrayList<>(from.size());
+        int next = 0;
+        for (Hunk hunk : diff.getHunks()) {
+            int begin = hunk.getFromFileRange().getLineCount() == 0
+                    ? hunk.getFromFileRange().getLineStart() : hunk.getFromFileRange().getLineStart() - 1;
+            if (begin < next) {
+                throw new IllegalStateException("overlapping hunk at line " + begin);
+            }
+            to.addAll(from.subList(next, begin));
+            next = begin;
+            for (Line line : hunk.getLines()) {
+                String content = line.getContent();
+                switch (line.getLineType()) {
+                    case TO:
+                        to.add(content);
+                        break;
+                    case FROM:
+                        checkLine(from, next++, content);
+                        break;
+                    default:
+                        checkLine(from, next++, content.substring(1));
+                        to.add(content.substring(1));
+                }
+            }
+        }
+        to.addAll(from.subList(next, from.size()));
+        return to;
+    }
+
+    private static void checkLine(List<String> file, int index, String expected) {
+        if (index >= file.size() || !file.get(index).equals(expected)) {
+            throw new IllegalStateException("line " + (index + 1) + " does not match '" + expected + "'");
+        }
+    }
+
+    private static void appendLines(StringBuilder patch, char prefix, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            patch.append(prefix);
+            int indentation = 4 * (1 + random.nextInt(3));
+            for (int j = 0; j < indentation; j++) {
+                patch.append(' ');
+            }
+            patch.append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append('\n');
+        }
+    }
+}
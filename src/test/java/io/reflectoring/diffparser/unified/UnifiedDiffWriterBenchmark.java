@@ -0,0 +1,84 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.UnifiedDiffWriter;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Measures the throughput of the {@link UnifiedDiffWriter} for different targets against rendering the Diffs with a
+ * StringBuilder.
+ */
+@Test(groups = "benchmark")
+public class UnifiedDiffWriterBenchmark {
+
+    private final byte[] patch = SyntheticPatches.gitPatch(20000, 5, 42).getBytes(StandardCharsets.UTF_8);
+
+    private final List<Diff> diffs = new UnifiedDiffParser().parse(patch);
+
+    public void benchmarkWrite() throws Exception {
+        final UnifiedDiffWriter writer = new UnifiedDiffWriter();
+        writer.setCharset(StandardCharsets.UTF_8);
+        final CharArrayWriter chars = new CharArrayWriter(patch.length);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(patch.length);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(patch.length);
+        Benchmarks.measureThroughput("StringBuilder, then getBytes()", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() {
+                render(diffs).getBytes(StandardCharsets.UTF_8);
+            }
+        });
+        Benchmarks.measureThroughput("writer to Writer", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() throws Exception {
+                chars.reset();
+                writer.write(diffs, chars);
+            }
+        });
+        Benchmarks.measureThroughput("writer to OutputStream", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() throws Exception {
+                bytes.reset();
+                writer.write(diffs, bytes);
+            }
+        });
+        Benchmarks.measureThroughput("writer to direct ByteBuffer", patch.length, new Benchmarks.Task() {
+            @Override
+            public void run() {
+                buffer.clear();
+                writer.write(diffs, buffer);
+            }
+        });
+    }
+
+    private String render(List<Diff> diffs) {
+        StringBuilder text = new StringBuilder();
+        for (Diff diff : diffs) {
+            for (String headerLine : diff.getHeaderLines()) {
+                text.append(headerLine).append('\n');
+            }
+            text.append("--- ").append(diff.getFromFileName()).append('\n');
+            text.append("+++ ").append(diff.getToFileName()).append('\n');
+            for (Hunk hunk : diff.getHunks()) {
+                text.append(String.format("@@ -%d,%d +%d,%d @@%n", hunk.getFromFileRange().getLineStart(),
+                        hunk.getFromFileRange().getLineCount(), hunk.getToFileRange().getLineStart(),
+                        hunk.getToFileRange().getLineCount()));
+                for (Line line : hunk.getLines()) {
+                    String prefix = line.getLineType() == Line.LineType.FROM ? "-"
+                            : line.getLineType() == Line.LineType.TO ? "+" : "";
+                    text.append(prefix + line.getContent()).append('\n');
+                }
+            }
+        }
+        return text.toString();
+    }
+
+}
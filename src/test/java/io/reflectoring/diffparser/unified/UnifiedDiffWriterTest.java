@@ -0,0 +1,175 @@
+package io.reflectoring.diffparser.unified;
+
+import io.reflectoring.diffparser.api.UnifiedDiffParser;
+import io.reflectoring.diffparser.api.UnifiedDiffWriter;
+import io.reflectoring.diffparser.api.model.Diff;
+import io.reflectoring.diffparser.api.model.Hunk;
+import io.reflectoring.diffparser.api.model.Line;
+import io.reflectoring.diffparser.api.model.Range;
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests writing parsed Diffs with the {@link UnifiedDiffWriter} and parsing them again.
+ */
+public class UnifiedDiffWriterTest {
+
+    private static final String GIT_DIFF = ""
+            + "diff --git a/file.txt b/file.txt\n"
+            + "index 5809534..4f4147a 100644\n"
+            + "--- a/file.txt\n"
+            + "+++ b/file.txt\n"
+            + "@@ -1,3 +1,3 @@\n"
+            + " one\n"
+            + "-two\n"
+            + "+2\n"
+            + " three\n"
+            + "\\ No newline at end of file\n"
+            + "diff --git a/image.png b/image.png\n"
+            + "index 6a2b3c4..7d8e9f0 100644\n"
+            + "Binary files a/image.png and b/image.png differ\n";
+
+    @Test
+    public void testWrite_GitDiffIsWrittenVerbatim() throws Exception {
+        // given
+        List<Diff> diffs = parse(GIT_DIFF.getBytes(StandardCharsets.UTF_8));
+        StringWriter writer = new StringWriter();
+
+        // when
+        new UnifiedDiffWriter().write(diffs, writer);
+
+        // then
+        Assert.assertEquals(GIT_DIFF, writer.toString());
+    }
+
+    @Test
+    public void testWrite_RoundTripOfFixtures() throws Exception {
+        for (String fixture : Arrays.asList("git.diff", "git-extended-headers.diff", "svn.diff", "tortoise.diff")) {
+            // given
+            List<Diff> diffs = parse(readResource(fixture));
+            UnifiedDiffWriter writer = new UnifiedDiffWriter();
+            writer.setCharset(StandardCharsets.UTF_8);
+
+            // when
+            StringWriter text = new StringWriter();
+            writer.write(diffs, text);
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            writer.write(diffs, stream);
+            ByteBuffer buffer = ByteBuffer.allocate(stream.size());
+            writer.write(diffs, buffer);
+
+            // then
+            Assert.assertEquals(fixture, text.toString(), new String(stream.toByteArray(), StandardCharsets.UTF_8));
+            Assert.assertEquals(fixture, stream.size(), buffer.position());
+            assertSameDiffs(fixture, diffs, parse(stream.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testWrite_CombinedDiff() throws Exception {
+        // given
+        String diff = ""
+                + "diff --cc file.txt\n"
+                + "index fabadb8,cc95eb0..4866510\n"
+                + "--- a/file.txt\n"
+                + "+++ b/file.txt\n"
+                + "@@@ -1,3 -1,2 +1,3 @@@\n"
+                + "  one\n"
+                + "- two\n"
+                + " -2\n"
+                + "++three\n"
+                + " +four\n";
+        List<Diff> diffs = parse(diff.getBytes(StandardCharsets.UTF_8));
+        StringWriter writer = new StringWriter();
+
+        // when
+        new UnifiedDiffWriter().write(diffs, writer);
+
+        // then
+        Assert.assertEquals(diff, writer.toString());
+    }
+
+    @Test
+    public void testWrite_LargeAndNonAsciiContent() throws Exception {
+        // given
+        String patch = SyntheticPatches.gitPatch(300, 5, 42).replace("name", "n\u00e4me \ud83d\ude00");
+        List<Diff> diffs = parse(patch.getBytes(StandardCharsets.UTF_8));
+        UnifiedDiffWriter writer = new UnifiedDiffWriter();
+        writer.setCharset(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        writer.write(diffs, out);
+
+        // then
+        Assert.assertEquals(patch, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expectedExceptions = BufferOverflowException.class)
+    public void testWrite_BufferTooSmall() throws Exception {
+        List<Diff> diffs = parse(GIT_DIFF.getBytes(StandardCharsets.UTF_8));
+
+        new UnifiedDiffWriter().write(diffs, ByteBuffer.allocate(100));
+    }
+
+    private void assertSameDiffs(String fixture, List<Diff> expected, List<Diff> actual) {
+        Assert.assertEquals(fixture, expected.size(), actual.size());
+        for (int d = 0; d < expected.size(); d++) {
+            Diff expectedDiff = expected.get(d);
+            Diff actualDiff = actual.get(d);
+            Assert.assertEquals(fixture, expectedDiff.getHeaderLines(), actualDiff.getHeaderLines());
+            Assert.assertEquals(fixture, expectedDiff.getFromFileName(), actualDiff.getFromFileName());
+            Assert.assertEquals(fixture, expectedDiff.getToFileName(), actualDiff.getToFileName());
+            Assert.assertEquals(fixture, expectedDiff.getHunks().size(), actualDiff.getHunks().size());
+            for (int h = 0; h < expectedDiff.getHunks().size(); h++) {
+                Hunk expectedHunk = expectedDiff.getHunks().get(h);
+                Hunk actualHunk = actualDiff.getHunks().get(h);
+                assertSameRange(expectedHunk.getFromFileRange(), actualHunk.getFromFileRange());
+                assertSameRange(expectedHunk.getToFileRange(), actualHunk.getToFileRange());
+                Assert.assertEquals(fixture, expectedHunk.getLines().size(), actualHunk.getLines().size());
+                for (int l = 0; l < expectedHunk.getLines().size(); l++) {
+                    Line expectedLine = expectedHunk.getLines().get(l);
+                    Line actualLine = actualHunk.getLines().get(l);
+                    Assert.assertEquals(fixture, expectedLine.getLineType(), actualLine.getLineType());
+                    Assert.assertEquals(fixture, expectedLine.getContent(), actualLine.getContent());
+                }
+            }
+        }
+    }
+
+    private void assertSameRange(Range expected, Range actual) {
+        Assert.assertEquals(expected.getLineStart(), actual.getLineStart());
+        Assert.assertEquals(expected.getLineCount(), actual.getLineCount());
+    }
+
+    private List<Diff> parse(byte[] diff) {
+        UnifiedDiffParser parser = new UnifiedDiffParser();
+        parser.setCharset(StandardCharsets.UTF_8);
+        return parser.parse(diff);
+    }
+
+    private byte[] readResource(String name) throws Exception {
+        InputStream in = getClass().getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+}